@@ -0,0 +1,139 @@
+package jobshop;
+
+import jobshop.solvers.GloutonSolver;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Solves a set of instances within a single wall-clock budget.
+ *
+ * The budget is spent in rounds. In each round, the time left is split between the instances that are
+ * not finished, in proportion to their size, and the instances are solved concurrently on a shared pool.
+ * Each round starts from the best solution found so far for the instance (the solver is built from a
+ * seed solver that returns it). An instance is finished once its makespan reaches the lower bound or
+ * its best known result; an instance that did not improve during a round gets half the weight in the
+ * next one, so that time moves to the instances that still converge.
+ */
+public class Batch {
+
+    /** Instances to solve, by name (the name is used to look up the best known result). */
+    private final Map<String, Instance> instances;
+
+    /**
+     * Builds the solver of a round from a seed solver: the seed returns the best solution so far,
+     * or solves the instance with the greedy solver in the first round.
+     */
+    private final Function<Solver, Solver> factory;
+
+    /** Number of rounds the budget is split into. */
+    private final int rounds;
+
+    private final int threads;
+
+    /** Best result and time spent, for each instance. */
+    private final Map<String, Result> results = new HashMap<>();
+    private final Map<String, Long> runtimes = new HashMap<>();
+
+    public Batch(Map<String, Instance> instances, Function<Solver, Solver> factory, int rounds, int threads) {
+        this.instances = new LinkedHashMap<>(instances);
+        this.factory = factory;
+        this.rounds = rounds;
+        this.threads = threads;
+    }
+
+    /** Returns true if the result cannot or need not be improved. */
+    static boolean isFinished(String name, Result result) {
+        int makespan = result.schedule.makespan();
+        if (result.cause == Result.ExitCause.ProvedOptimal || LowerBound.isOptimal(result.instance, makespan))
+            return true;
+        return BestKnownResult.isKnown(name) && makespan <= BestKnownResult.of(name);
+    }
+
+    /**
+     * Splits a round between the active instances: the wall-clock time of the round gives
+     * (time * threads) of solver time, shared in proportion to the weights. Each share is between
+     * 1 ms and the time of the round.
+     */
+    static Map<String, Long> shares(List<String> active, Map<String, Double> weights, long roundTime, int threads) {
+        double capacity = (double) roundTime * Math.min(threads, active.size());
+        double totalWeight = 0;
+        for (String name : active)
+            totalWeight += weights.get(name);
+        Map<String, Long> shares = new HashMap<>();
+        for (String name : active)
+            shares.put(name, Math.max(1, Math.min(roundTime, (long) (capacity * weights.get(name) / totalWeight))));
+        return shares;
+    }
+
+    /**
+     * Solves all instances within the given budget (in milliseconds) and returns the best result of each,
+     * in the order of the instances.
+     */
+    public Map<String, Result> solve(long budgetMs) throws InterruptedException, ExecutionException {
+        long deadline = System.currentTimeMillis() + budgetMs;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        results.clear();
+        Map<String, Double> weights = new HashMap<>();
+        for (Map.Entry<String, Instance> e : instances.entrySet()) {
+            weights.put(e.getKey(), (double) e.getValue().numJobs * e.getValue().numTasks);
+            runtimes.put(e.getKey(), 0L);
+        }
+        try {
+            for (int round = 0; round < rounds; round++) {
+                long now = System.currentTimeMillis();
+                if (deadline - now <= 1) break;
+                List<String> active = new ArrayList<>();
+                for (String name : instances.keySet())
+                    if (!results.containsKey(name) || !isFinished(name, results.get(name))) active.add(name);
+                if (active.isEmpty()) break;
+
+                long roundTime = (deadline - now) / (rounds - round);
+                Map<String, Long> shares = shares(active, weights, roundTime, threads);
+                // the longest runs are started first so that the pool stays busy until the end of the round
+                active.sort(Comparator.comparing((String name) -> -shares.get(name)).thenComparing(name -> name));
+
+                Map<String, Future<Result>> futures = new LinkedHashMap<>();
+                for (String name : active) {
+                    Instance instance = instances.get(name);
+                    Result previous = results.get(name);
+                    long share = shares.get(name);
+                    futures.put(name, pool.submit(() -> {
+                        long start = System.currentTimeMillis();
+                        Solver seed = previous == null
+                                ? new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT) : (i, d) -> previous;
+                        Solver solver = factory.apply(seed);
+                        Result result = Events.solve(solver, instance, Math.min(deadline, start + share));
+                        synchronized (runtimes) {
+                            runtimes.put(name, runtimes.get(name) + System.currentTimeMillis() - start);
+                        }
+                        return result;
+                    }));
+                }
+                for (Map.Entry<String, Future<Result>> e : futures.entrySet()) {
+                    String name = e.getKey();
+                    Result result = e.getValue().get();
+                    Result previous = results.get(name);
+                    if (previous == null || result.schedule.makespan() < previous.schedule.makespan()) {
+                        results.put(name, result);
+                    } else {
+                        // no improvement during this round: less time in the next ones
+                        weights.put(name, weights.get(name) / 2);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        Map<String, Result> ordered = new LinkedHashMap<>();
+        for (String name : instances.keySet())
+            if (results.containsKey(name)) ordered.put(name, results.get(name));
+        return ordered;
+    }
+
+    /** Returns the time spent solving the given instance during the last call to solve, in milliseconds. */
+    public long runtime(String name) {
+        return runtimes.getOrDefault(name, 0L);
+    }
+}
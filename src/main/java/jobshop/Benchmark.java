@@ -0,0 +1,276 @@
+package jobshop;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Performance regression suite: runs solvers on fixed instance families with a fixed budget, one run at a
+ * time, and records for each run the final makespan, the time needed to reach 1%, 5% and 10% of the best
+ * known result (from the improvements reported through {@link Progress}) and the number of evaluations per
+ * second.
+ *
+ * The results can be stored as a baseline file and compared to it: the suite fails if, for a solver, the
+ * mean distance to the best known results increases, the time to reach a target grows or the throughput
+ * drops by more than a tolerance. All solvers use fixed random seeds, so that only timing affects the results.
+ */
+public class Benchmark {
+
+    /** Distances to the best known result (in %) for which the time to reach them is recorded. */
+    static final int[] TARGETS = {1, 5, 10};
+
+    /** Increase of a time to target (ms) always tolerated: below it, differences are timer and scheduling noise. */
+    static final long TIME_SLACK_MS = 10;
+
+    /** Result of one solver on one instance. */
+    static class Run {
+        final String solver;
+        final String instance;
+        final int makespan;
+        final int bestKnown;
+        // time (ms) to reach each target, -1 if not reached
+        final long[] timeToTarget;
+        final double evaluationsPerSecond;
+
+        Run(String solver, String instance, int makespan, int bestKnown, long[] timeToTarget, double evaluationsPerSecond) {
+            this.solver = solver;
+            this.instance = instance;
+            this.makespan = makespan;
+            this.bestKnown = bestKnown;
+            this.timeToTarget = timeToTarget;
+            this.evaluationsPerSecond = evaluationsPerSecond;
+        }
+
+        double gap() {
+            return 100.0 * (makespan - bestKnown) / bestKnown;
+        }
+
+        String key() {
+            return solver + "," + instance;
+        }
+    }
+
+    /** Runs the solver on the instance with the given budget and measures it. */
+    static Run run(String solverName, String instanceName, long budgetMs) throws IOException {
+        Solver solver = Main.solvers.get(solverName);
+        Instance instance = Instance.fromFile(Paths.get("instances/", instanceName));
+        int bestKnown = BestKnownResult.of(instanceName);
+        long[] timeToTarget = new long[TARGETS.length];
+        Arrays.fill(timeToTarget, -1);
+        long start = System.nanoTime();
+        Progress.Listener listener = (inst, makespan) -> {
+            if (inst != instance) return;
+            reached(timeToTarget, makespan, bestKnown, (System.nanoTime() - start) / 1000000);
+        };
+        Progress.setListener(listener);
+        long evaluations = Progress.evaluations();
+        Result result;
+        try {
+            result = Events.solve(solverName, solver, instance, System.currentTimeMillis() + budgetMs);
+        } finally {
+            Progress.setListener(null);
+        }
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        if (!result.schedule.isValid())
+            throw new IllegalStateException(solverName + " returned an invalid schedule on " + instanceName);
+        // solvers that do not report their improvements reach the targets when they return
+        reached(timeToTarget, result.schedule.makespan(), bestKnown, elapsed);
+        double evaluationsPerSecond = 1000.0 * (Progress.evaluations() - evaluations) / Math.max(1, elapsed);
+        return new Run(solverName, instanceName, result.schedule.makespan(), bestKnown, timeToTarget, evaluationsPerSecond);
+    }
+
+    private static synchronized void reached(long[] timeToTarget, int makespan, int bestKnown, long time) {
+        for (int k = 0; k < TARGETS.length; k++) {
+            if (timeToTarget[k] == -1 && 100L * makespan <= (100L + TARGETS[k]) * bestKnown)
+                timeToTarget[k] = time;
+        }
+    }
+
+    /** Writes the runs as CSV, the format of baseline files. */
+    static void write(List<Run> runs, Path path) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path))) {
+            out.print("solver,instance,makespan,best_known");
+            for (int target : TARGETS)
+                out.print(",time_to_" + target + "pct_ms");
+            out.println(",evaluations_per_s");
+            for (Run run : runs) {
+                out.printf(Locale.ROOT, "%s,%s,%d,%d", run.solver, run.instance, run.makespan, run.bestKnown);
+                for (long t : run.timeToTarget)
+                    out.print("," + t);
+                out.printf(Locale.ROOT, ",%.0f%n", run.evaluationsPerSecond);
+            }
+        }
+    }
+
+    /** Reads a baseline file written by {@link #write(List, Path)}. */
+    static Map<String, Run> read(Path path) throws IOException {
+        Map<String, Run> runs = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(path);
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.trim().isEmpty()) continue;
+            String[] f = line.split(",");
+            long[] timeToTarget = new long[TARGETS.length];
+            for (int k = 0; k < TARGETS.length; k++)
+                timeToTarget[k] = Long.parseLong(f[4 + k]);
+            Run run = new Run(f[0], f[1], Integer.parseInt(f[2]), Integer.parseInt(f[3]), timeToTarget,
+                    Double.parseDouble(f[4 + TARGETS.length]));
+            runs.put(run.key(), run);
+        }
+        return runs;
+    }
+
+    /**
+     * Compares the runs to the baseline, solver by solver, on the instances present in both.
+     * For each target, the times to reach it are summed over the instances where the baseline reached it,
+     * and an instance where the baseline reached the target but the run did not is a regression on its own.
+     * Returns the list of regressions (empty if none).
+     */
+    static List<String> compare(List<Run> runs, Map<String, Run> baseline, double gapTolerance,
+                                double timeTolerance, double throughputTolerance, PrintStream output) {
+        List<String> regressions = new ArrayList<>();
+        Map<String, List<Run>> bySolver = new LinkedHashMap<>();
+        for (Run run : runs)
+            if (baseline.containsKey(run.key()))
+                bySolver.computeIfAbsent(run.solver, s -> new ArrayList<>()).add(run);
+        for (Map.Entry<String, List<Run>> e : bySolver.entrySet()) {
+            double gap = 0, baseGap = 0, logRatio = 0;
+            for (Run run : e.getValue()) {
+                Run base = baseline.get(run.key());
+                gap += run.gap() / e.getValue().size();
+                baseGap += base.gap() / e.getValue().size();
+                logRatio += Math.log(Math.max(1, run.evaluationsPerSecond) / Math.max(1, base.evaluationsPerSecond))
+                        / e.getValue().size();
+            }
+            // geometric mean of the throughput ratios
+            double throughput = Math.exp(logRatio);
+            output.printf(Locale.ROOT, "%-20s gap %6.2f%% (baseline %6.2f%%)   throughput x%.2f%n",
+                    e.getKey(), gap, baseGap, throughput);
+            if (gap > baseGap + gapTolerance)
+                regressions.add(String.format(Locale.ROOT, "%s: mean gap %.2f%% vs %.2f%% in baseline", e.getKey(), gap, baseGap));
+            for (int k = 0; k < TARGETS.length; k++) {
+                long time = 0, baseTime = 0;
+                List<String> missed = new ArrayList<>();
+                for (Run run : e.getValue()) {
+                    Run base = baseline.get(run.key());
+                    if (base.timeToTarget[k] == -1) continue;
+                    if (run.timeToTarget[k] == -1) {
+                        missed.add(run.instance);
+                        continue;
+                    }
+                    time += run.timeToTarget[k];
+                    baseTime += base.timeToTarget[k];
+                }
+                output.printf(Locale.ROOT, "%-20s t(%d%%) %6d ms (baseline %6d ms)%n", "", TARGETS[k], time, baseTime);
+                if (!missed.isEmpty())
+                    regressions.add(String.format(Locale.ROOT, "%s: %d%% of the best known result not reached on %s",
+                            e.getKey(), TARGETS[k], String.join(" ", missed)));
+                if (time > baseTime * (1 + timeTolerance / 100) + TIME_SLACK_MS)
+                    regressions.add(String.format(Locale.ROOT, "%s: time to %d%% of the best known results %d ms vs %d ms in baseline",
+                            e.getKey(), TARGETS[k], time, baseTime));
+            }
+            if (throughput < 1 - throughputTolerance / 100)
+                regressions.add(String.format(Locale.ROOT, "%s: throughput x%.2f of baseline", e.getKey(), throughput));
+        }
+        return regressions;
+    }
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-solver benchmark").build().defaultHelp(true)
+                .description("Performance regression suite.");
+        parser.addArgument("--solver").nargs("+").setDefault(Arrays.asList("tabou", "tabou-n7", "annealing", "ils"))
+                .help("Solver(s) to measure");
+        parser.addArgument("--instance").nargs("+").setDefault(Arrays.asList("ft", "la16", "la2", "ta0"))
+                .help("Instance families (prefixes) to run on");
+        parser.addArgument("-t", "--timeout").setDefault(1000L).type(Long.class)
+                .help("Budget of each run in milliseconds");
+        parser.addArgument("--warmup").setDefault(500L).type(Long.class)
+                .help("Time in milliseconds given to each solver on ft10 before measuring it");
+        parser.addArgument("--baseline")
+                .help("Baseline file to compare to");
+        parser.addArgument("--write-baseline")
+                .help("Writes the results to this baseline file");
+        parser.addArgument("--gap-tolerance").setDefault(0.5).type(Double.class)
+                .help("Increase of the mean distance to the best known results (in points) that is a regression");
+        parser.addArgument("--time-tolerance").setDefault(50.0).type(Double.class)
+                .help("Increase of the total time to reach each target (in %) that is a regression");
+        parser.addArgument("--throughput-tolerance").setDefault(20.0).type(Double.class)
+                .help("Drop of the evaluations per second (in %) that is a regression");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        PrintStream output = System.out;
+        try {
+            List<String> solverNames = ns.getList("solver");
+            for (String solverName : solverNames) {
+                if (!Main.solvers.containsKey(solverName))
+                    throw new IllegalArgumentException("unknown solver " + solverName);
+            }
+            List<String> instances = new ArrayList<>();
+            for (String prefix : ns.<String>getList("instance"))
+                instances.addAll(BestKnownResult.instancesMatching(prefix));
+            long budget = ns.getLong("timeout");
+            // without baseline the comparison cannot pass: fail before running the suite
+            Path baselinePath = ns.getString("baseline") == null ? null : Paths.get(ns.getString("baseline"));
+            if (baselinePath != null && !Files.exists(baselinePath))
+                throw new IllegalStateException("no baseline at " + baselinePath
+                        + ", record one on this machine with --write-baseline (./gradlew benchmarkBaseline)");
+
+            output.printf("%-20s %-8s %8s %6s", "solver", "instance", "makespan", "gap");
+            for (int target : TARGETS)
+                output.printf(" %8s", "t(" + target + "%)");
+            output.printf(" %12s%n", "eval/s");
+            List<Run> runs = new ArrayList<>();
+            for (String solverName : solverNames) {
+                if (ns.getLong("warmup") > 0)
+                    run(solverName, "ft10", ns.getLong("warmup"));
+                for (String instanceName : instances) {
+                    Run run = run(solverName, instanceName, budget);
+                    runs.add(run);
+                    output.printf(Locale.ROOT, "%-20s %-8s %8d %5.1f%%", run.solver, run.instance, run.makespan, run.gap());
+                    for (long t : run.timeToTarget)
+                        output.printf(" %8s", t == -1 ? "-" : Long.toString(t));
+                    output.printf(Locale.ROOT, " %12.0f%n", run.evaluationsPerSecond);
+                    output.flush();
+                }
+            }
+
+            if (ns.getString("write_baseline") != null) {
+                Path path = Paths.get(ns.getString("write_baseline"));
+                if (path.getParent() != null) Files.createDirectories(path.getParent());
+                write(runs, path);
+                output.println("baseline written to " + path);
+            }
+            if (baselinePath != null) {
+                List<String> regressions = compare(runs, read(baselinePath), ns.getDouble("gap_tolerance"),
+                        ns.getDouble("time_tolerance"), ns.getDouble("throughput_tolerance"), output);
+                if (!regressions.isEmpty()) {
+                    for (String regression : regressions)
+                        System.err.println("REGRESSION: " + regression);
+                    System.exit(1);
+                }
+                output.println("no regression");
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
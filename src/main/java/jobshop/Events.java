@@ -0,0 +1,175 @@
+package jobshop;
+
+import jdk.jfr.*;
+
+/**
+ * Java Flight Recorder events marking the logical phases of the solvers: each call to a solver, each batch
+ * of iterations and each neighbourhood scan of the local searches, and each improvement of the incumbent.
+ *
+ * The events are only recorded while a flight recording is running, for instance one started with
+ * {@code -XX:StartFlightRecording} or {@code jcmd <pid> JFR.start}. {@link Solve} is enabled by default;
+ * the finer events ({@link IterationBatch}, {@link NeighbourhoodScan}, {@link Improvement}) are frequent and
+ * disabled by default, so that a continuous recording with the JDK settings stays cheap. They are turned on
+ * in the settings of the recording, for instance in a copy of {@code $JAVA_HOME/lib/jfr/default.jfc}:
+ *
+ * <pre>
+ *   &lt;event name="jobshop.NeighbourhoodScan"&gt;
+ *     &lt;setting name="enabled"&gt;true&lt;/setting&gt;
+ *     &lt;setting name="threshold"&gt;0 ms&lt;/setting&gt;
+ *   &lt;/event&gt;
+ * </pre>
+ *
+ * given with {@code -XX:StartFlightRecording:settings=jobshop.jfc}, or with {@code Recording.enable(name)}.
+ * Without recording, {@code begin()} and {@code shouldCommit()} do nothing and the event objects do not
+ * escape, so the JIT removes them: fields are only set once an event is to be committed.
+ */
+public final class Events {
+
+    private Events() {}
+
+    /** One call to {@link Solver#solve(Instance, long)}. */
+    @Name("jobshop.Solve")
+    @Label("Solve")
+    @Category("Jobshop")
+    @Description("One call to a solver")
+    @StackTrace(false)
+    public static class Solve extends Event {
+        @Label("Instance") public String instance;
+        @Label("Jobs") public int jobs;
+        @Label("Machines") public int machines;
+        @Label("Solver") public String solver;
+        @Label("Makespan") public int makespan;
+        @Label("Exit Cause") public String cause;
+    }
+
+    /** A batch of {@link IterationBatch#SIZE} iterations of a local search (fewer for the last one). */
+    @Name("jobshop.IterationBatch")
+    @Label("Iteration Batch")
+    @Category("Jobshop")
+    @Description("Consecutive iterations of a local search")
+    @StackTrace(false)
+    @Enabled(false)
+    public static class IterationBatch extends Event {
+        /** Number of iterations per event. */
+        public static final int SIZE = 100;
+
+        @Label("Instance") public String instance;
+        @Label("Jobs") public int jobs;
+        @Label("Machines") public int machines;
+        @Label("Solver") public String solver;
+        @Label("First Iteration") public long firstIteration;
+        @Label("Iterations") public int iterations;
+        @Label("Best Makespan") public int bestMakespan;
+
+        /** Starts a batch whose first iteration has the given number. */
+        public static IterationBatch start(long firstIteration) {
+            IterationBatch batch = new IterationBatch();
+            batch.firstIteration = firstIteration;
+            batch.begin();
+            return batch;
+        }
+
+        /**
+         * Called after each iteration: once the batch holds {@link #SIZE} iterations, commits it and returns the
+         * next batch, otherwise returns this batch.
+         */
+        public IterationBatch iterated(String solver, Instance instance, long iteration, int bestMakespan) {
+            if (iteration - firstIteration + 1 < SIZE) return this;
+            finish(solver, instance, iteration, bestMakespan);
+            return start(iteration + 1);
+        }
+
+        /** Commits the batch, whose last iteration has the given number. */
+        public void finish(String solver, Instance instance, long lastIteration, int bestMakespan) {
+            if (lastIteration < firstIteration || !shouldCommit()) return;
+            this.instance = instance.name();
+            this.jobs = instance.numJobs;
+            this.machines = instance.numMachines;
+            this.solver = solver;
+            this.iterations = (int) (lastIteration - firstIteration + 1);
+            this.bestMakespan = bestMakespan;
+            commit();
+        }
+    }
+
+    /** The evaluation of the neighbours of the current solution in one iteration of a local search. */
+    @Name("jobshop.NeighbourhoodScan")
+    @Label("Neighbourhood Scan")
+    @Category("Jobshop")
+    @Description("Evaluation of the neighbourhood of the current solution")
+    @StackTrace(false)
+    @Enabled(false)
+    public static class NeighbourhoodScan extends Event {
+        @Label("Instance") public String instance;
+        @Label("Solver") public String solver;
+        @Label("Iteration") public long iteration;
+        @Label("Neighbours") @Description("Size of the neighbourhood") public int neighbours;
+        @Label("Evaluated") @Description("Neighbours whose makespan was computed") public int evaluated;
+        @Label("Best Makespan") @Description("Best makespan in the neighbourhood, -1 if none") public int bestMakespan;
+
+        public static NeighbourhoodScan start() {
+            NeighbourhoodScan scan = new NeighbourhoodScan();
+            scan.begin();
+            return scan;
+        }
+
+        public void finish(String solver, Instance instance, long iteration, int neighbours, int evaluated, int bestMakespan) {
+            if (!shouldCommit()) return;
+            this.instance = instance.name();
+            this.solver = solver;
+            this.iteration = iteration;
+            this.neighbours = neighbours;
+            this.evaluated = evaluated;
+            this.bestMakespan = bestMakespan;
+            commit();
+        }
+    }
+
+    /** A new best solution found by a solver, see {@link Progress#improved(Instance, int)}. */
+    @Name("jobshop.Improvement")
+    @Label("Improvement")
+    @Category("Jobshop")
+    @Description("New best solution found by a solver")
+    @StackTrace(false)
+    @Enabled(false)
+    public static class Improvement extends Event {
+        @Label("Instance") public String instance;
+        @Label("Jobs") public int jobs;
+        @Label("Machines") public int machines;
+        @Label("Makespan") public int makespan;
+    }
+
+    /** Calls the solver within a {@link Solve} event named after its class. */
+    public static Result solve(Solver solver, Instance instance, long deadline) {
+        return solve(solver.getClass().getSimpleName(), solver, instance, deadline);
+    }
+
+    /** Calls the solver within a {@link Solve} event. */
+    public static Result solve(String name, Solver solver, Instance instance, long deadline) {
+        Solve event = new Solve();
+        event.begin();
+        Result result = solver.solve(instance, deadline);
+        if (event.shouldCommit()) {
+            event.instance = instance.name();
+            event.jobs = instance.numJobs;
+            event.machines = instance.numMachines;
+            event.solver = name;
+            event.makespan = result.schedule == null ? -1 : result.schedule.makespan();
+            event.cause = result.cause.name();
+            event.commit();
+        }
+        return result;
+    }
+
+    /** Records an {@link Improvement} event. */
+    static void improved(Instance instance, int makespan) {
+        Improvement event = new Improvement();
+        if (event.shouldCommit()) {
+            event.instance = instance.name();
+            event.jobs = instance.numJobs;
+            event.machines = instance.numMachines;
+            event.makespan = makespan;
+            event.commit();
+        }
+    }
+}
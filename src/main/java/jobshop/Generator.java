@@ -0,0 +1,148 @@
+package jobshop;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Deterministic generator of jobshop instances, following Taillard's procedure
+ * (E. Taillard, Benchmarks for basic scheduling problems, 1993).
+ *
+ * Durations are drawn uniformly in [minDuration, maxDuration] (1 to 99 for Taillard's instances) with a
+ * first random stream, and the machine order of each job is a random permutation drawn with a second stream.
+ * Both streams are Taillard's linear congruential generator, so that the same seeds always give the same
+ * instance: the seeds published by Taillard give back the ta instances.
+ */
+public class Generator {
+
+    /** Taillard's random stream: Lehmer generator x = 16807 x mod (2^31 - 1). */
+    static class Stream {
+        private static final long M = 2147483647L;
+        private long seed;
+
+        Stream(long seed) {
+            if (seed <= 0 || seed >= M)
+                throw new IllegalArgumentException("Seed must be in [1, 2^31 - 2]: " + seed);
+            this.seed = seed;
+        }
+
+        /** Next integer drawn uniformly in [low, high]. */
+        int unif(int low, int high) {
+            // Schrage's method: 16807 * seed mod M without overflow on 32-bit arithmetic
+            long k = seed / 127773;
+            seed = 16807 * (seed % 127773) - k * 2836;
+            if (seed < 0) seed += M;
+            double value = seed / (double) M;
+            return low + (int) (value * (high - low + 1));
+        }
+    }
+
+    private Generator() {}
+
+    /** Generates an instance with Taillard's procedure and durations in [1, 99]. */
+    public static Instance taillard(int numJobs, int numMachines, long timeSeed, long machineSeed) {
+        return taillard(numJobs, numMachines, timeSeed, machineSeed, 1, 99);
+    }
+
+    /** Generates an instance with Taillard's procedure and durations in [minDuration, maxDuration]. */
+    public static Instance taillard(int numJobs, int numMachines, long timeSeed, long machineSeed,
+                                    int minDuration, int maxDuration) {
+        if (numJobs <= 0 || numMachines <= 0)
+            throw new IllegalArgumentException("Invalid size " + numJobs + "x" + numMachines);
+        if (minDuration < 0 || maxDuration < minDuration)
+            throw new IllegalArgumentException("Invalid durations [" + minDuration + ", " + maxDuration + "]");
+        Instance instance = new Instance(numJobs, numMachines);
+        instance.name = "taillard-" + numJobs + "x" + numMachines + "-" + timeSeed + "-" + machineSeed;
+        Stream time = new Stream(timeSeed);
+        for (int op = 0; op < numJobs * numMachines; op++)
+            instance.durations[op] = time.unif(minDuration, maxDuration);
+        Stream machine = new Stream(machineSeed);
+        for (int job = 0; job < numJobs; job++) {
+            int first = instance.op(job, 0);
+            for (int task = 0; task < numMachines; task++)
+                instance.machines[first + task] = task;
+            // each task is exchanged with a task drawn among itself and the following ones
+            for (int task = 0; task < numMachines; task++) {
+                int other = machine.unif(task + 1, numMachines) - 1;
+                int tmp = instance.machines[first + task];
+                instance.machines[first + task] = instance.machines[first + other];
+                instance.machines[first + other] = tmp;
+            }
+        }
+        return instance;
+    }
+
+    /** Writes the instance in the text format read by {@link Instance#fromFile(Path)}. */
+    public static void write(Instance instance, Writer out, String comment) throws IOException {
+        if (comment != null)
+            out.write("# " + comment + "\n");
+        out.write(instance.numJobs + " " + instance.numTasks + "\n");
+        StringBuilder line = new StringBuilder();
+        for (int job = 0; job < instance.numJobs; job++) {
+            line.setLength(0);
+            for (int task = 0; task < instance.numTasks; task++) {
+                line.append(String.format("%2d %2d ", instance.machine(job, task), instance.duration(job, task)));
+            }
+            line.setCharAt(line.length() - 1, '\n');
+            out.write(line.toString());
+        }
+    }
+
+    /** Writes the instance to the given file. */
+    public static void write(Instance instance, Path path, String comment) throws IOException {
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        try (BufferedWriter out = Files.newBufferedWriter(path)) {
+            write(instance, out, comment);
+        }
+    }
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-solver generate").build().defaultHelp(true)
+                .description("Generates a jobshop instance with Taillard's procedure.");
+        parser.addArgument("--jobs").required(true).type(Integer.class)
+                .help("Number of jobs");
+        parser.addArgument("--machines").required(true).type(Integer.class)
+                .help("Number of machines (and tasks per job)");
+        parser.addArgument("--time-seed").setDefault(840612802L).type(Long.class)
+                .help("Seed of the durations");
+        parser.addArgument("--machine-seed").setDefault(398197754L).type(Long.class)
+                .help("Seed of the machine orders");
+        parser.addArgument("--min-duration").setDefault(1).type(Integer.class)
+                .help("Smallest duration");
+        parser.addArgument("--max-duration").setDefault(99).type(Integer.class)
+                .help("Largest duration");
+        parser.addArgument("-o", "--output").required(true)
+                .help("File to write the instance to");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        try {
+            Instance instance = taillard(ns.getInt("jobs"), ns.getInt("machines"), ns.getLong("time_seed"),
+                    ns.getLong("machine_seed"), ns.getInt("min_duration"), ns.getInt("max_duration"));
+            String comment = String.format("Taillard generator: %d jobs, %d machines, time seed %d, machine seed %d, durations [%d, %d]",
+                    instance.numJobs, instance.numMachines, ns.getLong("time_seed"), ns.getLong("machine_seed"),
+                    ns.getInt("min_duration"), ns.getInt("max_duration"));
+            write(instance, Paths.get(ns.getString("output")), comment);
+        } catch (IllegalArgumentException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import jobshop.encodings.Task;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Scanner;
 import java.util.stream.Collectors;
@@ -20,29 +21,106 @@ public class Instance {
     /** Number of machines, assumed to be same as number of tasks. */
     public final int numMachines;
 
-    final int[][] durations;
-    final int[][] machines;
+    /**
+     * Durations and machines of all tasks, in a flat row-major layout: the task (job, task) is at
+     * index job * numTasks + task (see {@link #op(int, int)}).
+     */
+    final int[] durations;
+    final int[] machines;
 
+    /** For each job and machine, the task of the job that uses the machine, at index job * numMachines + machine. */
+    private volatile int[] taskWithMachine;
+
+    /** Index of the task (job, task) in the flat arrays. */
+    public int op(int job, int task) {
+        return job * numTasks + task;
+    }
+
+    /** Duration of the task at the given index, see {@link #op(int, int)}. */
+    public int duration(int op) {
+        return durations[op];
+    }
     public int duration(int job, int task) {
-        return durations[job][task];
+        return durations[job * numTasks + task];
     }
     public int duration(Task t) {
         return duration(t.job, t.task);
     }
+    /** Machine of the task at the given index, see {@link #op(int, int)}. */
+    public int machine(int op) {
+        return machines[op];
+    }
     public int machine(int job, int task) {
-        return machines[job][task];
+        return machines[job * numTasks + task];
     }
     public int machine(Task t) {
         return machine(t.job, t.task);
     }
 
-    /** among the tasks of the given job, returns the task index that uses the given machine. */
+    /**
+     * among the tasks of the given job, returns the task index that uses the given machine (the first one if
+     * the job uses the machine several times).
+     */
     public int task_with_machine(int job, int wanted_machine) {
-        for(int task = 0 ; task < numTasks ; task++) {
-            if(machine(job, task) == wanted_machine)
-                return task;
+        int[] table = taskWithMachine;
+        if (table == null) {
+            // computed on first use, once all machines are known
+            table = new int[numJobs * numMachines];
+            Arrays.fill(table, -1);
+            for (int j = 0; j < numJobs; j++) {
+                for (int task = 0; task < numTasks; task++) {
+                    int m = machine(j, task);
+                    if (m >= 0 && m < numMachines && table[j * numMachines + m] == -1)
+                        table[j * numMachines + m] = task;
+                }
+            }
+            taskWithMachine = table;
         }
-        throw new RuntimeException("No task targeting machine "+wanted_machine+" on job "+job);
+        int task = wanted_machine < 0 || wanted_machine >= numMachines ? -1 : table[job * numMachines + wanted_machine];
+        if (task == -1)
+            throw new RuntimeException("No task targeting machine "+wanted_machine+" on job "+job);
+        return task;
+    }
+
+    /** Lower bound of the makespan, computed on first use (0 if not computed yet). */
+    private int lowerBound = 0;
+
+    /** Returns the best lower bound of the makespan of this instance, see {@link LowerBound}. */
+    public int lowerBound() {
+        if (lowerBound == 0)
+            lowerBound = LowerBound.compute(this);
+        return lowerBound;
+    }
+
+    /** Name of the instance (file name for instances read from a file), used to label profiling events. */
+    String name = "";
+
+    public String name() {
+        return name;
+    }
+
+    /** 64-bit fingerprint of the machines and durations, computed on first use (0 if not computed yet). */
+    private long hash64 = 0;
+
+    /**
+     * Returns a 64-bit fingerprint of this instance: two instances with the same machines and
+     * durations have the same fingerprint.
+     */
+    public long hash64() {
+        if (hash64 == 0) {
+            long h = mix(numJobs * 31L + numTasks);
+            for (int op = 0; op < numJobs * numTasks; op++)
+                h = mix(h + ((long) machines[op] << 32 | durations[op]));
+            hash64 = h == 0 ? 1 : h;
+        }
+        return hash64;
+    }
+
+    /** Finalizer of the SplitMix64 generator, spreads every input bit over the 64 output bits. */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return (z ^ (z >>> 31)) + 0x9e3779b97f4a7c15L;
     }
 
     Instance(int numJobs, int numTasks) {
@@ -50,8 +128,38 @@ public class Instance {
         this.numTasks = numTasks;
         this.numMachines = numTasks;
 
-        durations = new int[numJobs][numTasks];
-        machines = new int[numJobs][numTasks];
+        durations = new int[numJobs * numTasks];
+        machines = new int[numJobs * numTasks];
+    }
+
+    /**
+     * Returns a new instance made of the jobs of this instance followed by the given jobs, where
+     * machines[j][t] and durations[j][t] describe task t of the j-th new job, which must use each machine
+     * exactly once. Tasks of the existing jobs
+     * keep their index (see {@link #op(int, int)}).
+     */
+    public Instance withJobs(int[][] machines, int[][] durations) {
+        if (machines.length != durations.length)
+            throw new IllegalArgumentException("Expected as many durations as machines, got " + durations.length + " and " + machines.length);
+        Instance pb = new Instance(numJobs + machines.length, numTasks);
+        pb.name = name;
+        System.arraycopy(this.machines, 0, pb.machines, 0, this.machines.length);
+        System.arraycopy(this.durations, 0, pb.durations, 0, this.durations.length);
+        for (int j = 0; j < machines.length; j++) {
+            if (machines[j].length != numTasks || durations[j].length != numTasks)
+                throw new IllegalArgumentException("Job " + j + " must have " + numTasks + " tasks");
+            boolean[] used = new boolean[numMachines];
+            for (int task = 0; task < numTasks; task++) {
+                int m = machines[j][task];
+                if (m < 0 || m >= numMachines || used[m])
+                    throw new IllegalArgumentException("Job " + j + " must use each machine exactly once");
+                used[m] = true;
+                int op = pb.op(numJobs + j, task);
+                pb.machines[op] = machines[j][task];
+                pb.durations[op] = durations[j][task];
+            }
+        }
+        return pb;
     }
 
     /** Parses a instance from a file. */
@@ -65,12 +173,13 @@ public class Instance {
         int num_jobs = header.nextInt();
         int num_tasks = header.nextInt();
         Instance pb = new Instance(num_jobs, num_tasks);
+        pb.name = path.getFileName().toString();
 
         for(int job = 0 ; job<num_jobs ; job++) {
             Scanner line = new Scanner(lines.next());
             for(int task = 0 ; task < num_tasks ; task++) {
-                pb.machines[job][task] = line.nextInt();
-                pb.durations[job][task] = line.nextInt();
+                pb.machines[pb.op(job, task)] = line.nextInt();
+                pb.durations[pb.op(job, task)] = line.nextInt();
             }
         }
 
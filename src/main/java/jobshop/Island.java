@@ -0,0 +1,139 @@
+package jobshop;
+
+import jobshop.solvers.IslandSolver;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Island model over several processes: each worker process runs an {@link IslandSolver} (epochs of tabu search)
+ * on the same instance, and the workers exchange their best solutions through a shared directory. The
+ * coordinator starts the local workers, waits for the deadline and returns the best solution published by any
+ * island.
+ *
+ * Workers on other hosts can join a run: they only need the shared directory (e.g. on NFS) and the same
+ * deadline, given as an absolute time in milliseconds since the epoch (the clocks of the hosts must agree).
+ */
+public class Island {
+
+    /** Time given to the workers after the deadline to publish their last solution and exit. */
+    static final long GRACE_MS = 5000;
+
+    /**
+     * Starts the given number of local worker processes on the instance, waits for them until the deadline and
+     * returns the best solution published in the directory (by these workers or any other island).
+     */
+    static Optional<Result> run(String instanceName, Instance instance, int islands, long deadline, Path directory,
+                                int epochIterations, int tenure, int perturbation) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        // solutions left by a previous run are not part of this one
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "island-*.elite")) {
+            for (Path file : files) Files.delete(file);
+        }
+
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> workers = new ArrayList<>();
+        for (int id = 0; id < islands; id++) {
+            List<String> command = Arrays.asList(java, "-cp", System.getProperty("java.class.path"), Main.class.getName(),
+                    "island", "--instance", instanceName, "--dir", directory.toString(),
+                    "--worker", Integer.toString(id), "--deadline", Long.toString(deadline),
+                    "--epoch", Integer.toString(epochIterations), "--tenure", Integer.toString(tenure),
+                    "--perturbation", Integer.toString(perturbation));
+            workers.add(new ProcessBuilder(command)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start());
+        }
+        try {
+            for (Process worker : workers) {
+                long left = Math.max(0, deadline + GRACE_MS - System.currentTimeMillis());
+                worker.waitFor(left, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            for (Process worker : workers)
+                if (worker.isAlive()) worker.destroyForcibly();
+        }
+        return IslandSolver.best(directory, instance);
+    }
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-solver island").build().defaultHelp(true)
+                .description("Island model: tabu searches in several processes exchanging their best solutions.");
+        parser.addArgument("--instance").required(true)
+                .help("Instance to solve");
+        parser.addArgument("--islands").setDefault(Runtime.getRuntime().availableProcessors()).type(Integer.class)
+                .help("Number of local worker processes");
+        parser.addArgument("-t", "--timeout").setDefault(10L).type(Long.class)
+                .help("Time limit in seconds");
+        parser.addArgument("--dir").setDefault(Paths.get(System.getProperty("java.io.tmpdir"), "jobshop-islands").toString())
+                .help("Directory shared by the islands");
+        parser.addArgument("--epoch").setDefault(200).type(Integer.class)
+                .help("Tabu iterations between two exchanges");
+        parser.addArgument("--tenure").setDefault(10).type(Integer.class)
+                .help("Tabu tenure");
+        parser.addArgument("--perturbation").setDefault(3).type(Integer.class)
+                .help("Random swaps applied to the solution each epoch starts from");
+        parser.addArgument("--worker").type(Integer.class)
+                .help("Runs a single island with this number in this process (used by the coordinator, or to join a run from another host)");
+        parser.addArgument("--deadline").type(Long.class)
+                .help("Deadline of a worker, in milliseconds since the epoch");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        try {
+            String name = ns.getString("instance");
+            Instance instance = Instance.fromFile(Paths.get("instances/", name));
+            Path directory = Paths.get(ns.getString("dir"));
+
+            if (ns.getInt("worker") != null) {
+                if (ns.getLong("deadline") == null)
+                    throw new IllegalArgumentException("a worker needs a --deadline");
+                IslandSolver island = new IslandSolver(directory, ns.getInt("worker"), ns.getInt("epoch"),
+                        ns.getInt("tenure"), ns.getInt("perturbation"));
+                Result result = Events.solve("island", island, instance, ns.getLong("deadline"));
+                System.out.println("island " + ns.getInt("worker") + " " + result.schedule.makespan());
+                return;
+            }
+
+            long start = System.currentTimeMillis();
+            long deadline = start + ns.getLong("timeout") * 1000;
+            Optional<Result> best = run(name, instance, ns.getInt("islands"), deadline, directory,
+                    ns.getInt("epoch"), ns.getInt("tenure"), ns.getInt("perturbation"));
+            if (!best.isPresent()) {
+                System.err.println("ERROR: no island published a solution");
+                System.exit(1);
+            }
+            int makespan = best.get().schedule.makespan();
+            System.out.printf("%s %s makespan %d", name, instance.numJobs + "x" + instance.numTasks, makespan);
+            if (BestKnownResult.isKnown(name)) {
+                int bestKnown = BestKnownResult.of(name);
+                System.out.printf(" best %d ecart %.1f", bestKnown, 100f * (makespan - bestKnown) / bestKnown);
+            }
+            System.out.printf(" runtime %d%n", System.currentTimeMillis() - start);
+        } catch (IllegalArgumentException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package jobshop;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Lower bounds on the optimal makespan of an instance.
+ *
+ * A solver whose incumbent reaches {@link #of(Instance)} has found an optimal solution
+ * and can stop with {@link Result.ExitCause#ProvedOptimal}.
+ */
+public class LowerBound {
+
+    /** Returns the best lower bound known for this instance (max of all bounds below). */
+    public static int of(Instance instance) {
+        return instance.lowerBound();
+    }
+
+    /** Returns true if the given makespan is known to be optimal for this instance. */
+    public static boolean isOptimal(Instance instance, int makespan) {
+        return makespan <= of(instance);
+    }
+
+    static int compute(Instance instance) {
+        return Math.max(jackson(instance), Math.max(jobLength(instance), machineLoad(instance)));
+    }
+
+    /** Length of the longest job: no schedule can finish it earlier. */
+    public static int jobLength(Instance instance) {
+        int max = 0;
+        for (int j = 0; j < instance.numJobs; j++) {
+            int length = 0;
+            for (int t = 0; t < instance.numTasks; t++)
+                length += instance.duration(j, t);
+            max = Math.max(max, length);
+        }
+        return max;
+    }
+
+    /** Total work of the most loaded machine. */
+    public static int machineLoad(Instance instance) {
+        int[] load = new int[instance.numMachines];
+        for (int j = 0; j < instance.numJobs; j++) {
+            for (int t = 0; t < instance.numTasks; t++)
+                load[instance.machine(j, t)] += instance.duration(j, t);
+        }
+        return Arrays.stream(load).max().orElse(0);
+    }
+
+    /**
+     * One-machine preemptive bound (Jackson's rule).
+     *
+     * For each machine, the tasks it executes are given a head (work of the job before the task)
+     * and a tail (work of the job after the task). The preemptive schedule that always runs the
+     * available task with the longest tail is optimal for the relaxed one-machine problem and its
+     * value max(C_j + q_j) is a lower bound of the makespan. Dominates {@link #machineLoad(Instance)}.
+     */
+    public static int jackson(Instance instance) {
+        int n = instance.numJobs;
+        int[] heads = new int[n];
+        int[] durations = new int[n];
+        int[] tails = new int[n];
+        int best = 0;
+        for (int m = 0; m < instance.numMachines; m++) {
+            for (int j = 0; j < n; j++) {
+                int task = instance.task_with_machine(j, m);
+                int head = 0, tail = 0;
+                for (int t = 0; t < task; t++)
+                    head += instance.duration(j, t);
+                for (int t = task + 1; t < instance.numTasks; t++)
+                    tail += instance.duration(j, t);
+                heads[j] = head;
+                durations[j] = instance.duration(j, task);
+                tails[j] = tail;
+            }
+            best = Math.max(best, preemptive(heads, durations, tails));
+        }
+        return best;
+    }
+
+    /**
+     * Value of the optimal preemptive schedule of the one-machine problem 1|r_j,pmtn,q_j|Cmax.
+     * Arrays are indexed by task and are not modified.
+     */
+    public static int preemptive(int[] heads, int[] durations, int[] tails) {
+        int n = heads.length;
+        // tasks sorted by increasing release date
+        Integer[] byHead = new Integer[n];
+        for (int i = 0; i < n; i++)
+            byHead[i] = i;
+        Arrays.sort(byHead, (a, b) -> Integer.compare(heads[a], heads[b]));
+
+        int[] remaining = Arrays.copyOf(durations, n);
+        // available tasks, the one with the longest tail first
+        PriorityQueue<Integer> available = new PriorityQueue<>((a, b) -> Integer.compare(tails[b], tails[a]));
+        int time = 0;
+        int next = 0;
+        int value = 0;
+        while (next < n || !available.isEmpty()) {
+            if (available.isEmpty())
+                time = Math.max(time, heads[byHead[next]]);
+            while (next < n && heads[byHead[next]] <= time)
+                available.add(byHead[next++]);
+            int cur = available.peek();
+            // run cur until it completes or until the next release date
+            int until = next < n ? Math.min(time + remaining[cur], heads[byHead[next]]) : time + remaining[cur];
+            remaining[cur] -= until - time;
+            time = until;
+            if (remaining[cur] == 0) {
+                available.poll();
+                value = Math.max(value, time + tails[cur]);
+            }
+        }
+        return value;
+    }
+}
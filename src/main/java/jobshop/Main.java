@@ -1,9 +1,12 @@
 package jobshop;
 
+import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import jobshop.solvers.*;
 import net.sourceforge.argparse4j.ArgumentParsers;
@@ -13,32 +16,110 @@ import net.sourceforge.argparse4j.inf.Namespace;
 
 public class Main {
 
-    /** All solvers available in this program */
-    private static HashMap<String, Solver> solvers;
+    /**
+     * All solvers available in this program, as factories: each call builds a new solver. Solvers may keep state
+     * between calls (e.g. an evaluation cache), code that solves concurrently (server, tuning) builds its own.
+     */
+    static LinkedHashMap<String, Supplier<Solver>> solverFactories;
+    static {
+        solverFactories = new LinkedHashMap<>();
+        solverFactories.put("basic", () -> new BasicSolver());
+        solverFactories.put("random", () -> new RandomSolver());
+        solverFactories.put("glouton-SPT", () -> new GloutonSolver(GloutonSolver.GloutonPriority.SPT));
+        solverFactories.put("glouton-LPT", () -> new GloutonSolver(GloutonSolver.GloutonPriority.LPT));
+        solverFactories.put("glouton-SRPT", () -> new GloutonSolver(GloutonSolver.GloutonPriority.SRPT));
+        solverFactories.put("glouton-LRPT", () -> new GloutonSolver(GloutonSolver.GloutonPriority.LRPT));
+        solverFactories.put("glouton-EST_SPT", () -> new GloutonSolver(GloutonSolver.GloutonPriority.EST_SPT));
+        solverFactories.put("glouton-EST_LPT", () -> new GloutonSolver(GloutonSolver.GloutonPriority.EST_LPT));
+        solverFactories.put("glouton-EST_SRPT", () -> new GloutonSolver(GloutonSolver.GloutonPriority.EST_SRPT));
+        solverFactories.put("glouton-EST_LRPT", () -> new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT));
+        solverFactories.put("descent", () -> new DescentSolver());
+        solverFactories.put("tabou", () -> new TabouSolver(500, 10));
+        solverFactories.put("tabou-par", () -> new TabouSolver(500, 10, new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT),
+                new EvaluationCache(1 << 16), Runtime.getRuntime().availableProcessors()));
+        solverFactories.put("tabou-pr", () -> new PathRelinkingSolver(500, 10, 8));
+        solverFactories.put("lns", () -> new LnsSolver(30, 20000, Runtime.getRuntime().availableProcessors(), new TabouSolver(500, 10)));
+        solverFactories.put("ils", () -> new IteratedLocalSearchSolver(3, IteratedLocalSearchSolver.Acceptance.IMPROVING,
+                Runtime.getRuntime().availableProcessors()));
+        solverFactories.put("tabou-n7", () -> new TabouInsertionSolver(100000, 10, 5));
+        solverFactories.put("annealing", () -> new SimulatedAnnealingSolver(SimulatedAnnealingSolver.Cooling.GEOMETRIC, 1, 0.02, 1000000));
+        solverFactories.put("genetic", () -> new GeneticSolver(50, 0.3, GeneticSolver.Crossover.JOX, true,
+                Runtime.getRuntime().availableProcessors()));
+        solverFactories.put("beam", () -> new BeamSearchSolver(1, 1024, Runtime.getRuntime().availableProcessors()));
+        solverFactories.put("shifting-bottleneck", () -> new ShiftingBottleneckSolver(1000, 3));
+        solverFactories.put("descent-sb", () -> new DescentSolver(new ShiftingBottleneckSolver(1000, 3)));
+        solverFactories.put("tabou-sb", () -> new TabouSolver(500, 10, new ShiftingBottleneckSolver(1000, 3)));
+        solverFactories.put("tabou-n7-sb", () -> new TabouInsertionSolver(100000, 10, 5, new ShiftingBottleneckSolver(1000, 3)));
+        solverFactories.put("portfolio", () -> new PortfolioSolver(
+                Arrays.asList(new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT), new ShiftingBottleneckSolver(1000, 3),
+                        new GloutonSolver(GloutonSolver.GloutonPriority.EST_SPT)),
+                Arrays.asList(seed -> new TabouInsertionSolver(100000, 10, 5, seed), seed -> new TabouSolver(500, 10, seed),
+                        seed -> new DescentSolver(seed))));
+        solverFactories.put("brute_force_jn", () -> new BruteForceSolver(true));
+        solverFactories.put("brute_force_ro", () -> new BruteForceSolver(false));
+    }
+
+    /** One instance of each solver, used by the sequential runs of this program */
+    static HashMap<String, Solver> solvers;
     static {
         solvers = new HashMap<>();
-        solvers.put("basic", new BasicSolver());
-        solvers.put("random", new RandomSolver());
-        solvers.put("glouton-SPT", new GloutonSolver(GloutonSolver.GloutonPriority.SPT));
-        solvers.put("glouton-LPT", new GloutonSolver(GloutonSolver.GloutonPriority.LPT));
-        solvers.put("glouton-SRPT", new GloutonSolver(GloutonSolver.GloutonPriority.SRPT));
-        solvers.put("glouton-LRPT", new GloutonSolver(GloutonSolver.GloutonPriority.LRPT));
-        solvers.put("glouton-EST_SPT", new GloutonSolver(GloutonSolver.GloutonPriority.EST_SPT));
-        solvers.put("glouton-EST_LPT", new GloutonSolver(GloutonSolver.GloutonPriority.EST_LPT));
-        solvers.put("glouton-EST_SRPT", new GloutonSolver(GloutonSolver.GloutonPriority.EST_SRPT));
-        solvers.put("glouton-EST_LRPT", new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT));
-        solvers.put("descent", new DescentSolver());
-        solvers.put("tabou", new TabouSolver(500, 10));
-        solvers.put("brute_force_jn", new BruteForceSolver(true));
-        solvers.put("brute_force_ro", new BruteForceSolver(false));
+        for (Map.Entry<String, Supplier<Solver>> e : solverFactories.entrySet())
+            solvers.put(e.getKey(), e.getValue().get());
+    }
+
+    /** Solvers that can continue from a given solution, by name (used in batch mode) */
+    static HashMap<String, Function<Solver, Solver>> seededSolvers;
+    static {
+        seededSolvers = new HashMap<>();
+        seededSolvers.put("descent", seed -> new DescentSolver(seed));
+        seededSolvers.put("tabou", seed -> new TabouSolver(500, 10, seed));
+        seededSolvers.put("tabou-pr", seed -> new PathRelinkingSolver(500, 10, 8, seed));
+        seededSolvers.put("lns", seed -> new LnsSolver(30, 20000, Runtime.getRuntime().availableProcessors(), seed));
+        seededSolvers.put("tabou-n7", seed -> new TabouInsertionSolver(100000, 10, 5, seed));
     }
 
     public static void main(String[] args) {
+        // `server` as first argument: long-lived process answering solve requests, see Server
+        if (args.length > 0 && args[0].equals("server")) {
+            Server.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // `benchmark` as first argument: performance regression suite, see Benchmark
+        if (args.length > 0 && args[0].equals("benchmark")) {
+            Benchmark.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // `tune` as first argument: parameter tuning of a solver, see Tuning
+        if (args.length > 0 && args[0].equals("tune")) {
+            Tuning.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // `island` as first argument: tabu searches in several processes, see Island
+        if (args.length > 0 && args[0].equals("island")) {
+            Island.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // `generate` as first argument: writes a generated instance, see Generator
+        if (args.length > 0 && args[0].equals("generate")) {
+            Generator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         ArgumentParser parser = ArgumentParsers.newFor("jsp-solver").build().defaultHelp(true)
                 .description("Solves jobshop problems.");
 
         parser.addArgument("-t", "--timeout").setDefault(1L).type(Long.class)
                 .help("Solver timeout in seconds for each instance");
+        parser.addArgument("-b", "--budget").type(Long.class)
+                .help("Total time budget in seconds shared by all instances (replaces --timeout)");
+        parser.addArgument("--store")
+                .help("Solution store: solvers that take a seed start from the stored solutions, and better ones are stored");
+        parser.addArgument("--checkpoint")
+                .help("Directory of the checkpoints of the tabou solver, which resumes from them when restarted");
+        parser.addArgument("--checkpoint-interval").setDefault(60L).type(Long.class)
+                .help("Time in seconds between two checkpoints");
+        parser.addArgument("--max-iter").setDefault(500).type(Integer.class)
+                .help("Maximum number of iterations of the tabou solver (raise it for long checkpointed runs)");
         parser.addArgument("--solver").nargs("+").required(true)
                 .help("Solver(s) to use (space separated if more than one)");
 
@@ -57,16 +138,14 @@ public class Main {
 
         long solveTimeMs = ns.getLong("timeout") * 1000;
 
+        // the tabou solver, seeded or not, with the iteration limit and the checkpoints of the command line
+        int maxIter = ns.getInt("max_iter");
+        TabouCheckpoint checkpoint = ns.getString("checkpoint") == null ? null
+                : new TabouCheckpoint(Paths.get(ns.getString("checkpoint")), ns.getLong("checkpoint_interval") * 1000);
+        seededSolvers.put("tabou", seed -> new TabouSolver(maxIter, 10, seed, new EvaluationCache(1 << 16), 1, checkpoint));
+        solvers.put("tabou", seededSolvers.get("tabou").apply(new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT)));
+
         List<String> solversToTest = ns.getList("solver");
-        //test tabou
-        /*int[] maxIter = {10000};
-        int[] dureeTabou = {0, 1, 5, 10, 20};
-        for (int x : maxIter) {
-            for (int y : dureeTabou) {
-                solvers.put("tabou(" + x + ',' + y + ')', new TabouSolver(x, y));
-                solversToTest.add("tabou(" + x + ',' + y + ')');
-            }
-        }*/
         for (String solverName : solversToTest) {
             if (!solvers.containsKey(solverName)) {
                 System.err.println("ERROR: Solver \"" + solverName + "\" is not avalaible.");
@@ -91,7 +170,34 @@ public class Main {
         float[] runtimes = new float[solversToTest.size()];
         float[] distances = new float[solversToTest.size()];
 
+        SolutionStore store = null;
         try {
+            if (ns.getString("store") != null)
+                store = new SolutionStore(Paths.get(ns.getString("store")));
+
+            // batch mode: each solver shares the budget between all instances, see Batch
+            Long budget = ns.getLong("budget");
+            Map<String, Batch> batches = new HashMap<>();
+            Map<String, Map<String, Result>> batchResults = new HashMap<>();
+            if (budget != null) {
+                Map<String, Instance> loaded = new LinkedHashMap<>();
+                for (String instanceName : instances)
+                    loaded.put(instanceName, Instance.fromFile(Paths.get("instances/", instanceName)));
+                for (String solverName : solversToTest) {
+                    // the instances of a batch are solved concurrently: a new solver for each run
+                    Function<Solver, Solver> factory = seededSolvers.getOrDefault(solverName,
+                            seed -> solverFactories.get(solverName).get());
+                    if (store != null) {
+                        SolutionStore s = store;
+                        Function<Solver, Solver> unstored = factory;
+                        factory = seed -> unstored.apply(s.seed(seed));
+                    }
+                    Batch batch = new Batch(loaded, factory, 4, Runtime.getRuntime().availableProcessors());
+                    batchResults.put(solverName, batch.solve(budget * 1000));
+                    batches.put(solverName, batch);
+                }
+            }
+
             output.print("                         ");
             for (String s : solversToTest)
                 output.printf("%-30s", s);
@@ -114,10 +220,25 @@ public class Main {
                 for (int solverId = 0; solverId < solversToTest.size(); solverId++) {
                     String solverName = solversToTest.get(solverId);
                     Solver solver = solvers.get(solverName);
-                    long start = System.currentTimeMillis();
-                    long deadline = System.currentTimeMillis() + solveTimeMs;
-                    Result result = solver.solve(instance, deadline);
-                    long runtime = System.currentTimeMillis() - start;
+                    // warm start from the stored solution
+                    if (store != null && seededSolvers.containsKey(solverName))
+                        solver = seededSolvers.get(solverName)
+                                .apply(store.seed(new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT)));
+                    Result result;
+                    long runtime;
+                    if (budget != null) {
+                        result = batchResults.get(solverName).get(instanceName);
+                        runtime = batches.get(solverName).runtime(instanceName);
+                        if (result == null) {
+                            System.err.println("ERROR: budget exhausted before solving " + instanceName);
+                            System.exit(1);
+                        }
+                    } else {
+                        long start = System.currentTimeMillis();
+                        long deadline = System.currentTimeMillis() + solveTimeMs;
+                        result = Events.solve(solverName, solver, instance, deadline);
+                        runtime = System.currentTimeMillis() - start;
+                    }
 
                     if (!result.schedule.isValid()) {
                         System.err.println("ERROR: solver returned an invalid schedule");
@@ -125,6 +246,8 @@ public class Main {
                     }
 
                     assert result.schedule.isValid();
+                    if (store != null)
+                        store.offer(instanceName, instance, result.schedule);
                     int makespan = result.schedule.makespan();
                     float dist = 100f * (makespan - bestKnown) / (float) bestKnown;
                     runtimes[solverId] += (float) runtime / (float) instances.size();
@@ -145,6 +268,14 @@ public class Main {
         } catch (Exception e) {
             e.printStackTrace();
             System.exit(1);
+        } finally {
+            if (store != null) {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
         }
     }
 }
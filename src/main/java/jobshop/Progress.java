@@ -0,0 +1,53 @@
+package jobshop;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hooks called by the solvers while they run, used to measure them (see {@link Benchmark}).
+ *
+ * Solvers report each new best solution with {@link #improved(Instance, int)} and each evaluation of a
+ * complete solution with {@link #evaluated()}. Evaluations are counted where a solver evaluates a candidate
+ * (a neighbour, a leaf, a rollout), not in the decoders, which also rebuild solutions that are already known. Both do nothing but a counter increment when no listener
+ * is registered and no flight recording is running (improvements are also {@link Events.Improvement} events).
+ */
+public final class Progress {
+
+    /** Receives the improvements reported by the solvers. */
+    public interface Listener {
+        /** Called by a solver that found a solution of the given makespan, better than its previous best. */
+        void improved(Instance instance, int makespan);
+    }
+
+    private static volatile Listener listener = null;
+
+    private static final LongAdder evaluations = new LongAdder();
+
+    private Progress() {}
+
+    /** Registers the listener of the improvements (null to remove it). */
+    public static void setListener(Listener l) {
+        listener = l;
+    }
+
+    /** Reports a new best solution of the given makespan for the instance. */
+    public static void improved(Instance instance, int makespan) {
+        Events.improved(instance, makespan);
+        Listener l = listener;
+        if (l != null) l.improved(instance, makespan);
+    }
+
+    /** Counts one evaluation of a complete solution. */
+    public static void evaluated() {
+        evaluations.increment();
+    }
+
+    /** Counts several evaluations of complete solutions, made together. */
+    public static void evaluated(int count) {
+        evaluations.add(count);
+    }
+
+    /** Number of evaluations counted since the start of the program. */
+    public static long evaluations() {
+        return evaluations.sum();
+    }
+}
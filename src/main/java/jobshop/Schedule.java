@@ -7,20 +7,56 @@ import java.util.stream.IntStream;
 
 public class Schedule {
     public final Instance pb;
-    // start times of each job and task
-    // times[j][i] is the start time of task (j,i) : i^th task of the j^th job
-    final int[][] times;
+    // start times of each job and task, in the same flat layout as the instance
+    // times[pb.op(j, i)] is the start time of task (j,i) : i^th task of the j^th job
+    final int[] times;
 
+    /** Creates a schedule from a copy of the given start times, times[j][i] being the start time of task (j,i). */
     public Schedule(Instance pb, int[][] times) {
         this.pb = pb;
-        this.times = new int[pb.numJobs][];
+        this.times = new int[pb.numJobs * pb.numTasks];
         for (int j = 0; j < pb.numJobs; j++) {
-            this.times[j] = Arrays.copyOf(times[j], pb.numTasks);
+            System.arraycopy(times[j], 0, this.times, j * pb.numTasks, pb.numTasks);
         }
     }
 
+    private Schedule(Instance pb, int[] times) {
+        this.pb = pb;
+        this.times = times;
+    }
+
+    /**
+     * Creates a schedule that takes ownership of the given start times, in the flat layout of the instance
+     * (see {@link Instance#op(int, int)}). The array is not copied and must not be modified afterwards.
+     */
+    public static Schedule wrap(Instance pb, int[] times) {
+        if (times.length != pb.numJobs * pb.numTasks)
+            throw new IllegalArgumentException("Expected " + pb.numJobs * pb.numTasks + " start times, got " + times.length);
+        return new Schedule(pb, times);
+    }
+
     public int startTime(int job, int task) {
-        return times[job][task];
+        return times[job * pb.numTasks + task];
+    }
+
+    /** Start time of the task at the given index, see {@link Instance#op(int, int)}. */
+    public int startTime(int op) {
+        return times[op];
+    }
+
+    /**
+     * Returns the index of every task (see {@link Instance#op(int, int)}) sorted by start time, ties being
+     * broken by job then task. A single sort over primitives: each task is encoded as (start << 32 | op).
+     */
+    public int[] operationsByStartTime() {
+        long[] keys = new long[times.length];
+        for (int op = 0; op < times.length; op++)
+            keys[op] = ((long) times[op] << 32) | op;
+        Arrays.sort(keys);
+        int[] ops = new int[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            ops[i] = (int) keys[i];
+        return ops;
     }
 
     /** Returns true if this schedule is valid (no constraint is violated) */
@@ -57,7 +93,8 @@ public class Schedule {
     public int makespan() {
         int max = -1;
         for (int j = 0; j < pb.numJobs; j++) {
-            max = Math.max(max, startTime(j, pb.numTasks - 1) + pb.duration(j, pb.numTasks - 1));
+            int last = pb.op(j, pb.numTasks - 1);
+            max = Math.max(max, times[last] + pb.duration(last));
         }
         return max;
     }
@@ -147,9 +184,9 @@ public class Schedule {
             str.append("\nJob ").append(i + 1).append(":\t");
             start = 0;
             for (int j = 0; j < pb.numTasks; j++) {
-                str.append(repeat(' ', times[i][j] - start))
+                str.append(repeat(' ', startTime(i, j) - start))
                         .append(repeat((char) (pb.machine(i, j) + 1 + 48), pb.duration(i, j)));
-                start = times[i][j] + pb.duration(i, j);
+                start = startTime(i, j) + pb.duration(i, j);
             }
         }
         return str.toString();
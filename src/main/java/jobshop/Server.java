@@ -0,0 +1,194 @@
+package jobshop;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Long-lived solver process: the solvers of {@link Main} stay loaded (and JIT-compiled) between
+ * requests and parsed instances are cached, so that the latency of a request is the solve time itself.
+ * Each request is solved by its own solver, built from {@link Main#solverFactories}: solvers that keep
+ * state between calls are never shared by concurrent requests.
+ *
+ * Requests are read line by line, either from stdin or from local socket connections:
+ * <pre>
+ *   ID SOLVER INSTANCE [TIMEOUT_MS]
+ * </pre>
+ * Requests are solved concurrently and each answer is written on its own line as soon as it is ready,
+ * in completion order (the ID identifies the request):
+ * <pre>
+ *   ID ok INSTANCE SOLVER MAKESPAN RUNTIME_MS CAUSE
+ *   ID error MESSAGE
+ * </pre>
+ * The line {@code quit} closes the connection (or stops the server in stdin mode) once pending
+ * requests are answered.
+ */
+public class Server {
+
+    /** Timeout used when a request does not give one, in milliseconds. */
+    private final long defaultTimeoutMs;
+
+    /** Pool on which the requests are solved. */
+    private final ExecutorService pool;
+
+    /** Instances already parsed, by name. */
+    private final ConcurrentHashMap<String, Instance> instances = new ConcurrentHashMap<>();
+
+    public Server(int threads, long defaultTimeoutMs) {
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.defaultTimeoutMs = defaultTimeoutMs;
+    }
+
+    /** Returns the instance with the given name, parsed from the `instances/` directory on first use. */
+    Instance instance(String name) throws IOException {
+        Instance instance = instances.get(name);
+        if (instance == null) {
+            if (name.contains("/") || name.contains(File.separator))
+                throw new IOException("invalid instance name: " + name);
+            instance = Instance.fromFile(Paths.get("instances/", name));
+            Instance previous = instances.putIfAbsent(name, instance);
+            if (previous != null) instance = previous;
+        }
+        return instance;
+    }
+
+    /** Solves a single request line and returns the answer line. */
+    String answer(String line) {
+        String[] words = line.trim().split("\\s+");
+        String id = words[0];
+        if (words.length < 3 || words.length > 4)
+            return id + " error expected: ID SOLVER INSTANCE [TIMEOUT_MS]";
+        Supplier<Solver> factory = Main.solverFactories.get(words[1]);
+        if (factory == null)
+            return id + " error unknown solver " + words[1];
+        try {
+            Solver solver = factory.get();
+            Instance instance = instance(words[2]);
+            long timeoutMs = words.length == 4 ? Long.parseLong(words[3]) : defaultTimeoutMs;
+            long start = System.currentTimeMillis();
+            Result result = Events.solve(words[1], solver, instance, start + timeoutMs);
+            long runtime = System.currentTimeMillis() - start;
+            if (!result.schedule.isValid())
+                return id + " error solver returned an invalid schedule";
+            return String.format("%s ok %s %s %d %d %s", id, words[2], words[1], result.schedule.makespan(),
+                    runtime, result.cause);
+        } catch (NumberFormatException e) {
+            return id + " error invalid timeout " + words[3];
+        } catch (IOException e) {
+            return id + " error cannot read instance " + words[2];
+        } catch (Exception e) {
+            return id + " error " + e;
+        }
+    }
+
+    /**
+     * Reads requests from the given input until `quit` or the end of the stream, and writes the answers
+     * on the given output. Returns once all the requests read have been answered.
+     */
+    void serve(BufferedReader in, PrintWriter out) throws IOException, InterruptedException {
+        Phaser pending = new Phaser(1);
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.trim().isEmpty()) continue;
+            if (line.trim().equals("quit")) break;
+            final String request = line;
+            pending.register();
+            pool.execute(() -> {
+                try {
+                    String answer = answer(request);
+                    synchronized (out) {
+                        out.println(answer);
+                        out.flush();
+                    }
+                } finally {
+                    pending.arriveAndDeregister();
+                }
+            });
+        }
+        pending.arriveAndAwaitAdvance();
+    }
+
+    /** Accepts connections on the given local port, each connection is served by its own thread. */
+    void listen(int port) throws IOException {
+        try (ServerSocket socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.err.println("listening on " + socket.getLocalSocketAddress());
+            while (true) {
+                Socket client = socket.accept();
+                Thread thread = new Thread(() -> {
+                    try (Socket c = client;
+                         BufferedReader in = new BufferedReader(new InputStreamReader(c.getInputStream(), StandardCharsets.UTF_8));
+                         PrintWriter out = new PrintWriter(new OutputStreamWriter(c.getOutputStream(), StandardCharsets.UTF_8))) {
+                        serve(in, out);
+                    } catch (IOException | InterruptedException e) {
+                        System.err.println("connection closed: " + e);
+                    }
+                });
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+    }
+
+    /** Runs every solver on the given instance for a short time, so that hot code is compiled before the first request. */
+    void warmup(String instanceName, long timeoutMs) throws IOException {
+        Instance instance = instance(instanceName);
+        for (Supplier<Solver> factory : Main.solverFactories.values()) {
+            Solver solver = factory.get();
+            if (solver instanceof jobshop.solvers.BruteForceSolver) continue;
+            solver.solve(instance, System.currentTimeMillis() + timeoutMs);
+        }
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-solver server").build().defaultHelp(true)
+                .description("Solves jobshop requests read from stdin or from a local socket.");
+        parser.addArgument("-p", "--port").setDefault(0).type(Integer.class)
+                .help("Local port to listen on (requests are read from stdin if 0)");
+        parser.addArgument("--threads").setDefault(Runtime.getRuntime().availableProcessors()).type(Integer.class)
+                .help("Number of requests solved concurrently");
+        parser.addArgument("-t", "--timeout").setDefault(1000L).type(Long.class)
+                .help("Default solver timeout in milliseconds");
+        parser.addArgument("--warmup").setDefault(0L).type(Long.class)
+                .help("Time in milliseconds given to each solver on ft10 before serving requests");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        Server server = new Server(ns.getInt("threads"), ns.getLong("timeout"));
+        try {
+            if (ns.getLong("warmup") > 0)
+                server.warmup("ft10", ns.getLong("warmup"));
+            if (ns.getInt("port") == 0) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                server.serve(in, out);
+            } else {
+                server.listen(ns.getInt("port"));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package jobshop;
+
+import jobshop.encodings.ResourceOrder;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent store of the best solution found for each instance, kept across runs.
+ *
+ * Solutions are keyed by instance name and {@link Instance#hash64() content hash} and stored as the order of
+ * the jobs on each machine (a {@link ResourceOrder}). The file is append-only: a better solution is written
+ * as a new record after the previous ones, and the best record of a key wins. Each record is
+ *
+ * <pre>
+ *   int magic, int length, payload (length bytes), int CRC32 of the payload
+ *   payload: UTF name, long hash, int makespan, int numJobs, int numMachines,
+ *            numMachines * numJobs job numbers (unsigned short, or int if numJobs > 65535)
+ * </pre>
+ *
+ * Records are appended with a single write followed by a sync. A record torn by a crash fails its length
+ * or CRC check and is cut off when the store is opened again, together with anything after it.
+ *
+ * Superseded records are only dropped by {@link #compact()}, which the store calls when it is opened if the
+ * file holds more than {@link #COMPACT_AFTER} of them, so that the file does not grow with every improvement.
+ */
+public class SolutionStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x4A535331; // "JSS1"
+
+    /** Number of superseded records above which the file is compacted when the store is opened. */
+    public static final int COMPACT_AFTER = 1000;
+
+    /** A stored solution. */
+    private static class Record {
+        final String name;
+        final long hash;
+        final int makespan;
+        final int numJobs;
+        final int numMachines;
+        // job executed at each position of each machine, at index machine * numJobs + position
+        final int[] jobs;
+
+        Record(String name, long hash, int makespan, int numJobs, int numMachines, int[] jobs) {
+            this.name = name;
+            this.hash = hash;
+            this.makespan = makespan;
+            this.numJobs = numJobs;
+            this.numMachines = numMachines;
+            this.jobs = jobs;
+        }
+
+        String key() {
+            return key(name, hash);
+        }
+
+        static String key(String name, long hash) {
+            return name + "#" + Long.toHexString(hash);
+        }
+    }
+
+    private final Path path;
+    private FileChannel channel;
+    /** Best record of each key. */
+    private final Map<String, Record> best = new LinkedHashMap<>();
+    /** Number of valid records in the file, superseded ones included. */
+    private int records;
+
+    /** Opens the store at the given path, creating the file if needed, and loads its records. */
+    public SolutionStore(Path path) throws IOException {
+        this(path, COMPACT_AFTER);
+    }
+
+    /**
+     * Opens the store at the given path, creating the file if needed, and loads its records. The file is
+     * compacted if it holds more than compactAfter superseded records.
+     */
+    public SolutionStore(Path path, int compactAfter) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long valid = load();
+        if (valid < channel.size()) {
+            // torn or corrupted tail, left by a crash during an append
+            channel.truncate(valid);
+            channel.force(true);
+        }
+        channel.position(valid);
+        if (records - best.size() > compactAfter) compact();
+    }
+
+    /** Reads all records, returns the offset of the end of the last valid one. */
+    private long load() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        channel.read(buffer, 0);
+        buffer.flip();
+        long valid = 0;
+        while (buffer.remaining() >= 8) {
+            if (buffer.getInt() != MAGIC) break;
+            int length = buffer.getInt();
+            if (length < 0 || buffer.remaining() < length + 4) break;
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (buffer.getInt() != (int) crc.getValue()) break;
+            Record record;
+            try {
+                record = decode(payload);
+            } catch (IOException e) {
+                break;
+            }
+            Record previous = best.get(record.key());
+            if (previous == null || record.makespan <= previous.makespan)
+                best.put(record.key(), record);
+            records++;
+            valid = buffer.position();
+        }
+        return valid;
+    }
+
+    private static Record decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        String name = in.readUTF();
+        long hash = in.readLong();
+        int makespan = in.readInt();
+        int numJobs = in.readInt();
+        int numMachines = in.readInt();
+        if (numJobs <= 0 || numMachines <= 0 || (long) numJobs * numMachines > payload.length)
+            throw new IOException("invalid record size " + numJobs + "x" + numMachines);
+        int[] jobs = new int[numJobs * numMachines];
+        for (int i = 0; i < jobs.length; i++)
+            jobs[i] = numJobs > 0xFFFF ? in.readInt() : in.readUnsignedShort();
+        return new Record(name, hash, makespan, numJobs, numMachines, jobs);
+    }
+
+    private static byte[] encode(Record record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeUTF(record.name);
+        payload.writeLong(record.hash);
+        payload.writeInt(record.makespan);
+        payload.writeInt(record.numJobs);
+        payload.writeInt(record.numMachines);
+        for (int job : record.jobs) {
+            if (record.numJobs > 0xFFFF) payload.writeInt(job);
+            else payload.writeShort(job);
+        }
+        payload.flush();
+        byte[] data = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        ByteBuffer buffer = ByteBuffer.allocate(data.length + 12);
+        buffer.putInt(MAGIC).putInt(data.length).put(data).putInt((int) crc.getValue());
+        return buffer.array();
+    }
+
+    /**
+     * Records the schedule if it is better than the stored solution of the instance.
+     * Returns true if it was written.
+     */
+    public synchronized boolean offer(String name, Instance instance, Schedule schedule) throws IOException {
+        if (!schedule.isValid()) return false;
+        int makespan = schedule.makespan();
+        Record previous = best.get(Record.key(name, instance.hash64()));
+        if (previous != null && previous.makespan <= makespan) return false;
+
+        int[] jobs = new ResourceOrder(schedule).jobsByMachine();
+        Record record = new Record(name, instance.hash64(), makespan, instance.numJobs, instance.numMachines, jobs);
+
+        ByteBuffer buffer = ByteBuffer.wrap(encode(record));
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        channel.force(false);
+        best.put(record.key(), record);
+        records++;
+        return true;
+    }
+
+    /** Best stored solution of the named instance, if any. */
+    public synchronized Optional<ResourceOrder> best(String name, Instance instance) {
+        Record record = best.get(Record.key(name, instance.hash64()));
+        return record == null ? Optional.empty() : Optional.of(ResourceOrder.fromJobsByMachine(instance, record.jobs));
+    }
+
+    /**
+     * Best stored solution of any instance with the same content, whatever its name
+     * (a solution only depends on the machines and durations).
+     */
+    public synchronized Optional<ResourceOrder> best(Instance instance) {
+        Record found = null;
+        for (Record record : best.values())
+            if (record.hash == instance.hash64() && (found == null || record.makespan < found.makespan))
+                found = record;
+        return found == null ? Optional.empty() : Optional.of(ResourceOrder.fromJobsByMachine(instance, found.jobs));
+    }
+
+    /**
+     * Returns a solver that starts from the stored solution: it solves the instance with the fallback
+     * solver and returns the best of its result and of the stored solution. Solvers that take a seed
+     * solver (DescentSolver, TabouSolver...) can thus warm-start from the previous runs.
+     */
+    public Solver seed(Solver fallback) {
+        return (instance, deadline) -> {
+            Result result = fallback.solve(instance, deadline);
+            Optional<ResourceOrder> stored = best(instance);
+            if (stored.isPresent()) {
+                Schedule schedule = stored.get().toSchedule();
+                if (schedule != null && schedule.makespan() < result.schedule.makespan())
+                    return new Result(instance, schedule, Result.ExitCause.Blocked);
+            }
+            return result;
+        };
+    }
+
+    /** Number of instances with a stored solution. */
+    public synchronized int size() {
+        return best.size();
+    }
+
+    /** Number of records in the file, superseded ones included. */
+    synchronized int records() {
+        return records;
+    }
+
+    /**
+     * Rewrites the file with only the best record of each instance. The new file is written next to the
+     * old one and moved over it, so that a crash leaves either of them.
+     */
+    public synchronized void compact() throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+            for (Record record : best.values())
+                out.write(encode(record));
+        }
+        try (FileChannel written = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            written.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // the channel still points to the old file: append to the new one from now on
+        channel.close();
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        records = best.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
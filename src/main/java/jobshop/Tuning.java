@@ -0,0 +1,331 @@
+package jobshop;
+
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Parameter tuning of a solver: every combination of the given constructor arguments is run on a set of
+ * instances, in parallel, and the configurations are ranked by their average distance to the best known
+ * results.
+ *
+ * With racing, instances are evaluated one at a time for all remaining configurations, and once enough
+ * instances have been seen, a configuration whose average distance exceeds the best one by more than a
+ * margin is dropped.
+ *
+ * Example: {@code tune --solver TabouSolver --arg 500 1000 --arg 5:20:5 --instance la --race}
+ */
+public class Tuning {
+
+    /** A configuration: the constructor arguments, as given on the command line and parsed. */
+    static class Config {
+        final String[] values;
+        final Object[] args;
+        // distance to the best known result and runtime on each instance evaluated
+        final List<Double> gaps = new ArrayList<>();
+        final List<Long> runtimes = new ArrayList<>();
+        // number of instances seen before the configuration was dropped (0 if never dropped)
+        int droppedAfter = 0;
+
+        Config(String[] values, Object[] args) {
+            this.values = values;
+            this.args = args;
+        }
+
+        double meanGap() {
+            return gaps.stream().mapToDouble(d -> d).average().orElse(Double.NaN);
+        }
+
+        double meanRuntime() {
+            return runtimes.stream().mapToLong(l -> l).average().orElse(Double.NaN);
+        }
+
+        String name() {
+            return String.join(" ", values);
+        }
+    }
+
+    /** Expands a range `start:end[:step]` of integers, or returns the value itself. */
+    static List<String> expand(String value) {
+        String[] parts = value.split(":");
+        if (parts.length < 2 || parts.length > 3) return Collections.singletonList(value);
+        long start = Long.parseLong(parts[0]), end = Long.parseLong(parts[1]);
+        long step = parts.length == 3 ? Long.parseLong(parts[2]) : 1;
+        if (step <= 0) throw new IllegalArgumentException("Invalid step in range " + value);
+        List<String> values = new ArrayList<>();
+        for (long v = start; v <= end; v += step)
+            values.add(Long.toString(v));
+        return values;
+    }
+
+    /** Converts a command line value to the given constructor parameter type. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Object parse(String value, Class<?> type) {
+        if (type == int.class || type == Integer.class) return Integer.parseInt(value);
+        if (type == long.class || type == Long.class) return Long.parseLong(value);
+        if (type == double.class || type == Double.class) return Double.parseDouble(value);
+        if (type == boolean.class || type == Boolean.class) {
+            if (!value.equals("true") && !value.equals("false"))
+                throw new IllegalArgumentException("Not a boolean: " + value);
+            return Boolean.parseBoolean(value);
+        }
+        if (type.isEnum()) return Enum.valueOf((Class<? extends Enum>) type, value);
+        if (type == String.class) return value;
+        if (type == Solver.class) {
+            // a solver given as argument (e.g. the seed of a local search) is built from Main.solverFactories:
+            // each call gives a new solver, so that runs share no state (such as an evaluation cache)
+            Supplier<Solver> factory = Main.solverFactories.get(value);
+            if (factory == null) throw new IllegalArgumentException("Unknown solver " + value);
+            return factory.get();
+        }
+        throw new IllegalArgumentException("Unsupported parameter type " + type.getName());
+    }
+
+    /** Rank of the numeric types, from the narrowest to the widest (-1 for other types). */
+    private static int numericRank(Class<?> type) {
+        if (type == int.class || type == Integer.class) return 0;
+        if (type == long.class || type == Long.class) return 1;
+        if (type == double.class || type == Double.class) return 2;
+        return -1;
+    }
+
+    /** True if every parameter of a is the same type as, or a narrower numeric type than, the one of b. */
+    private static boolean narrower(Constructor<?> a, Constructor<?> b) {
+        Class<?>[] ta = a.getParameterTypes(), tb = b.getParameterTypes();
+        for (int i = 0; i < ta.length; i++) {
+            if (ta[i] == tb[i]) continue;
+            int ra = numericRank(ta[i]), rb = numericRank(tb[i]);
+            if (ra == -1 || rb == -1 || ra > rb) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the public constructor of the class that accepts all the given values, in order. When several
+     * constructors accept them (an integer is also a long and a double), the one with the narrowest parameter
+     * types is chosen; constructors that are not comparable this way are rejected as ambiguous.
+     */
+    static Constructor<?> constructor(Class<?> solverClass, List<List<String>> values) {
+        List<Constructor<?>> matching = new ArrayList<>();
+        for (Constructor<?> c : solverClass.getConstructors()) {
+            Class<?>[] types = c.getParameterTypes();
+            if (types.length != values.size()) continue;
+            try {
+                for (int i = 0; i < types.length; i++)
+                    for (String value : values.get(i))
+                        parse(value, types[i]);
+                matching.add(c);
+            } catch (IllegalArgumentException e) {
+                // values do not match this constructor, try the next one
+            }
+        }
+        if (matching.isEmpty())
+            throw new IllegalArgumentException("No constructor of " + solverClass.getSimpleName() + " accepts " + values);
+        for (Constructor<?> c : matching) {
+            boolean narrowest = true;
+            for (Constructor<?> other : matching)
+                if (other != c && (!narrower(c, other) || narrower(other, c))) narrowest = false;
+            if (narrowest) return c;
+        }
+        throw new IllegalArgumentException("Ambiguous constructors of " + solverClass.getSimpleName() + " for " + values
+                + ": " + matching);
+    }
+
+    /** The constructor arguments of a run, parsed again so that solver arguments are new solvers. */
+    static Object[] arguments(Constructor<?> constructor, Config config) {
+        Class<?>[] types = constructor.getParameterTypes();
+        Object[] args = new Object[types.length];
+        for (int i = 0; i < types.length; i++)
+            args[i] = parse(config.values[i], types[i]);
+        return args;
+    }
+
+    /** All the combinations of the values of each parameter. */
+    static List<Config> grid(Constructor<?> constructor, List<List<String>> values) {
+        List<Config> configs = new ArrayList<>();
+        Class<?>[] types = constructor.getParameterTypes();
+        int[] index = new int[values.size()];
+        while (true) {
+            String[] strings = new String[index.length];
+            Object[] args = new Object[index.length];
+            for (int i = 0; i < index.length; i++) {
+                strings[i] = values.get(i).get(index[i]);
+                args[i] = parse(strings[i], types[i]);
+            }
+            configs.add(new Config(strings, args));
+            // next combination, the last parameter varies fastest
+            int i = index.length - 1;
+            while (i >= 0 && ++index[i] == values.get(i).size()) index[i--] = 0;
+            if (i < 0) return configs;
+        }
+    }
+
+    private final Constructor<?> constructor;
+    private final List<Config> configs;
+    private final ExecutorService pool;
+    private final long timeoutMs;
+
+    Tuning(Constructor<?> constructor, List<Config> configs, int threads, long timeoutMs) {
+        this.constructor = constructor;
+        this.configs = configs;
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Evaluates all configurations on the instances, in the given order. With racing (minInstances > 0),
+     * configurations are dropped once minInstances instances have been seen and their mean distance exceeds
+     * the best one by more than margin (in percent).
+     */
+    void run(List<String> instances, int minInstances, double margin) throws Exception {
+        try {
+            for (int seen = 0; seen < instances.size(); seen++) {
+                String name = instances.get(seen);
+                Instance instance = Instance.fromFile(Paths.get("instances/", name));
+                int bestKnown = BestKnownResult.of(name);
+                Map<Config, Future<Result>> futures = new LinkedHashMap<>();
+                Map<Config, Long> runtimes = new ConcurrentHashMap<>();
+                for (Config config : configs) {
+                    if (config.droppedAfter > 0) continue;
+                    // a new solver for each run, with new solver arguments, so that no state is shared between runs
+                    Solver solver = (Solver) constructor.newInstance(arguments(constructor, config));
+                    futures.put(config, pool.submit(() -> {
+                        long start = System.currentTimeMillis();
+                        Result result = Events.solve(solver, instance, start + timeoutMs);
+                        runtimes.put(config, System.currentTimeMillis() - start);
+                        return result;
+                    }));
+                }
+                for (Map.Entry<Config, Future<Result>> e : futures.entrySet()) {
+                    Result result = e.getValue().get();
+                    if (!result.schedule.isValid())
+                        throw new IllegalStateException("Invalid schedule for " + e.getKey().name() + " on " + name);
+                    e.getKey().gaps.add(100.0 * (result.schedule.makespan() - bestKnown) / bestKnown);
+                    e.getKey().runtimes.add(runtimes.get(e.getKey()));
+                }
+                if (minInstances > 0 && seen + 1 >= minInstances) {
+                    double best = configs.stream().filter(c -> c.droppedAfter == 0)
+                            .mapToDouble(Config::meanGap).min().getAsDouble();
+                    for (Config config : configs)
+                        if (config.droppedAfter == 0 && config.meanGap() > best + margin)
+                            config.droppedAfter = seen + 1;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Configurations still running first, then by mean distance to the best known results. */
+    List<Config> ranking() {
+        List<Config> ranked = new ArrayList<>(configs);
+        ranked.sort(Comparator.comparing((Config c) -> c.droppedAfter == 0 ? Integer.MAX_VALUE : c.droppedAfter)
+                .reversed().thenComparingDouble(Config::meanGap));
+        return ranked;
+    }
+
+    /** Writes the ranking as CSV: rank, parameters, number of instances, mean distance, mean runtime, dropped after. */
+    static void writeCsv(List<Config> ranked, PrintWriter out) {
+        out.println("rank,config,instances,mean_gap,mean_runtime_ms,dropped_after");
+        for (int i = 0; i < ranked.size(); i++) {
+            Config c = ranked.get(i);
+            out.printf(Locale.ROOT, "%d,\"%s\",%d,%.3f,%.1f,%d%n", i + 1, c.name(), c.gaps.size(), c.meanGap(),
+                    c.meanRuntime(), c.droppedAfter);
+        }
+        out.flush();
+    }
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor("jsp-solver tune").build().defaultHelp(true)
+                .description("Tunes the constructor parameters of a solver.");
+        parser.addArgument("--solver").required(true)
+                .help("Solver class (in jobshop.solvers, or fully qualified)");
+        parser.addArgument("--arg").nargs("+").action(Arguments.append())
+                .help("Values of the next constructor parameter, ranges start:end[:step] are expanded");
+        parser.addArgument("--instance").nargs("+").required(true)
+                .help("Instance(s) to solve (space separated if more than one)");
+        parser.addArgument("-t", "--timeout").setDefault(1000L).type(Long.class)
+                .help("Solver timeout in milliseconds for each run");
+        parser.addArgument("--threads").setDefault(Runtime.getRuntime().availableProcessors()).type(Integer.class)
+                .help("Number of runs executed concurrently");
+        parser.addArgument("--seed").setDefault(0L).type(Long.class)
+                .help("Seed of the order in which instances are raced");
+        parser.addArgument("--race").action(Arguments.storeTrue())
+                .help("Drop configurations that are clearly worse before seeing all instances");
+        parser.addArgument("--race-min").setDefault(3).type(Integer.class)
+                .help("Number of instances seen before dropping configurations");
+        parser.addArgument("--race-margin").setDefault(2.0).type(Double.class)
+                .help("Dropped configurations are this many points (in %) worse than the best one");
+        parser.addArgument("-o", "--output").setDefault("tuning.csv")
+                .help("CSV file for the ranking");
+
+        Namespace ns = null;
+        try {
+            ns = parser.parseArgs(args);
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        }
+
+        try {
+            String className = ns.getString("solver");
+            Class<?> solverClass = Class.forName(className.contains(".") ? className : "jobshop.solvers." + className);
+            List<List<String>> values = new ArrayList<>();
+            List<List<String>> given = ns.getList("arg");
+            if (given != null) {
+                for (List<String> parameter : given) {
+                    List<String> expanded = new ArrayList<>();
+                    for (String value : parameter)
+                        expanded.addAll(expand(value));
+                    values.add(expanded);
+                }
+            }
+            Constructor<?> constructor = constructor(solverClass, values);
+            List<Config> configs = grid(constructor, values);
+
+            List<String> instances = new ArrayList<>();
+            for (String prefix : ns.<String>getList("instance"))
+                instances.addAll(BestKnownResult.instancesMatching(prefix));
+            if (instances.isEmpty()) throw new IllegalArgumentException("No instance matches " + ns.getList("instance"));
+            // fixed seed: the racing order, hence the dropped configurations, only depends on the seed
+            Collections.shuffle(instances, new Random(ns.getLong("seed")));
+
+            PrintStream output = System.out;
+            output.printf("%d configurations of %s on %d instances%n", configs.size(), solverClass.getSimpleName(),
+                    instances.size());
+            Tuning tuning = new Tuning(constructor, configs, ns.getInt("threads"), ns.getLong("timeout"));
+            tuning.run(instances, ns.getBoolean("race") ? ns.getInt("race_min") : 0, ns.getDouble("race_margin"));
+
+            List<Config> ranked = tuning.ranking();
+            for (int i = 0; i < ranked.size(); i++) {
+                Config c = ranked.get(i);
+                output.printf("%3d  %-30s %5.2f %8.1f%s%n", i + 1, c.name(), c.meanGap(), c.meanRuntime(),
+                        c.droppedAfter > 0 ? "  (dropped after " + c.droppedAfter + " instances)" : "");
+            }
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(ns.getString("output"))))) {
+                writeCsv(ranked, out);
+            }
+        } catch (ClassNotFoundException e) {
+            System.err.println("ERROR: unknown solver class " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -6,8 +6,6 @@ import jobshop.Schedule;
 import jobshop.solvers.BruteForceSolver;
 
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.stream.IntStream;
 
 /** Représentation par numéro de job. */
 public class JobNumbers extends Encoding {
@@ -33,23 +31,10 @@ public class JobNumbers extends Encoding {
 
         this.jobs = new int[instance.numJobs * instance.numTasks];
 
-        // for each job indicates which is the next task to be scheduled
-        int[] nextOnJob = new int[instance.numJobs];
-
-        while (Arrays.stream(nextOnJob).anyMatch(t -> t < instance.numTasks)) {
-            Task next = IntStream
-                    // for all jobs numbers
-                    .range(0, instance.numJobs)
-                    // build the next task for this job
-                    .mapToObj(j -> new Task(j, nextOnJob[j]))
-                    // only keep valid tasks (some jobs have no task left to be executed)
-                    .filter(t -> t.task < instance.numTasks)
-                    // select the task with the earliest execution time
-                    .min(Comparator.comparing(t -> schedule.startTime(t.job, t.task))).get();
-
-            this.jobs[nextToSet++] = next.job;
-            nextOnJob[next.job] += 1;
-        }
+        // tasks in the order of their start times (ties broken by job number): this is the order
+        // in which tasks would be picked by taking, at each step, the job whose next task starts first
+        for (int op : schedule.operationsByStartTime())
+            this.jobs[nextToSet++] = op / instance.numTasks;
     }
 
     @Override
@@ -61,25 +46,26 @@ public class JobNumbers extends Encoding {
         int[] nextTask = new int[instance.numJobs];
 
         // for each task, its start time
-        int[][] startTimes = new int[instance.numJobs][instance.numTasks];
+        int[] startTimes = new int[instance.numJobs * instance.numTasks];
 
         // compute the earliest start time for every task of every job
         for (int job : jobs) {
             int task = nextTask[job];
-            int machine = instance.machine(job, task);
+            int op = instance.op(job, task);
+            int machine = instance.machine(op);
             // earliest start time for this task
-            int est = task == 0 ? 0 : startTimes[job][task - 1] + instance.duration(job, task - 1);
+            int est = task == 0 ? 0 : startTimes[op - 1] + instance.duration(op - 1);
             est = Math.max(est, nextFreeTimeResource[machine]);
 
-            startTimes[job][task] = est;
-            nextFreeTimeResource[machine] = est + instance.duration(job, task);
+            startTimes[op] = est;
+            nextFreeTimeResource[machine] = est + instance.duration(op);
             nextTask[job] = task + 1;
         }
 
-        return new Schedule(instance, startTimes);
+        return Schedule.wrap(instance, startTimes);
     }
 
-    public void printSolutions() { new BruteForceSolver(true, true).solve(instance, 0); }
+    public void printSolutions() { new BruteForceSolver(true, true).solve(instance, Long.MAX_VALUE); }
 
     @Override
     public String toString() {
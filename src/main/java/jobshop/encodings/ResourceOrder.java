@@ -6,9 +6,6 @@ import jobshop.Schedule;
 import jobshop.solvers.BruteForceSolver;
 
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.Optional;
-import java.util.stream.IntStream;
 
 public class ResourceOrder extends Encoding {
 
@@ -32,32 +29,21 @@ public class ResourceOrder extends Encoding {
 
     /** Creates a resource order from a schedule. */
     public ResourceOrder(Schedule schedule) {
-        super(schedule.pb);
-        Instance pb = schedule.pb;
+        this(schedule.pb);
 
-        this.tasksByMachine = new Task[pb.numMachines][];
-        this.nextFreeSlot = new int[instance.numMachines];
-
-        for (int m = 0; m < schedule.pb.numMachines; m++) {
-            final int machine = m;
-
-            // for thi machine, find all tasks that are executed on it and sort them by
-            // their start time
-            tasksByMachine[m] = IntStream.range(0, pb.numJobs) // all job numbers
-                    .mapToObj(j -> new Task(j, pb.task_with_machine(j, machine))) // all tasks on this machine (one per
-                                                                                  // job)
-                    .sorted(Comparator.comparing(t -> schedule.startTime(t.job, t.task))) // sorted by start time
-                    .toArray(Task[]::new); // as new array and store in tasksByMachine
-
-            // indicate that all tasks have been initialized for machine m
-            nextFreeSlot[m] = instance.numJobs;
+        // all tasks sorted by start time (ties broken by job number), each one is appended to its machine
+        for (int op : schedule.operationsByStartTime()) {
+            Task t = new Task(op / instance.numTasks, op % instance.numTasks);
+            int machine = instance.machine(op);
+            tasksByMachine[machine][nextFreeSlot[machine]++] = t;
         }
     }
 
     @Override
     public Schedule toSchedule() {
+        int numOps = instance.numJobs * instance.numTasks;
         // indicate for each task that have been scheduled, its start time
-        int[][] startTimes = new int[instance.numJobs][instance.numTasks];
+        int[] startTimes = new int[numOps];
 
         // for each job, how many tasks have been scheduled (0 initially)
         int[] nextToScheduleByJob = new int[instance.numJobs];
@@ -68,43 +54,66 @@ public class ResourceOrder extends Encoding {
         // for each machine, earliest time at which the machine can be used
         int[] releaseTimeOfMachine = new int[instance.numMachines];
 
-        // loop while there remains a job that has unscheduled tasks
-        while (IntStream.range(0, instance.numJobs).anyMatch(m -> nextToScheduleByJob[m] < instance.numTasks)) {
-
-            // selects a task that has noun scheduled predecessor on its job and machine :
-            // - it is the next to be schedule on a machine
-            // - it is the next to be scheduled on its job
-            // if there is no such task, we have cyclic dependency and the solution is
-            // invalid
-            Optional<Task> schedulable = IntStream.range(0, instance.numMachines) // all machines ...
-                    .filter(m -> nextToScheduleByMachine[m] < instance.numJobs) // ... with unscheduled jobs
-                    .mapToObj(m -> this.tasksByMachine[m][nextToScheduleByMachine[m]]) // tasks that are next to
-                                                                                       // schedule on a machine ...
-                    .filter(task -> task.task == nextToScheduleByJob[task.job]) // ... and on their job
-                    .findFirst(); // select the first one if any
-
-            if (schedulable.isPresent()) {
-                // we found a schedulable task, lets call it t
-                Task t = schedulable.get();
-                int machine = instance.machine(t);
+        // machines whose next task may be schedulable: all of them at first, then the machine of the next task
+        // of each job that progresses (a machine may be there several times, at most numOps + numMachines)
+        int[] toVisit = new int[numOps + instance.numMachines];
+        int size = 0;
+        for (int m = instance.numMachines - 1; m >= 0; m--)
+            toVisit[size++] = m;
+
+        int scheduled = 0;
+        while (size > 0) {
+            int machine = toVisit[--size];
+            // schedules the tasks of the machine as long as the next one is also the next one of its job
+            while (nextToScheduleByMachine[machine] < instance.numJobs) {
+                Task t = tasksByMachine[machine][nextToScheduleByMachine[machine]];
+                if (t.task != nextToScheduleByJob[t.job]) break;
 
                 // compute the earliest start time (est) of the task
-                int est = t.task == 0 ? 0 : startTimes[t.job][t.task - 1] + instance.duration(t.job, t.task - 1);
-                est = Math.max(est, releaseTimeOfMachine[instance.machine(t)]);
-                startTimes[t.job][t.task] = est;
+                int op = instance.op(t.job, t.task);
+                int est = t.task == 0 ? 0 : startTimes[op - 1] + instance.duration(op - 1);
+                est = Math.max(est, releaseTimeOfMachine[machine]);
+                startTimes[op] = est;
 
                 // mark the task as scheduled
                 nextToScheduleByJob[t.job]++;
                 nextToScheduleByMachine[machine]++;
+                scheduled++;
                 // increase the release time of the machine
-                releaseTimeOfMachine[machine] = est + instance.duration(t);
-            } else {
-                // no tasks are schedulable, there is no solution for this resource ordering
-                return null;
+                releaseTimeOfMachine[machine] = est + instance.duration(op);
+                // the next task of the job may now be schedulable on its machine
+                if (t.task + 1 < instance.numTasks)
+                    toVisit[size++] = instance.machine(op + 1);
             }
         }
-        // we exited the loop : all tasks have been scheduled successfully
-        return new Schedule(instance, startTimes);
+        // some tasks could not be scheduled: cyclic dependency, there is no solution
+        if (scheduled < numOps) return null;
+        return Schedule.wrap(instance, startTimes);
+    }
+
+    /**
+     * Returns the job executed at each position of each machine, at index machine * numJobs + position.
+     * This is a compact form of a complete resource order, see {@link #fromJobsByMachine(Instance, int[])}.
+     */
+    public int[] jobsByMachine() {
+        int[] jobs = new int[instance.numMachines * instance.numJobs];
+        for (int m = 0; m < instance.numMachines; m++)
+            for (int i = 0; i < instance.numJobs; i++)
+                jobs[m * instance.numJobs + i] = tasksByMachine[m][i].job;
+        return jobs;
+    }
+
+    /** Rebuilds a complete resource order from the jobs returned by {@link #jobsByMachine()}. */
+    public static ResourceOrder fromJobsByMachine(Instance instance, int[] jobs) {
+        ResourceOrder order = new ResourceOrder(instance);
+        for (int m = 0; m < instance.numMachines; m++) {
+            for (int i = 0; i < instance.numJobs; i++) {
+                int job = jobs[m * instance.numJobs + i];
+                order.tasksByMachine[m][i] = new Task(job, instance.task_with_machine(job, m));
+            }
+            order.nextFreeSlot[m] = instance.numJobs;
+        }
+        return order;
     }
 
     /** Creates an exact copy of this resource order. */
@@ -112,7 +121,24 @@ public class ResourceOrder extends Encoding {
         return new ResourceOrder(this.toSchedule());
     }
 
-    public void printSolutions() { new BruteForceSolver(false, true).solve(instance, 0); }
+    /**
+     * Returns a 64-bit hash of this resource order. It depends on the instance and on the position
+     * of every task on its machine, so two equal orders of the same instance have the same hash.
+     */
+    public long hash64() {
+        long h = instance.hash64();
+        for (int m = 0; m < instance.numMachines; m++) {
+            for (int i = 0; i < nextFreeSlot[m]; i++) {
+                Task t = tasksByMachine[m][i];
+                h = Instance.mix(h + (t.job * instance.numTasks + t.task));
+            }
+            // marks the end of the machine so that partial orders do not collide
+            h = Instance.mix(h ^ nextFreeSlot[m]);
+        }
+        return h;
+    }
+
+    public void printSolutions() { new BruteForceSolver(false, true).solve(instance, Long.MAX_VALUE); }
 
     @Override
     public String toString() {
@@ -0,0 +1,111 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Progress;
+
+/*
+ * Évaluation par paquets de séquences JobNumbers : calcule le makespan de `lanes` séquences à la fois,
+ * sans construire de Schedule ni allouer de tableau (même calcul que JobNumbers.toSchedule()).
+ * Les solveurs qui tirent beaucoup de candidats (RandomSolver, GeneticSolver, les feuilles de
+ * BruteForceSolver) remplissent un paquet puis l'évaluent d'un coup.
+ *
+ * Les séquences d'un paquet sont rangées l'une après l'autre dans un seul tableau, la séquence `lane` à
+ * partir de lane * length, et partagent les mêmes horloges des machines et des jobs, remises à zéro entre
+ * deux séquences. Une disposition entrelacée (une colonne par séquence, les horloges de toutes les séquences
+ * avancées ensemble) a été mesurée nettement plus lente : le processeur recouvre déjà les tâches successives
+ * d'une séquence, et l'accès à l'horloge de la machine de chaque tâche est une indirection que le JIT ne
+ * vectorise pas.
+ *
+ * Un BatchEvaluator n'est pas partagé entre threads.
+ */
+public class BatchEvaluator {
+    private final int numJobs;
+    private final int numTasks;
+    //copies des données de l'instance pour la boucle principale
+    private final int[] durations;
+    private final int[] machines;
+
+    //nombre de séquences d'un paquet
+    private final int lanes;
+    //longueur d'une séquence (numJobs * numTasks)
+    private final int length;
+    private final int[] sequences;
+    //horloges partagées : fin de la dernière tâche de chaque machine et de chaque job
+    private final int[] machineFree;
+    private final int[] jobEnd;
+    //indice de la prochaine tâche de chaque job (op = job * numTasks + task)
+    private final int[] nextOp;
+    private final int[] makespans;
+
+    public BatchEvaluator(Instance instance, int lanes) {
+        this.numJobs = instance.numJobs;
+        this.numTasks = instance.numTasks;
+        this.length = numJobs * numTasks;
+        this.durations = new int[length];
+        this.machines = new int[length];
+        for (int op = 0; op < length; op++) {
+            durations[op] = instance.duration(op);
+            machines[op] = instance.machine(op);
+        }
+        this.lanes = lanes;
+        this.sequences = new int[lanes * length];
+        this.machineFree = new int[instance.numMachines];
+        this.jobEnd = new int[numJobs];
+        this.nextOp = new int[numJobs];
+        this.makespans = new int[lanes];
+    }
+
+    /*
+     * Nombre de séquences par paquet adapté à la taille de l'instance : les paquets restent petits
+     * (quelques centaines de Ko au plus) pour que les solveurs vérifient souvent la deadline
+     */
+    public static int lanesFor(Instance instance, int maxLanes) {
+        int length = instance.numJobs * instance.numTasks;
+        return Math.max(1, Math.min(maxLanes, (1 << 16) / length));
+    }
+
+    public int lanes() {
+        return lanes;
+    }
+
+    //copie la séquence (un tableau JobNumbers.jobs) à la place `lane` du paquet
+    public void set(int lane, int[] jobs) {
+        System.arraycopy(jobs, 0, sequences, lane * length, length);
+    }
+
+    //copie la séquence de la place `lane` dans `jobs`
+    public void get(int lane, int[] jobs) {
+        System.arraycopy(sequences, lane * length, jobs, 0, length);
+    }
+
+    /*
+     * Makespans des séquences des places 0 à count-1 ; le tableau retourné est réutilisé par l'appel suivant
+     */
+    public int[] evaluate(int count) {
+        Progress.evaluated(count);
+        for (int lane = 0; lane < count; lane++)
+            makespans[lane] = makespan(lane * length);
+        return makespans;
+    }
+
+    private int makespan(int offset) {
+        for (int m = 0; m < machineFree.length; m++) machineFree[m] = 0;
+        for (int j = 0; j < numJobs; j++) {
+            jobEnd[j] = 0;
+            nextOp[j] = j * numTasks;
+        }
+        int[] sequences = this.sequences;
+        for (int p = offset; p < offset + length; p++) {
+            int job = sequences[p];
+            int op = nextOp[job]++;
+            int machine = machines[op];
+            int end = Math.max(jobEnd[job], machineFree[machine]) + durations[op];
+            jobEnd[job] = end;
+            machineFree[machine] = end;
+        }
+        int makespan = 0;
+        for (int j = 0; j < numJobs; j++)
+            makespan = Math.max(makespan, jobEnd[j]);
+        return makespan;
+    }
+}
@@ -0,0 +1,269 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Progress;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.encodings.JobNumbers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/*
+ * Recherche en faisceau (beam search) : comme GloutonSolver, on construit la solution tâche par tâche
+ * à partir des tâches prêtes et de leur date de début au plus tôt, mais au lieu de ne garder qu'un
+ * seul choix on garde les K meilleures solutions partielles.
+ * Les solutions partielles sont classées par la borne inférieure des solutions complètes (calculée
+ * en temps constant à partir de celle du parent), puis par leur makespan. À chaque niveau, seule la
+ * meilleure solution partielle gardée est complétée avec la règle de GloutonSolver EST_LRPT : une passe
+ * coûte donc numOps complétions quelle que soit la largeur, et donne des solutions complètes même si elle
+ * n'arrive pas au bout avant la deadline.
+ * La largeur K double à chaque passe tant que la deadline n'est pas atteinte.
+ */
+public class BeamSearchSolver implements Solver {
+    //largeur du faisceau pour la première passe et largeur maximum
+    private int initialWidth;
+    private int maxWidth;
+    //nombre de threads utilisés pour étendre le faisceau
+    private int threads;
+
+    public BeamSearchSolver(int initialWidth, int maxWidth, int threads) {
+        this.initialWidth = initialWidth;
+        this.maxWidth = maxWidth;
+        this.threads = threads;
+    }
+
+    /*
+     * Une solution partielle : les tâches déjà placées sont données par la chaîne des parents
+     * (un numéro de job par noeud, comme dans JobNumbers). L'état qui permet de placer les suivantes
+     * n'existe que pour les noeuds du faisceau courant : il est calculé pour les fils gardés (expand())
+     * et libéré quand le noeud a été étendu, les ancêtres ne gardent que job et parent.
+     */
+    static class Node {
+        final Node parent;
+        //job dont la tâche a été placée par ce noeud (-1 pour la racine)
+        final int job;
+        //borne inférieure du makespan des solutions complètes
+        final int bound;
+        //date de fin de la dernière tâche placée (makespan de la solution partielle)
+        final int makespan;
+        //pour chaque job, la prochaine tâche à placer et la date de fin de sa dernière tâche placée
+        int[] nextTask;
+        int[] endOfJob;
+        //pour chaque machine, la date à partir de laquelle elle est libre et la durée des tâches restantes
+        int[] releaseTimeOfMachine;
+        int[] remainingLoad;
+
+        //racine : aucune tâche placée
+        Node(Instance instance) {
+            this.parent = null;
+            this.job = -1;
+            this.nextTask = new int[instance.numJobs];
+            this.endOfJob = new int[instance.numJobs];
+            this.releaseTimeOfMachine = new int[instance.numMachines];
+            this.remainingLoad = new int[instance.numMachines];
+            for (int j = 0; j < instance.numJobs; j++)
+                for (int t = 0; t < instance.numTasks; t++)
+                    remainingLoad[instance.machine(j, t)] += instance.duration(j, t);
+            this.bound = LowerBound.of(instance);
+            this.makespan = 0;
+        }
+
+        //fils sans état : on place la prochaine tâche du job, à sa date de début au plus tôt
+        Node(Instance instance, Node parent, int job, int[][] remainingWork) {
+            this.parent = parent;
+            this.job = job;
+            int task = parent.nextTask[job];
+            int machine = instance.machine(job, task);
+            int duration = instance.duration(job, task);
+            int end = Math.max(parent.endOfJob[job], parent.releaseTimeOfMachine[machine]) + duration;
+            //seules les bornes du job et de la machine concernés peuvent augmenter
+            int jobBound = end + (task + 1 < instance.numTasks ? remainingWork[job][task + 1] : 0);
+            int machineBound = end + parent.remainingLoad[machine] - duration;
+            this.bound = Math.max(parent.bound, Math.max(jobBound, machineBound));
+            this.makespan = Math.max(parent.makespan, end);
+        }
+
+        //calcule l'état du noeud à partir de celui de son parent (qui doit encore l'avoir)
+        void expand(Instance instance) {
+            nextTask = parent.nextTask.clone();
+            endOfJob = parent.endOfJob.clone();
+            releaseTimeOfMachine = parent.releaseTimeOfMachine.clone();
+            remainingLoad = parent.remainingLoad.clone();
+            int task = nextTask[job]++;
+            int machine = instance.machine(job, task);
+            int duration = instance.duration(job, task);
+            int end = Math.max(endOfJob[job], releaseTimeOfMachine[machine]) + duration;
+            endOfJob[job] = end;
+            releaseTimeOfMachine[machine] = end;
+            remainingLoad[machine] -= duration;
+        }
+
+        void release() {
+            nextTask = null;
+            endOfJob = null;
+            releaseTimeOfMachine = null;
+            remainingLoad = null;
+        }
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        //remainingWork[j][t] : durée des tâches t, t+1, ... du job j
+        int[][] remainingWork = new int[instance.numJobs][instance.numTasks];
+        for (int j = 0; j < instance.numJobs; j++)
+            for (int t = instance.numTasks - 1; t >= 0; t--)
+                remainingWork[j][t] = instance.duration(j, t) + (t + 1 < instance.numTasks ? remainingWork[j][t + 1] : 0);
+
+        //la première solution vient de l'algo Glouton, au cas où aucune passe ne donne mieux
+        Result[] best = {new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, deadline)};
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int width = initialWidth; width <= maxWidth && best[0].cause != Result.ExitCause.ProvedOptimal; width *= 2) {
+                //la deadline a été atteinte pendant la passe
+                if (!beam(instance, width, remainingWork, pool, deadline, best)) break;
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            pool.shutdown();
+        }
+        return best[0];
+    }
+
+    /*
+     * Une passe de la recherche avec un faisceau de largeur width. Les solutions complètes trouvées
+     * (complétions EST_LRPT et solution finale du faisceau) remplacent best[0] si elles sont meilleures.
+     * Retourne false si la deadline est atteinte avant la fin.
+     */
+    private boolean beam(Instance instance, int width, int[][] remainingWork, ForkJoinPool pool, long deadline,
+                         Result[] best) throws InterruptedException, ExecutionException {
+        //ordre des fils : borne, puis makespan de la solution partielle
+        Comparator<Node> order = Comparator.<Node>comparingInt(n -> n.bound).thenComparingInt(n -> n.makespan);
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(new Node(instance));
+        int numOps = instance.numJobs * instance.numTasks;
+        for (int level = 0; level < numOps; level++) {
+            if (deadline - System.currentTimeMillis() <= 1) return false;
+            if (level > 0)
+                improve(best, instance, nodes.get(0), rollout(instance, nodes.get(0), remainingWork));
+            final List<Node> parents = nodes;
+            //fils sans état en parallèle ; la liste garde l'ordre des parents pour que le résultat
+            //soit déterministe (le tri est stable)
+            List<Node> children = pool.submit(() -> parents.parallelStream()
+                    .flatMap(parent -> children(instance, parent, remainingWork).stream())
+                    .collect(Collectors.toList())).get();
+            children.sort(order);
+            final List<Node> kept = children.size() > width ? new ArrayList<>(children.subList(0, width)) : children;
+            //seuls les fils gardés ont un état, celui des parents n'est plus utile
+            pool.submit(() -> kept.parallelStream().forEach(child -> child.expand(instance))).get();
+            for (Node parent : parents) parent.release();
+            nodes = kept;
+        }
+        improve(best, instance, nodes.get(0), new int[0]);
+        return true;
+    }
+
+    /*
+     * Les jobs candidats d'un état (Giffler et Thompson) : parmi les tâches prêtes, on prend celle qui
+     * se termine au plus tôt ; toutes les tâches de sa machine qui peuvent commencer avant cette date
+     * sont candidates, ainsi que la tâche elle-même (une tâche de durée nulle commence à cette date).
+     * Les jobs sont écrits dans candidates, retourne leur nombre (au moins 1 s'il reste des tâches).
+     */
+    private static int candidates(Instance instance, int[] nextTask, int[] endOfJob, int[] releaseTimeOfMachine, int[] candidates) {
+        int bestEnd = Integer.MAX_VALUE;
+        int bestMachine = -1;
+        int bestJob = -1;
+        for (int j = 0; j < instance.numJobs; j++) {
+            int task = nextTask[j];
+            if (task >= instance.numTasks) continue;
+            int machine = instance.machine(j, task);
+            int end = Math.max(endOfJob[j], releaseTimeOfMachine[machine]) + instance.duration(j, task);
+            if (end < bestEnd) {
+                bestEnd = end;
+                bestMachine = machine;
+                bestJob = j;
+            }
+        }
+        int size = 0;
+        for (int j = 0; j < instance.numJobs; j++) {
+            int task = nextTask[j];
+            if (task >= instance.numTasks || instance.machine(j, task) != bestMachine) continue;
+            if (j == bestJob || Math.max(endOfJob[j], releaseTimeOfMachine[bestMachine]) < bestEnd)
+                candidates[size++] = j;
+        }
+        return size;
+    }
+
+    private List<Node> children(Instance instance, Node node, int[][] remainingWork) {
+        int[] jobs = new int[instance.numJobs];
+        int size = candidates(instance, node.nextTask, node.endOfJob, node.releaseTimeOfMachine, jobs);
+        List<Node> children = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            children.add(new Node(instance, node, jobs[i], remainingWork));
+        return children;
+    }
+
+    /*
+     * Complète la solution partielle comme GloutonSolver avec EST_LRPT : à chaque étape, la tâche prête qui
+     * peut commencer au plus tôt, à égalité celle du job ayant la plus longue durée restante. Retourne les
+     * jobs choisis.
+     */
+    private static int[] rollout(Instance instance, Node node, int[][] remainingWork) {
+        Progress.evaluated();
+        int[] nextTask = node.nextTask.clone();
+        int[] endOfJob = node.endOfJob.clone();
+        int[] releaseTimeOfMachine = node.releaseTimeOfMachine.clone();
+        int remaining = 0;
+        for (int j = 0; j < instance.numJobs; j++)
+            remaining += instance.numTasks - nextTask[j];
+        int[] suffix = new int[remaining];
+        for (int i = 0; i < remaining; i++) {
+            int job = -1;
+            int bestStart = Integer.MAX_VALUE;
+            for (int j = 0; j < instance.numJobs; j++) {
+                if (nextTask[j] >= instance.numTasks) continue;
+                int start = Math.max(endOfJob[j], releaseTimeOfMachine[instance.machine(j, nextTask[j])]);
+                if (start < bestStart || start == bestStart && remainingWork[j][nextTask[j]] > remainingWork[job][nextTask[job]]) {
+                    job = j;
+                    bestStart = start;
+                }
+            }
+            int task = nextTask[job]++;
+            int machine = instance.machine(job, task);
+            int end = Math.max(endOfJob[job], releaseTimeOfMachine[machine]) + instance.duration(job, task);
+            endOfJob[job] = end;
+            releaseTimeOfMachine[machine] = end;
+            suffix[i] = job;
+        }
+        return suffix;
+    }
+
+    /*
+     * La solution donnée par la chaîne des parents du noeud complétée par les jobs de suffix
+     * remplace best[0] si elle est meilleure
+     */
+    private static void improve(Result[] best, Instance instance, Node node, int[] suffix) {
+        JobNumbers sol = new JobNumbers(instance);
+        sol.nextToSet = sol.jobs.length;
+        int i = sol.jobs.length - suffix.length;
+        System.arraycopy(suffix, 0, sol.jobs, i, suffix.length);
+        for (i--; i >= 0; i--) {
+            sol.jobs[i] = node.job;
+            node = node.parent;
+        }
+        Schedule schedule = sol.toSchedule();
+        if (schedule.makespan() < best[0].schedule.makespan()) {
+            Result.ExitCause cause = LowerBound.isOptimal(instance, schedule.makespan())
+                    ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Blocked;
+            best[0] = new Result(instance, schedule, cause);
+            Progress.improved(instance, schedule.makespan());
+        }
+    }
+}
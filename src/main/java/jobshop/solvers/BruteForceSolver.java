@@ -8,8 +8,9 @@ import jobshop.encodings.Task;
 import java.util.Arrays;
 
 public class BruteForceSolver implements Solver {
-    private Schedule schedule = null;
-    private int best = 0;
+    //nombre de feuilles entre deux lectures de l'horloge
+    private static final int CLOCK_PERIOD = 4096;
+
     private boolean useJobNumbers;
     private boolean justPrint = false;
 
@@ -21,49 +22,112 @@ public class BruteForceSolver implements Solver {
         this.justPrint = justPrint;
     }
 
+    /*
+     * L'état d'un appel à solve() : le solveur lui-même n'a pas d'état, il peut être appelé par plusieurs
+     * threads à la fois (par exemple par les requêtes concurrentes de Server)
+     */
+    private class Search {
+        final long deadline;
+        //nombre de feuilles atteintes, pour ne lire l'horloge que toutes les CLOCK_PERIOD feuilles
+        long leaves = 0;
+        //vrai si la deadline a été atteinte avant la fin de l'énumération
+        boolean stopped = false;
+        Schedule schedule = null;
+        int best = 0;
+        //les feuilles de l'énumération par numéro de job sont évaluées par paquets
+        BatchEvaluator evaluator = null;
+        int pending = 0;
+        int[] bestJobs = null;
+        boolean found = false;
+
+        Search(long deadline) {
+            this.deadline = deadline;
+        }
+
+        //compte une feuille et retourne vrai si la deadline est atteinte
+        boolean leaf() {
+            if (++leaves % CLOCK_PERIOD == 0 && deadline - System.currentTimeMillis() <= 1) stopped = true;
+            return stopped;
+        }
+    }
+
+    /*
+     * Énumère toutes les solutions (ou les affiche si justPrint). Si la deadline est atteinte avant la fin,
+     * retourne la meilleure solution énumérée, ou celle de l'algo Glouton si aucune n'est réalisable
+     */
     @Override
     public Result solve(Instance instance, long deadline) {
+        Search search = new Search(deadline);
         int[] nextTaskByJobs = new int[instance.numJobs];
-        if (useJobNumbers) scheduleJobs(instance, new JobNumbers(instance), 0, nextTaskByJobs);
-        else scheduleJobs(instance, new ResourceOrder(instance), 0, nextTaskByJobs);
-        return new Result(instance, schedule, Result.ExitCause.ProvedOptimal);
+        if (useJobNumbers) {
+            search.evaluator = new BatchEvaluator(instance, BatchEvaluator.lanesFor(instance, 64));
+            search.bestJobs = new int[instance.numJobs * instance.numTasks];
+            scheduleJobs(search, instance, new JobNumbers(instance), 0, nextTaskByJobs);
+            flush(search);
+            if (search.found) {
+                JobNumbers sol = new JobNumbers(instance);
+                System.arraycopy(search.bestJobs, 0, sol.jobs, 0, search.bestJobs.length);
+                sol.nextToSet = search.bestJobs.length;
+                search.schedule = sol.toSchedule();
+            }
+        }
+        else scheduleJobs(search, instance, new ResourceOrder(instance), 0, nextTaskByJobs);
+        if (!search.stopped) return new Result(instance, search.schedule, Result.ExitCause.ProvedOptimal);
+        if (search.schedule == null)
+            return new Result(instance, new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, deadline).schedule,
+                    Result.ExitCause.Timeout);
+        return new Result(instance, search.schedule, Result.ExitCause.Timeout);
     }
 
-    private void scheduleJobs(Instance instance, JobNumbers sol, int index, int[] nextTaskByJobs) {
-        for (int i = 0; i < instance.numJobs; i++) {
+    //évalue les feuilles en attente, dans l'ordre de l'énumération
+    private void flush(Search search) {
+        int[] makespans = search.evaluator.evaluate(search.pending);
+        for (int lane = 0; lane < search.pending; lane++) {
+            if (!search.found || makespans[lane] < search.best) {
+                search.best = makespans[lane];
+                search.found = true;
+                search.evaluator.get(lane, search.bestJobs);
+            }
+        }
+        search.pending = 0;
+    }
+
+    private void scheduleJobs(Search search, Instance instance, JobNumbers sol, int index, int[] nextTaskByJobs) {
+        for (int i = 0; i < instance.numJobs && !search.stopped; i++) {
             if (nextTaskByJobs[i] < instance.numTasks) {
                 sol.jobs[index] = i;
                 int[] clone = nextTaskByJobs.clone();
                 clone[i]++;
-                if (index + 1 < instance.numTasks * instance.numJobs) scheduleJobs(instance, sol, index + 1, clone);
+                if (index + 1 < instance.numTasks * instance.numJobs) scheduleJobs(search, instance, sol, index + 1, clone);
                 else if (justPrint) System.out.println(Arrays.toString(sol.jobs));
                 else {
-                    Schedule sched = sol.toSchedule();
-                    if (schedule == null || sched.makespan() < best) {
-                        best = sched.makespan();
-                        schedule = sched;
-                    }
+                    search.evaluator.set(search.pending++, sol.jobs);
+                    if (search.pending == search.evaluator.lanes()) flush(search);
+                    search.leaf();
                 }
             }
         }
     }
 
-    private void scheduleJobs(Instance instance, ResourceOrder sol, int index, int[] nextTaskByJobs) {
-        for (int i = 0; i < instance.numJobs; i++) {
+    private void scheduleJobs(Search search, Instance instance, ResourceOrder sol, int index, int[] nextTaskByJobs) {
+        for (int i = 0; i < instance.numJobs && !search.stopped; i++) {
             int machine = index / instance.numJobs;
             if (nextTaskByJobs[i] == machine) {
                 int task = index % instance.numJobs;
                 sol.tasksByMachine[machine][task] = new Task(i, instance.task_with_machine(i, machine));
                 int[] clone = nextTaskByJobs.clone();
                 clone[i]++;
-                if (index + 1 < instance.numTasks * instance.numJobs) scheduleJobs(instance, sol, index + 1, clone);
+                if (index + 1 < instance.numTasks * instance.numJobs) scheduleJobs(search, instance, sol, index + 1, clone);
                 else if (justPrint) System.out.println(Arrays.deepToString(sol.tasksByMachine));
                 else {
+                    Progress.evaluated();
                     Schedule sched = sol.toSchedule();
-                    if (schedule == null || sched.makespan() < best) {
-                        best = sched.makespan();
-                        schedule = sched;
+                    //ordre non réalisable (cycle)
+                    if (sched != null && (search.schedule == null || sched.makespan() < search.best)) {
+                        search.best = sched.makespan();
+                        search.schedule = sched;
                     }
+                    search.leaf();
                 }
             }
         }
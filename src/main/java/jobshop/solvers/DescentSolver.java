@@ -1,45 +1,99 @@
 package jobshop.solvers;
 
+import jobshop.Events;
 import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Progress;
 import jobshop.Result;
 import jobshop.Solver;
 import jobshop.encodings.ResourceOrder;
+import java.util.ArrayList;
 import java.util.List;
 
 public class DescentSolver implements Solver {
+    //le solveur qui fournit la solution initiale
+    private Solver seed;
+    //le cache des makespans déjà calculés, conservé d'un appel à l'autre
+    private EvaluationCache cache;
+    //nombre de threads qui évaluent les swaps d'une itération (1 : séquentiel)
+    private int threads;
+
+    public DescentSolver() {
+        this(new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT));
+    }
+
+    public DescentSolver(Solver seed) {
+        this(seed, new EvaluationCache(1 << 16));
+    }
+
+    public DescentSolver(Solver seed, EvaluationCache cache) {
+        this(seed, cache, 1);
+    }
+
+    public DescentSolver(Solver seed, EvaluationCache cache, int threads) {
+        this.seed = seed;
+        this.cache = cache;
+        this.threads = threads;
+    }
+
     @Override
     public Result solve(Instance instance, long deadline) {
-        //on initialise s avec la solution retournée par l'algo Glouton
-        Result s = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, deadline);
+        //on initialise s avec la solution retournée par le solveur initial (par défaut l'algo Glouton)
+        Result s = seed.solve(instance, deadline);
         int best = s.schedule.makespan();
-        //tant que la deadline n'est pas atteinte
-        while (deadline - System.currentTimeMillis() > 1) {
-            //par défaut on sort (on part du principe qu'aucun meilleur order ne sera trouvé)
-            boolean exit = true;
-            //l'order qui correspond au meilleur schedule (s)
-            ResourceOrder order = new ResourceOrder(s.schedule);
-            //la liste des Block du chemin critique
-            List<Utils.Block> blocksList = Utils.blocksOfCriticalPath(order);
-            for (Utils.Block block : blocksList) {
-                //la liste des Swap pour le Block
-                List<Utils.Swap> swapList = Utils.neighbors(block);
-                for (Utils.Swap swap : swapList) {
-                    //on copie l'ordre de s et on applique le swap
-                    ResourceOrder copy = order.copy();
-                    swap.applyOn(copy);
-                    int makespan = copy.toSchedule().makespan();
-                    //si le swap retourne un meilleur résultat on actualise s
-                    if (makespan < best) {
+        //événements JFR : les itérations par paquets et le parcours du voisinage de chaque itération
+        int k = 0;
+        //vrai si la descente s'est arrêtée sur un optimum local
+        boolean localOptimum = false;
+        Events.IterationBatch batch = Events.IterationBatch.start(1);
+        try (NeighbourhoodEvaluator evaluator = new NeighbourhoodEvaluator(cache, threads)) {
+            //tant que la deadline n'est pas atteinte et que le thread n'est pas interrompu (voir PortfolioSolver)
+            while (deadline - System.currentTimeMillis() > 1 && !Thread.currentThread().isInterrupted()) {
+                //si la borne inférieure est atteinte, la solution est optimale et on s'arrête (par la fin de
+                //solve(), qui ferme le paquet d'itérations)
+                if (LowerBound.isOptimal(instance, best)) break;
+                k++;
+                Events.NeighbourhoodScan scan = Events.NeighbourhoodScan.start();
+                //par défaut on sort (on part du principe qu'aucun meilleur order ne sera trouvé)
+                boolean exit = true;
+                //l'order qui correspond au meilleur schedule (s)
+                ResourceOrder order = new ResourceOrder(s.schedule);
+                //la liste des Swap de tous les Block du chemin critique
+                List<Utils.Swap> swapList = new ArrayList<>();
+                for (Utils.Block block : Utils.blocksOfCriticalPath(order))
+                    swapList.addAll(Utils.neighbors(block));
+                evaluator.reset(swapList);
+                for (int i = 0; i < swapList.size(); i++) {
+                    //makespan de l'ordre de s avec le swap (via le cache)
+                    int makespan = evaluator.makespan(order, i, null);
+                    //si le swap retourne un meilleur résultat on actualise s (la copie n'est faite que dans ce cas)
+                    if (makespan != -1 && makespan < best) {
+                        Utils.Swap swap = swapList.get(i);
+                        swap.applyOn(order);
+                        ResourceOrder copy = order.copy();
+                        swap.applyOn(order);
                         if (exit) exit = false;
                         order = copy;
                         best = makespan;
+                        Progress.improved(instance, best);
+                        //les swaps suivants s'appliquent au nouvel ordre
+                        evaluator.invalidate(i + 1);
                     }
                 }
+                scan.finish("DescentSolver", instance, k, swapList.size(), swapList.size(), best);
+                batch = batch.iterated("DescentSolver", instance, k, best);
+                //si aucun meilleur order n'a été trouvé on sort
+                if (!exit) s = new Result(order.instance, order.toSchedule(), Result.ExitCause.Blocked);
+                else {
+                    localOptimum = true;
+                    break;
+                }
             }
-            //si aucun meilleur order n'a été trouvé on sort
-            if (!exit) s = new Result(order.instance, order.toSchedule(), Result.ExitCause.Blocked);
-            else return s;
         }
+        batch.finish("DescentSolver", instance, k, best);
+        if (LowerBound.isOptimal(instance, best))
+            return new Result(s.instance, s.schedule, Result.ExitCause.ProvedOptimal);
+        if (localOptimum) return s;
         return new Result(s.instance, s.schedule, Result.ExitCause.Timeout);
     }
 }
@@ -0,0 +1,363 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Progress;
+import jobshop.Schedule;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Resource order stored as a disjunctive graph over primitive arrays, used by the local searches
+ * that need to evaluate many neighbours.
+ *
+ * Operation (job, task) is identified by the integer job * numTasks + task. Once {@link #update()}
+ * has been called, heads[op] is the earliest start time of op and tails[op] is the length of the
+ * longest path from the end of op to the end of the schedule. Machine sequences may be partial:
+ * an operation that is not yet sequenced on its machine has position -1.
+ */
+public class DisjunctiveGraph {
+
+    public final Instance instance;
+    final int numJobs;
+    final int numTasks;
+    final int numMachines;
+    final int numOps;
+
+    /** duration and machine of each operation */
+    final int[] duration;
+    final int[] machine;
+
+    /** sequence[m][0..length[m]) are the operations executed on machine m, in that order */
+    final int[][] sequence;
+    final int[] length;
+    /** index of each operation in the sequence of its machine (-1 if not sequenced) */
+    final int[] position;
+
+    /** earliest start time and tail of each operation, valid after {@link #update()} */
+    final int[] heads;
+    final int[] tails;
+    /** makespan of the current sequences (-1 if they contain a cycle) */
+    int makespan;
+
+    // buffers reused by the evaluations
+    private final int[] topologicalOrder;
+    private final int[] indegree;
+    private final int[] scratchHeads;
+
+    /** Creates a graph where no operation is sequenced yet. */
+    public DisjunctiveGraph(Instance instance) {
+        this.instance = instance;
+        this.numJobs = instance.numJobs;
+        this.numTasks = instance.numTasks;
+        this.numMachines = instance.numMachines;
+        this.numOps = numJobs * numTasks;
+
+        duration = new int[numOps];
+        machine = new int[numOps];
+        // same numbering of the operations as in the instance
+        for (int op = 0; op < numOps; op++) {
+            duration[op] = instance.duration(op);
+            machine[op] = instance.machine(op);
+        }
+        sequence = new int[numMachines][numJobs];
+        length = new int[numMachines];
+        position = new int[numOps];
+        Arrays.fill(position, -1);
+
+        heads = new int[numOps];
+        tails = new int[numOps];
+        makespan = -1;
+        topologicalOrder = new int[numOps];
+        indegree = new int[numOps];
+        scratchHeads = new int[numOps];
+    }
+
+    /** Creates the graph of the given (possibly partial) resource order. Heads and tails are computed. */
+    public DisjunctiveGraph(ResourceOrder order) {
+        this(order.instance);
+        for (int m = 0; m < numMachines; m++) {
+            for (int i = 0; i < order.nextFreeSlot[m]; i++) {
+                Task t = order.tasksByMachine[m][i];
+                append(m, op(t.job, t.task));
+            }
+        }
+        update();
+    }
+
+    /** Creates an exact copy of the given graph. */
+    public DisjunctiveGraph(DisjunctiveGraph other) {
+        this(other.instance);
+        copyFrom(other);
+    }
+
+    /** Overwrites this graph with the content of other (both must share the same instance). */
+    public void copyFrom(DisjunctiveGraph other) {
+        for (int m = 0; m < numMachines; m++)
+            System.arraycopy(other.sequence[m], 0, sequence[m], 0, other.length[m]);
+        System.arraycopy(other.length, 0, length, 0, numMachines);
+        System.arraycopy(other.position, 0, position, 0, numOps);
+        System.arraycopy(other.heads, 0, heads, 0, numOps);
+        System.arraycopy(other.tails, 0, tails, 0, numOps);
+        makespan = other.makespan;
+    }
+
+    /** Identifier of the operation (job, task). */
+    public int op(int job, int task) {
+        return job * numTasks + task;
+    }
+
+    public int makespan() {
+        return makespan;
+    }
+
+    /** Adds op at the end of the sequence of machine m. */
+    void append(int m, int op) {
+        position[op] = length[m];
+        sequence[m][length[m]++] = op;
+    }
+
+    /** Removes all operations from the sequence of machine m. */
+    void clear(int m) {
+        for (int i = 0; i < length[m]; i++)
+            position[sequence[m][i]] = -1;
+        length[m] = 0;
+    }
+
+    /** Exchanges the operations at indices i and j of the sequence of machine m. */
+    void swap(int m, int i, int j) {
+        int a = sequence[m][i];
+        int b = sequence[m][j];
+        sequence[m][i] = b;
+        sequence[m][j] = a;
+        position[b] = i;
+        position[a] = j;
+    }
+
+    /** Moves the operation at index from of machine m to index to, shifting the operations in between. */
+    void move(int m, int from, int to) {
+        int[] seq = sequence[m];
+        int op = seq[from];
+        if (from < to) System.arraycopy(seq, from + 1, seq, from, to - from);
+        else System.arraycopy(seq, to, seq, to + 1, from - to);
+        seq[to] = op;
+        for (int i = Math.min(from, to); i <= Math.max(from, to); i++)
+            position[seq[i]] = i;
+    }
+
+    /**
+     * Computes heads, tails and makespan of the current sequences.
+     * Returns false (and sets the makespan to -1) if the sequences contain a cycle.
+     */
+    public boolean update() {
+        Progress.evaluated();
+        if (!sortTopologically()) {
+            makespan = -1;
+            return false;
+        }
+        makespan = computeHeads(heads);
+        for (int i = numOps - 1; i >= 0; i--) {
+            int op = topologicalOrder[i];
+            int tail = 0;
+            if (op % numTasks < numTasks - 1)
+                tail = tails[op + 1] + duration[op + 1];
+            int pos = position[op];
+            if (pos >= 0 && pos + 1 < length[machine[op]]) {
+                int next = sequence[machine[op]][pos + 1];
+                tail = Math.max(tail, tails[next] + duration[next]);
+            }
+            tails[op] = tail;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the makespan of the current sequences, or -1 if they contain a cycle.
+     * Heads and tails are left untouched, so that they still describe the last {@link #update()}.
+     */
+    public int evaluate() {
+        Progress.evaluated();
+        if (!sortTopologically())
+            return -1;
+        return computeHeads(scratchHeads);
+    }
+
+    /** Fills topologicalOrder with all operations, returns false if there is a cycle. */
+    private boolean sortTopologically() {
+        for (int op = 0; op < numOps; op++)
+            indegree[op] = (op % numTasks > 0 ? 1 : 0) + (position[op] > 0 ? 1 : 0);
+        // topologicalOrder is used as a queue: ops in [0, last) have been found, [0, first) are processed
+        int last = 0;
+        for (int op = 0; op < numOps; op++) {
+            if (indegree[op] == 0)
+                topologicalOrder[last++] = op;
+        }
+        for (int first = 0; first < last; first++) {
+            int op = topologicalOrder[first];
+            if (op % numTasks < numTasks - 1 && --indegree[op + 1] == 0)
+                topologicalOrder[last++] = op + 1;
+            int pos = position[op];
+            if (pos >= 0 && pos + 1 < length[machine[op]]) {
+                int next = sequence[machine[op]][pos + 1];
+                if (--indegree[next] == 0)
+                    topologicalOrder[last++] = next;
+            }
+        }
+        return last == numOps;
+    }
+
+    /** Computes the heads in the last topological order, returns the makespan. */
+    private int computeHeads(int[] starts) {
+        int max = 0;
+        for (int i = 0; i < numOps; i++) {
+            int op = topologicalOrder[i];
+            int start = 0;
+            if (op % numTasks > 0)
+                start = starts[op - 1] + duration[op - 1];
+            int pos = position[op];
+            if (pos > 0) {
+                int prev = sequence[machine[op]][pos - 1];
+                start = Math.max(start, starts[prev] + duration[prev]);
+            }
+            starts[op] = start;
+            max = Math.max(max, start + duration[op]);
+        }
+        return max;
+    }
+
+    /**
+     * Estimates, in constant time, the makespan after exchanging the adjacent operations at indices i
+     * and i+1 of machine m: this is the length of the longest path going through one of the two
+     * operations after the move (Taillard), hence a lower bound of the new makespan.
+     * Heads and tails must be up to date.
+     */
+    public int estimateSwap(int m, int i) {
+        int u = sequence[m][i];
+        int v = sequence[m][i + 1];
+        // heads of v then u once v is placed before u
+        int headV = Math.max(endOfJobPredecessor(v), i > 0 ? end(sequence[m][i - 1]) : 0);
+        int headU = Math.max(endOfJobPredecessor(u), headV + duration[v]);
+        // tails of u then v once u is placed after v
+        int tailU = Math.max(tailOfJobSuccessor(u), i + 2 < length[m] ? tails[sequence[m][i + 2]] + duration[sequence[m][i + 2]] : 0);
+        int tailV = Math.max(tailOfJobSuccessor(v), tailU + duration[u]);
+        return Math.max(headV + duration[v] + tailV, headU + duration[u] + tailU);
+    }
+
+    /**
+     * Estimates the makespan after {@link #move(int, int, int)}, in time linear in the distance between
+     * from and to: heads are propagated forward and tails backward along the moved segment only, using
+     * the current values for everything outside the segment (Balas and Vazacopoulos). This is exact for
+     * adjacent moves and an approximation of the longest path through the segment otherwise.
+     * Heads and tails must be up to date.
+     */
+    public int estimateMove(int m, int from, int to) {
+        int lo = Math.min(from, to);
+        int hi = Math.max(from, to);
+        int size = hi - lo + 1;
+        // order of the segment after the move
+        int[] segment = new int[size];
+        if (from < to) {
+            System.arraycopy(sequence[m], from + 1, segment, 0, size - 1);
+            segment[size - 1] = sequence[m][from];
+        } else {
+            segment[0] = sequence[m][from];
+            System.arraycopy(sequence[m], to, segment, 1, size - 1);
+        }
+        int[] newHeads = new int[size];
+        int prevEnd = lo > 0 ? end(sequence[m][lo - 1]) : 0;
+        for (int i = 0; i < size; i++) {
+            newHeads[i] = Math.max(endOfJobPredecessor(segment[i]), prevEnd);
+            prevEnd = newHeads[i] + duration[segment[i]];
+        }
+        int estimate = 0;
+        int nextTail = hi + 1 < length[m] ? tails[sequence[m][hi + 1]] + duration[sequence[m][hi + 1]] : 0;
+        for (int i = size - 1; i >= 0; i--) {
+            int tail = Math.max(tailOfJobSuccessor(segment[i]), nextTail);
+            estimate = Math.max(estimate, newHeads[i] + duration[segment[i]] + tail);
+            nextTail = tail + duration[segment[i]];
+        }
+        return estimate;
+    }
+
+    private int end(int op) {
+        return heads[op] + duration[op];
+    }
+
+    private int endOfJobPredecessor(int op) {
+        return op % numTasks > 0 ? end(op - 1) : 0;
+    }
+
+    private int tailOfJobSuccessor(int op) {
+        return op % numTasks < numTasks - 1 ? tails[op + 1] + duration[op + 1] : 0;
+    }
+
+    /** Returns the operations of a critical path, from the first to the last one. Heads must be up to date. */
+    public int[] criticalPath() {
+        // select the operation that ends last
+        int cur = 0;
+        for (int op = 0; op < numOps; op++) {
+            if (end(op) > end(cur))
+                cur = op;
+        }
+        // go back through the operations that were delaying the start of cur
+        int[] reversed = new int[numOps];
+        int size = 0;
+        reversed[size++] = cur;
+        while (heads[cur] != 0) {
+            int pos = position[cur];
+            if (cur % numTasks > 0 && end(cur - 1) == heads[cur])
+                cur = cur - 1;
+            else
+                cur = sequence[machine[cur]][pos - 1];
+            reversed[size++] = cur;
+        }
+        int[] path = new int[size];
+        for (int i = 0; i < size; i++)
+            path[i] = reversed[size - 1 - i];
+        return path;
+    }
+
+    /** Returns a list of all blocks of the critical path, as {@link Utils#blocksOfCriticalPath(ResourceOrder)}. */
+    List<Utils.Block> blocksOfCriticalPath() {
+        int[] path = criticalPath();
+        List<Utils.Block> blocks = new ArrayList<>();
+        int m = machine[path[0]];
+        int firstTask = position[path[0]];
+        int lastTask = firstTask;
+        for (int i = 1; i < path.length; i++) {
+            if (machine[path[i]] == m) {
+                lastTask++;
+            } else {
+                if (firstTask != lastTask)
+                    blocks.add(new Utils.Block(m, firstTask, lastTask));
+                m = machine[path[i]];
+                firstTask = position[path[i]];
+                lastTask = firstTask;
+            }
+        }
+        if (firstTask != lastTask)
+            blocks.add(new Utils.Block(m, firstTask, lastTask));
+        return blocks;
+    }
+
+    /** Converts the machine sequences back to a resource order. */
+    public ResourceOrder toResourceOrder() {
+        ResourceOrder order = new ResourceOrder(instance);
+        for (int m = 0; m < numMachines; m++) {
+            for (int i = 0; i < length[m]; i++) {
+                int op = sequence[m][i];
+                order.tasksByMachine[m][order.nextFreeSlot[m]++] = new Task(op / numTasks, op % numTasks);
+            }
+        }
+        return order;
+    }
+
+    /** Returns the schedule given by the heads. Heads must be up to date and all operations sequenced. */
+    public Schedule toSchedule() {
+        // operations are numbered as in the instance: the heads are the start times
+        return Schedule.wrap(instance, Arrays.copyOf(heads, numOps));
+    }
+}
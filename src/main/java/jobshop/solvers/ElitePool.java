@@ -0,0 +1,104 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Ensemble borné de bonnes solutions (élites), gardé diversifié : une solution trop proche d'une élite
+ * (moins de minDistance paires de jobs dans un ordre différent sur une machine, voir distance())
+ * ne peut que la remplacer, et seulement si elle est meilleure. Quand l'ensemble est plein, une nouvelle
+ * solution assez éloignée de toutes les élites remplace la moins bonne, si elle est meilleure qu'elle.
+ *
+ * Les élites sont gardées triées par makespan croissant, sous la forme ResourceOrder.jobsByMachine().
+ * Un ElitePool n'est pas partagé entre threads.
+ */
+public class ElitePool {
+    private static class Elite {
+        final int[] jobs;
+        final int makespan;
+
+        Elite(int[] jobs, int makespan) {
+            this.jobs = jobs;
+            this.makespan = makespan;
+        }
+    }
+
+    private final Instance instance;
+    //nombre maximum d'élites
+    private final int capacity;
+    //distance minimum entre deux élites
+    private final int minDistance;
+    //les élites, par makespan croissant
+    private final List<Elite> elites = new ArrayList<>();
+
+    public ElitePool(Instance instance, int capacity, int minDistance) {
+        this.instance = instance;
+        this.capacity = capacity;
+        this.minDistance = minDistance;
+    }
+
+    public int size() {
+        return elites.size();
+    }
+
+    //l'élite de rang i (0 : la meilleure)
+    public ResourceOrder get(int i) {
+        return ResourceOrder.fromJobsByMachine(instance, elites.get(i).jobs);
+    }
+
+    public int makespan(int i) {
+        return elites.get(i).makespan;
+    }
+
+    /*
+     * Propose une solution, retourne true si elle entre dans l'ensemble. La solution n'est convertie
+     * que si son makespan lui permet d'entrer (appelé à chaque optimum local de la recherche tabou)
+     */
+    public boolean offer(Schedule schedule) {
+        int makespan = schedule.makespan();
+        if (elites.size() == capacity && makespan >= elites.get(elites.size() - 1).makespan) return false;
+        int[] jobs = new ResourceOrder(schedule).jobsByMachine();
+
+        //l'élite la plus proche, si elle est trop proche
+        int closest = -1;
+        int closestDistance = minDistance;
+        for (int i = 0; i < elites.size(); i++) {
+            int d = distance(jobs, elites.get(i).jobs, instance.numJobs);
+            if (d < closestDistance) {
+                closest = i;
+                closestDistance = d;
+            }
+        }
+        if (closest >= 0) {
+            if (makespan >= elites.get(closest).makespan) return false;
+            elites.remove(closest);
+        } else if (elites.size() == capacity) {
+            elites.remove(elites.size() - 1);
+        }
+        int i = 0;
+        while (i < elites.size() && elites.get(i).makespan <= makespan) i++;
+        elites.add(i, new Elite(jobs, makespan));
+        return true;
+    }
+
+    /*
+     * Nombre de paires de jobs exécutés dans un ordre différent sur une même machine, pour deux
+     * tableaux ResourceOrder.jobsByMachine() : c'est le nombre de swaps de jobs adjacents qui mènent
+     * de l'un à l'autre (distance de Kendall, voir PathRelinkingSolver.relink())
+     */
+    public static int distance(int[] a, int[] b, int numJobs) {
+        int[] rank = new int[numJobs];
+        int distance = 0;
+        for (int offset = 0; offset < a.length; offset += numJobs) {
+            for (int i = 0; i < numJobs; i++) rank[b[offset + i]] = i;
+            for (int i = 0; i < numJobs; i++)
+                for (int j = i + 1; j < numJobs; j++)
+                    if (rank[a[offset + i]] > rank[a[offset + j]]) distance++;
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,119 @@
+package jobshop.solvers;
+
+import jobshop.Progress;
+import jobshop.Schedule;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Cache borné des makespans des ResourceOrder déjà évalués, indexé par ResourceOrder.hash64().
+ * Les recherches locales réévaluent souvent les mêmes voisins (d'une itération à l'autre, d'un
+ * redémarrage à l'autre, à la fin d'une interdiction tabou) : on évite alors copy() et toSchedule().
+ * Le cache est découpé en segments protégés chacun par son propre verrou pour être partagé entre
+ * plusieurs threads ; chaque segment évince l'entrée la moins récemment utilisée (LRU).
+ * Deux ordres différents ayant le même hash (probabilité négligeable sur 64 bits) partageraient leur makespan.
+ */
+public class EvaluationCache {
+    //nombre de segments, une puissance de 2
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    //un segment : une LinkedHashMap dans l'ordre des accès, qui supprime la plus ancienne entrée si elle est pleine
+    private static class Stripe extends LinkedHashMap<Long, Integer> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    /** capacity : nombre maximum de makespans gardés */
+    public EvaluationCache(int capacity) {
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++)
+            stripes[i] = new Stripe(Math.max(1, capacity / STRIPES));
+    }
+
+    private Stripe stripe(long hash) {
+        return stripes[(int) (hash >>> 60) & (STRIPES - 1)];
+    }
+
+    /*
+     * Retourne le makespan de l'ordre, calculé avec toSchedule() s'il n'est pas dans le cache,
+     * ou -1 si l'ordre n'est pas réalisable (cycle)
+     */
+    public int makespan(ResourceOrder order) {
+        //chaque makespan demandé compte comme une évaluation, qu'il soit dans le cache ou non
+        Progress.evaluated();
+        long hash = order.hash64();
+        Stripe stripe = stripe(hash);
+        Integer cached;
+        synchronized (stripe) {
+            cached = stripe.get(hash);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        //l'évaluation se fait hors du verrou, deux threads peuvent calculer la même valeur en même temps
+        Schedule schedule = order.toSchedule();
+        int makespan = schedule == null ? -1 : schedule.makespan();
+        synchronized (stripe) {
+            stripe.put(hash, makespan);
+        }
+        return makespan;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    //proportion des évaluations trouvées dans le cache (0 si aucune évaluation)
+    public double hitRate() {
+        long h = hits(), total = h + misses();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d hits, %d misses (%.1f%%), %d entries", hits(), misses(), 100 * hitRate(), size());
+    }
+}
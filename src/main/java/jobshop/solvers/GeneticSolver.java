@@ -0,0 +1,268 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Progress;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.encodings.JobNumbers;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/*
+ * Algorithme génétique sur la représentation par numéro de job : toute permutation avec répétition
+ * des numéros de job est une solution valide, le chromosome est donc directement JobNumbers.jobs.
+ * L'évaluation de la population est parallélisée sur plusieurs coeurs.
+ */
+public class GeneticSolver implements Solver {
+    /*
+     * Les différents croisements, qui préservent l'ordre relatif des tâches des parents
+     */
+    public enum Crossover {
+        JOX,    //les gènes d'un sous-ensemble de jobs gardent leur place du parent 1, les autres suivent l'ordre du parent 2
+        PPX     //chaque gène est pris dans l'un ou l'autre parent en respectant leur ordre (precedence preserving)
+    }
+
+    //nombre d'individus de la population
+    private int populationSize;
+    //probabilité de muter un enfant
+    private double mutationRate;
+    private Crossover crossover;
+    //si vrai, chaque enfant est amélioré par une descente sur le ResourceOrder correspondant
+    private boolean localSearch;
+    //nombre de threads utilisés pour évaluer la population
+    private int threads;
+    //nombre d'individus évalués ensemble par un thread (voir BatchEvaluator)
+    private static final int LANES = 8;
+
+    public GeneticSolver(int populationSize, double mutationRate, Crossover crossover, boolean localSearch, int threads) {
+        this.populationSize = populationSize;
+        this.mutationRate = mutationRate;
+        this.crossover = crossover;
+        this.localSearch = localSearch;
+        this.threads = threads;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        Random generator = new Random(0);
+        int length = instance.numJobs * instance.numTasks;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        ThreadLocal<BatchEvaluator> evaluators = ThreadLocal.withInitial(() -> new BatchEvaluator(instance, LANES));
+        try {
+            //population initiale : la solution gloutonne et des permutations aléatoires
+            int[][] population = new int[populationSize][];
+            Result glouton = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, deadline);
+            if (glouton.cause == Result.ExitCause.ProvedOptimal) return glouton;
+            population[0] = new JobNumbers(glouton.schedule).jobs;
+            for (int i = 1; i < populationSize; i++) {
+                population[i] = new int[length];
+                for (int j = 0; j < length; j++)
+                    population[i][j] = j / instance.numTasks;
+                shuffleArray(population[i], generator);
+            }
+            int[] fitness = evaluate(pool, evaluators, population);
+
+            int best = 0;
+            for (int i = 1; i < populationSize; i++)
+                if (fitness[i] < fitness[best]) best = i;
+            int[] bestJobs = population[best].clone();
+            int bestMakespan = fitness[best];
+
+            try {
+                //jusqu'à la deadline, l'optimum ou l'interruption du thread (voir PortfolioSolver)
+                while (deadline - System.currentTimeMillis() > 1 && !LowerBound.isOptimal(instance, bestMakespan)
+                        && !Thread.currentThread().isInterrupted()) {
+                    //on crée les enfants (séquentiellement pour que le résultat ne dépende pas des threads)
+                    int[][] children = new int[populationSize][];
+                    for (int i = 0; i < populationSize; i++) {
+                        int[] p1 = population[tournament(fitness, generator)];
+                        int[] p2 = population[tournament(fitness, generator)];
+                        children[i] = crossover == Crossover.JOX
+                                ? jox(p1, p2, instance.numJobs, generator)
+                                : ppx(p1, p2, instance.numJobs, generator);
+                        if (generator.nextDouble() < mutationRate) mutate(children[i], generator);
+                    }
+                    //amélioration des enfants par recherche locale, en parallèle
+                    if (localSearch) {
+                        pool.submit(() -> IntStream.range(0, populationSize).parallel()
+                                .forEach(i -> children[i] = descent(instance, children[i], deadline))).get();
+                    }
+                    int[] childFitness = evaluate(pool, evaluators, children);
+                    //élitisme : le meilleur individu remplace le pire enfant
+                    int worst = 0;
+                    for (int i = 1; i < populationSize; i++)
+                        if (childFitness[i] > childFitness[worst]) worst = i;
+                    children[worst] = bestJobs.clone();
+                    childFitness[worst] = bestMakespan;
+                    population = children;
+                    fitness = childFitness;
+                    for (int i = 0; i < populationSize; i++) {
+                        if (fitness[i] < bestMakespan) {
+                            bestMakespan = fitness[i];
+                            Progress.improved(instance, bestMakespan);
+                            bestJobs = population[i].clone();
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                //interrompu pendant une génération : on garde le meilleur individu trouvé
+                Thread.currentThread().interrupt();
+            }
+
+            JobNumbers sol = new JobNumbers(instance);
+            System.arraycopy(bestJobs, 0, sol.jobs, 0, length);
+            sol.nextToSet = length;
+            Schedule schedule = sol.toSchedule();
+            if (LowerBound.isOptimal(instance, bestMakespan))
+                return new Result(instance, schedule, Result.ExitCause.ProvedOptimal);
+            return new Result(instance, schedule, Result.ExitCause.Timeout);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /*
+     * Évalue toute la population en parallèle, par paquets de LANES individus
+     */
+    private int[] evaluate(ForkJoinPool pool, ThreadLocal<BatchEvaluator> evaluators, int[][] population)
+            throws InterruptedException, ExecutionException {
+        int[] fitness = new int[population.length];
+        int batches = (population.length + LANES - 1) / LANES;
+        pool.submit(() -> IntStream.range(0, batches).parallel().forEach(batch -> {
+            BatchEvaluator evaluator = evaluators.get();
+            int first = batch * LANES;
+            int count = Math.min(LANES, population.length - first);
+            for (int lane = 0; lane < count; lane++)
+                evaluator.set(lane, population[first + lane]);
+            System.arraycopy(evaluator.evaluate(count), 0, fitness, first, count);
+        })).get();
+        return fitness;
+    }
+
+    /*
+     * Sélection par tournoi binaire : retourne l'indice du meilleur de deux individus tirés au hasard
+     */
+    private int tournament(int[] fitness, Random generator) {
+        int a = generator.nextInt(fitness.length);
+        int b = generator.nextInt(fitness.length);
+        return fitness[a] <= fitness[b] ? a : b;
+    }
+
+    /*
+     * Croisement JOX : les jobs sélectionnés gardent leur position du parent 1,
+     * les positions restantes sont remplies avec les autres jobs dans l'ordre du parent 2
+     */
+    static int[] jox(int[] p1, int[] p2, int numJobs, Random generator) {
+        boolean[] kept = new boolean[numJobs];
+        for (int j = 0; j < numJobs; j++)
+            kept[j] = generator.nextBoolean();
+        int[] child = new int[p1.length];
+        int next = 0;
+        for (int i = 0; i < p1.length; i++) {
+            if (kept[p1[i]]) {
+                child[i] = p1[i];
+            } else {
+                while (kept[p2[next]]) next++;
+                child[i] = p2[next++];
+            }
+        }
+        return child;
+    }
+
+    /*
+     * Croisement PPX : pour chaque position on prend le premier gène non encore utilisé de l'un des parents.
+     * La k-ième occurrence d'un job dans un parent est utilisée dès que l'enfant contient k occurrences de ce job.
+     */
+    static int[] ppx(int[] p1, int[] p2, int numJobs, Random generator) {
+        int[] occurrence1 = occurrences(p1, numJobs);
+        int[] occurrence2 = occurrences(p2, numJobs);
+        int[] countInChild = new int[numJobs];
+        int[] child = new int[p1.length];
+        int next1 = 0, next2 = 0;
+        for (int i = 0; i < child.length; i++) {
+            while (countInChild[p1[next1]] > occurrence1[next1]) next1++;
+            while (countInChild[p2[next2]] > occurrence2[next2]) next2++;
+            child[i] = generator.nextBoolean() ? p1[next1] : p2[next2];
+            countInChild[child[i]]++;
+        }
+        return child;
+    }
+
+    //pour chaque position, le nombre d'occurrences du même job avant elle
+    private static int[] occurrences(int[] jobs, int numJobs) {
+        int[] seen = new int[numJobs];
+        int[] occurrence = new int[jobs.length];
+        for (int i = 0; i < jobs.length; i++)
+            occurrence[i] = seen[jobs[i]]++;
+        return occurrence;
+    }
+
+    /*
+     * Mutation : déplace un gène à une autre position (le chromosome reste valide)
+     */
+    private static void mutate(int[] jobs, Random generator) {
+        int from = generator.nextInt(jobs.length);
+        int to = generator.nextInt(jobs.length);
+        int job = jobs[from];
+        if (from < to) System.arraycopy(jobs, from + 1, jobs, from, to - from);
+        else System.arraycopy(jobs, to, jobs, to + 1, from - to);
+        jobs[to] = job;
+    }
+
+    /*
+     * Descente sur le voisinage des Block du chemin critique à partir du ResourceOrder du chromosome,
+     * le résultat est réencodé en numéros de job (évolution lamarckienne)
+     */
+    private static int[] descent(Instance instance, int[] jobs, long deadline) {
+        JobNumbers sol = new JobNumbers(instance);
+        System.arraycopy(jobs, 0, sol.jobs, 0, jobs.length);
+        sol.nextToSet = jobs.length;
+        DisjunctiveGraph graph = new DisjunctiveGraph(new ResourceOrder(sol.toSchedule()));
+        boolean improved = true;
+        while (improved && deadline - System.currentTimeMillis() > 1) {
+            improved = false;
+            Utils.Swap bestSwap = null;
+            int best = graph.makespan();
+            List<Utils.Block> blocksList = graph.blocksOfCriticalPath();
+            for (Utils.Block block : blocksList) {
+                for (Utils.Swap swap : Utils.neighbors(block)) {
+                    //on n'évalue que les swaps dont l'estimation peut améliorer la solution
+                    if (graph.estimateSwap(swap.machine, swap.t1) >= best) continue;
+                    swap.applyOn(graph);
+                    int makespan = graph.evaluate();
+                    swap.applyOn(graph);
+                    if (makespan != -1 && makespan < best) {
+                        best = makespan;
+                        bestSwap = swap;
+                    }
+                }
+            }
+            if (bestSwap != null) {
+                bestSwap.applyOn(graph);
+                graph.update();
+                improved = true;
+            }
+        }
+        return new JobNumbers(graph.toSchedule()).jobs;
+    }
+
+    /** Simple Fisher–Yates array shuffling */
+    private static void shuffleArray(int[] array, Random random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int index = random.nextInt(i + 1);
+            int tmp = array[index];
+            array[index] = array[i];
+            array[i] = tmp;
+        }
+    }
+}
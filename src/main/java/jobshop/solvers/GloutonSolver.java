@@ -1,7 +1,10 @@
 package jobshop.solvers;
 
 import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Progress;
 import jobshop.Result;
+import jobshop.Schedule;
 import jobshop.Solver;
 import jobshop.encodings.ResourceOrder;
 import jobshop.encodings.Task;
@@ -92,8 +95,12 @@ public class GloutonSolver implements Solver {
             if (task.task < instance.numTasks - 1)
                 taskToScheduled.add(new Task(task.job, task.task + 1));
         }
-        //retourne la solution trouvée
-        return new Result(instance, sol.toSchedule(), Result.ExitCause.Blocked);
+        //retourne la solution trouvée (optimale si elle atteint la borne inférieure)
+        Schedule schedule = sol.toSchedule();
+        Progress.improved(instance, schedule.makespan());
+        if (LowerBound.isOptimal(instance, schedule.makespan()))
+            return new Result(instance, schedule, Result.ExitCause.ProvedOptimal);
+        return new Result(instance, schedule, Result.ExitCause.Blocked);
     }
 
     /*
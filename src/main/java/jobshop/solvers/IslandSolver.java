@@ -0,0 +1,183 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/*
+ * Une île du modèle en îles (voir jobshop.Island) : une recherche tabou découpée en époques, qui échange
+ * sa meilleure solution avec les autres îles par un répertoire partagé. Les îles peuvent être des threads,
+ * des processus d'une même machine ou des processus de plusieurs machines qui partagent le répertoire.
+ *
+ * À la fin de chaque époque, l'île publie sa meilleure solution dans island-<id>.elite (écrit à côté puis
+ * déplacé, les autres îles ne lisent jamais un fichier partiel) et lit celles des autres îles. L'époque
+ * suivante part de la meilleure solution connue (la sienne ou celle d'une autre île si elle est meilleure),
+ * perturbée par quelques swaps aléatoires du chemin critique pour que les îles ne suivent pas la même trajectoire.
+ *
+ * Le message d'une île est : int magic, long hash de l'instance, int id de l'île, int makespan,
+ * int numJobs, int numMachines, l'ordre des jobs sur chaque machine (unsigned short, ou int si
+ * numJobs > 65535), puis le CRC32 de tout ce qui précède.
+ */
+public class IslandSolver implements Solver {
+    private static final int MAGIC = 0x4A534953; // "JSIS"
+
+    //le répertoire partagé par les îles
+    private final Path directory;
+    //numéro de l'île, qui sert aussi de graine pour ses perturbations
+    private final int id;
+    //nombre d'itérations tabou d'une époque
+    private final int epochIterations;
+    //la durée des interdictions
+    private final int dureeTabou;
+    //nombre de swaps aléatoires de la perturbation au début de chaque époque
+    private final int perturbation;
+
+    public IslandSolver(Path directory, int id, int epochIterations, int dureeTabou, int perturbation) {
+        this.directory = directory;
+        this.id = id;
+        this.epochIterations = epochIterations;
+        this.dureeTabou = dureeTabou;
+        this.perturbation = perturbation;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        Random generator = new Random(id);
+        EvaluationCache cache = new EvaluationCache(1 << 16);
+        Result best = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, deadline);
+        //l'île 0 part de la solution gloutonne, les autres d'une solution gloutonne perturbée
+        ResourceOrder start = new ResourceOrder(best.schedule);
+        if (id > 0) perturb(start, generator);
+        publish(best);
+
+        while (deadline - System.currentTimeMillis() > 1 && !LowerBound.isOptimal(instance, best.schedule.makespan())) {
+            Schedule startSchedule = start.toSchedule();
+            Result epoch = new TabouSolver(epochIterations, dureeTabou,
+                    (i, d) -> new Result(instance, startSchedule, Result.ExitCause.Blocked), cache, 1)
+                    .solve(instance, deadline);
+            if (epoch.schedule.makespan() < best.schedule.makespan()) {
+                best = epoch;
+                publish(best);
+            }
+            //migration : la meilleure solution des autres îles si elle est meilleure que la nôtre
+            Optional<Result> immigrant = best(directory, instance);
+            Result from = immigrant.isPresent() && immigrant.get().schedule.makespan() < best.schedule.makespan()
+                    ? immigrant.get() : best;
+            start = new ResourceOrder(from.schedule);
+            perturb(start, generator);
+        }
+        if (LowerBound.isOptimal(instance, best.schedule.makespan()))
+            return new Result(instance, best.schedule, Result.ExitCause.ProvedOptimal);
+        return new Result(instance, best.schedule, Result.ExitCause.Timeout);
+    }
+
+    /*
+     * Applique des swaps tirés au hasard parmi les swaps des Block du chemin critique (jamais de cycle)
+     */
+    private void perturb(ResourceOrder order, Random generator) {
+        for (int i = 0; i < perturbation; i++) {
+            List<Utils.Block> blocksList = Utils.blocksOfCriticalPath(order);
+            if (blocksList.isEmpty()) return;
+            Utils.Block block = blocksList.get(generator.nextInt(blocksList.size()));
+            List<Utils.Swap> swapList = Utils.neighbors(block);
+            swapList.get(generator.nextInt(swapList.size())).applyOn(order);
+        }
+    }
+
+    private void publish(Result result) {
+        try {
+            write(directory.resolve("island-" + id + ".elite"), id, result.schedule);
+        } catch (IOException e) {
+            //l'île continue seule si le répertoire n'est pas accessible
+            System.err.println("WARNING: island " + id + " cannot publish its solution: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Écrit le message d'une île dans le fichier (écrit à côté puis déplacé)
+     */
+    public static void write(Path file, int island, Schedule schedule) throws IOException {
+        Instance instance = schedule.pb;
+        int[] jobs = new ResourceOrder(schedule).jobsByMachine();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeLong(instance.hash64());
+        out.writeInt(island);
+        out.writeInt(schedule.makespan());
+        out.writeInt(instance.numJobs);
+        out.writeInt(instance.numMachines);
+        for (int job : jobs) {
+            if (instance.numJobs > 0xFFFF) out.writeInt(job);
+            else out.writeShort(job);
+        }
+        out.flush();
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, bytes.toByteArray());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /*
+     * Lit le message d'une île : la solution qu'il contient, ou rien s'il est illisible ou d'une autre instance
+     */
+    public static Optional<Result> read(Path file, Instance instance) {
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            if (bytes.length < 4) return Optional.empty();
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - 4);
+            if (ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt() != (int) crc.getValue()) return Optional.empty();
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+            if (in.readInt() != MAGIC || in.readLong() != instance.hash64()) return Optional.empty();
+            in.readInt();
+            int makespan = in.readInt();
+            if (in.readInt() != instance.numJobs || in.readInt() != instance.numMachines) return Optional.empty();
+            int[] jobs = new int[instance.numJobs * instance.numMachines];
+            for (int i = 0; i < jobs.length; i++)
+                jobs[i] = instance.numJobs > 0xFFFF ? in.readInt() : in.readUnsignedShort();
+            Schedule schedule = ResourceOrder.fromJobsByMachine(instance, jobs).toSchedule();
+            if (schedule == null || schedule.makespan() != makespan) return Optional.empty();
+            return Optional.of(new Result(instance, schedule, Result.ExitCause.Blocked));
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /*
+     * La meilleure solution publiée par les îles du répertoire pour cette instance
+     */
+    public static Optional<Result> best(Path directory, Instance instance) {
+        Optional<Result> best = Optional.empty();
+        if (!Files.isDirectory(directory)) return best;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "island-*.elite")) {
+            for (Path file : files) {
+                Optional<Result> result = read(file, instance);
+                if (result.isPresent() && (!best.isPresent()
+                        || result.get().schedule.makespan() < best.get().schedule.makespan()))
+                    best = result;
+            }
+        } catch (IOException e) {
+            System.err.println("WARNING: cannot read " + directory + ": " + e.getMessage());
+        }
+        return best;
+    }
+}
@@ -0,0 +1,118 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Recherche locale itérée : DescentSolver s'arrête au premier optimum local, bien avant la deadline.
+ * On perturbe alors la solution (k swaps aléatoires dans les Block du chemin critique), on relance la
+ * descente à partir de la solution perturbée et on garde le nouvel optimum local selon le critère
+ * d'acceptation. Plusieurs chaînes indépendantes tournent en parallèle et partagent le cache d'évaluation.
+ */
+public class IteratedLocalSearchSolver implements Solver {
+    /*
+     * Les critères d'acceptation du nouvel optimum local
+     */
+    public enum Acceptance {
+        IMPROVING,  //accepté s'il n'est pas moins bon que la solution courante
+        ALWAYS      //toujours accepté (marche aléatoire entre optimums locaux)
+    }
+
+    //nombre de swaps aléatoires de la perturbation
+    private int perturbation;
+    private Acceptance acceptance;
+    //nombre de chaînes indépendantes (une par thread)
+    private int chains;
+    //le cache des makespans, partagé par toutes les descentes
+    private EvaluationCache cache;
+
+    public IteratedLocalSearchSolver(int perturbation, Acceptance acceptance, int chains) {
+        this(perturbation, acceptance, chains, new EvaluationCache(1 << 16));
+    }
+
+    public IteratedLocalSearchSolver(int perturbation, Acceptance acceptance, int chains, EvaluationCache cache) {
+        this.perturbation = perturbation;
+        this.acceptance = acceptance;
+        this.chains = chains;
+        this.cache = cache;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        //première descente à partir de l'algo Glouton, commune à toutes les chaînes
+        Result start = new DescentSolver(new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT), cache)
+                .solve(instance, deadline);
+        if (start.cause == Result.ExitCause.ProvedOptimal) return start;
+
+        //vrai dès qu'une chaîne a trouvé une solution optimale
+        AtomicBoolean optimal = new AtomicBoolean(false);
+        ExecutorService pool = Executors.newFixedThreadPool(chains);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int chain = 0; chain < chains; chain++) {
+                Random generator = new Random(chain);
+                futures.add(pool.submit(() -> chain(instance, start, generator, optimal, deadline)));
+            }
+            Result best = start;
+            for (Future<Result> future : futures) {
+                Result result = future.get();
+                if (result.schedule.makespan() < best.schedule.makespan()) best = result;
+            }
+            if (LowerBound.isOptimal(instance, best.schedule.makespan()))
+                return new Result(instance, best.schedule, Result.ExitCause.ProvedOptimal);
+            return new Result(instance, best.schedule, Result.ExitCause.Timeout);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /*
+     * Une chaîne : perturbation puis descente jusqu'à la deadline, retourne le meilleur optimum local
+     */
+    private Result chain(Instance instance, Result start, Random generator, AtomicBoolean optimal, long deadline) {
+        Result current = start;
+        Result best = start;
+        while (deadline - System.currentTimeMillis() > 1 && !optimal.get()) {
+            ResourceOrder order = new ResourceOrder(current.schedule);
+            perturb(order, generator);
+            Schedule perturbed = order.toSchedule();
+            //la descente part de la solution perturbée
+            Result candidate = new DescentSolver((i, d) -> new Result(instance, perturbed, Result.ExitCause.Blocked), cache)
+                    .solve(instance, deadline);
+            int makespan = candidate.schedule.makespan();
+            if (makespan < best.schedule.makespan()) {
+                best = candidate;
+                if (candidate.cause == Result.ExitCause.ProvedOptimal) optimal.set(true);
+            }
+            if (acceptance == Acceptance.ALWAYS || makespan <= current.schedule.makespan())
+                current = candidate;
+        }
+        return best;
+    }
+
+    /*
+     * Applique k swaps tirés au hasard parmi les swaps des Block du chemin critique.
+     * Inverser deux tâches consécutives du chemin critique ne crée jamais de cycle.
+     */
+    private void perturb(ResourceOrder order, Random generator) {
+        for (int i = 0; i < perturbation; i++) {
+            List<Utils.Block> blocksList = Utils.blocksOfCriticalPath(order);
+            if (blocksList.isEmpty()) return;
+            Utils.Block block = blocksList.get(generator.nextInt(blocksList.size()));
+            List<Utils.Swap> swapList = Utils.neighbors(block);
+            swapList.get(generator.nextInt(swapList.size())).applyOn(order);
+        }
+    }
+}
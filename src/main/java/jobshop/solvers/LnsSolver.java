@@ -0,0 +1,444 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Progress;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Recherche à grand voisinage (LNS) : on garde l'ordre des opérations sur les machines sauf dans une fenêtre
+ * de temps (les opérations qui commencent entre deux dates), dont on recalcule l'ordre de façon exacte par
+ * séparation et évaluation (voir Window). Les swaps de Utils ne déplacent que des opérations adjacentes ;
+ * une fenêtre peut réordonner plusieurs opérations sur chaque machine à la fois.
+ *
+ * À chaque tour, l'horizon est découpé en fenêtres consécutives d'environ windowSize opérations (le découpage
+ * est décalé au hasard d'un tour à l'autre) optimisées en parallèle. Les fenêtres ne se chevauchent pas :
+ * leurs nouveaux ordres peuvent être appliqués ensemble sans créer de cycle (un arc qui ne change pas va d'une
+ * opération vers une opération qui commençait plus tard, on ne peut pas revenir dans une fenêtre après en
+ * être sorti). Chaque fenêtre est optimisée avec les dates des autres figées ; les résultats sont appliqués
+ * un par un et gardés si le makespan n'augmente pas. Quand un tour n'améliore rien, les fenêtres grandissent.
+ */
+public class LnsSolver implements Solver {
+    //nombre de tours sans amélioration, avec les plus grandes fenêtres, au-delà duquel on s'arrête
+    private static final int MAX_STALLS = 20;
+
+    //nombre d'opérations d'une fenêtre (au début et après chaque amélioration)
+    private int windowSize;
+    //nombre maximum de noeuds de la séparation et évaluation d'une fenêtre
+    private int nodeLimit;
+    //nombre de fenêtres optimisées en même temps
+    private int threads;
+    //le solveur qui fournit la solution initiale
+    private Solver seed;
+
+    public LnsSolver(int windowSize, int nodeLimit, int threads) {
+        this(windowSize, nodeLimit, threads, new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT));
+    }
+
+    public LnsSolver(int windowSize, int nodeLimit, int threads, Solver seed) {
+        this.windowSize = windowSize;
+        this.nodeLimit = nodeLimit;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        Result start = seed.solve(instance, deadline);
+        DisjunctiveGraph graph = new DisjunctiveGraph(new ResourceOrder(start.schedule));
+        int current = graph.makespan();
+        Schedule best = graph.toSchedule();
+        Random generator = new Random(0);
+        int size = windowSize;
+        int maxSize = Math.max(windowSize, Math.min(graph.numOps, 4 * windowSize));
+        int stalls = 0;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            while (deadline - System.currentTimeMillis() > 1 && !LowerBound.isOptimal(instance, best.makespan())
+                    && stalls < MAX_STALLS) {
+                List<Window> windows = windows(graph, size, generator.nextInt(size));
+                List<Future<Window>> futures = new ArrayList<>();
+                for (Window window : windows)
+                    futures.add(pool.submit(() -> window.solve(nodeLimit, deadline)));
+                List<Window> improved = new ArrayList<>();
+                for (Future<Window> future : futures) {
+                    Window window = future.get();
+                    if (window.improved()) improved.add(window);
+                }
+                //les fenêtres qui gagnent le plus d'abord
+                improved.sort((a, b) -> Integer.compare(b.gain(), a.gain()));
+                boolean changed = false;
+                for (Window window : improved) {
+                    window.apply(graph, true);
+                    if (graph.update() && graph.makespan() <= current) {
+                        current = graph.makespan();
+                        changed = true;
+                    } else {
+                        window.apply(graph, false);
+                        graph.update();
+                    }
+                }
+                if (current < best.makespan()) {
+                    best = graph.toSchedule();
+                    Progress.improved(instance, current);
+                    size = windowSize;
+                    stalls = 0;
+                } else if (!changed) {
+                    //rien n'a bougé : des fenêtres plus grandes
+                    if (size < maxSize) size = Math.min(maxSize, size * 3 / 2 + 1);
+                    else stalls++;
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            pool.shutdown();
+        }
+        if (LowerBound.isOptimal(instance, best.makespan()))
+            return new Result(instance, best, Result.ExitCause.ProvedOptimal);
+        if (deadline - System.currentTimeMillis() <= 1)
+            return new Result(instance, best, Result.ExitCause.Timeout);
+        return new Result(instance, best, Result.ExitCause.Blocked);
+    }
+
+    /*
+     * Découpe l'horizon en fenêtres d'environ size opérations : les coupures sont les dates de début des
+     * opérations de rang offset, offset + size, ... (par date de début), une fenêtre contient les opérations
+     * qui commencent entre deux coupures. Les têtes du graphe doivent être à jour.
+     */
+    static List<Window> windows(DisjunctiveGraph graph, int size, int offset) {
+        long[] keys = new long[graph.numOps];
+        for (int op = 0; op < graph.numOps; op++)
+            keys[op] = ((long) graph.heads[op] << 32) | op;
+        Arrays.sort(keys);
+        int[] local = new int[graph.numOps];
+        Arrays.fill(local, -1);
+        List<Window> windows = new ArrayList<>();
+        int from = 0;
+        for (int cut = offset; from < graph.numOps; cut += size) {
+            int to = Math.min(cut, graph.numOps);
+            //les opérations de même date de début sont dans la même fenêtre
+            while (to < graph.numOps && to > 0 && keys[to] >>> 32 == keys[to - 1] >>> 32) to++;
+            if (to > from) {
+                Window window = new Window(graph, (int) (keys[from] >>> 32),
+                        to < graph.numOps ? (int) (keys[to] >>> 32) : Integer.MAX_VALUE, local);
+                if (window.isUseful()) windows.add(window);
+            }
+            from = Math.max(from, to);
+        }
+        return windows;
+    }
+
+    /*
+     * Sous-problème d'une fenêtre : les opérations dont la tête est dans [from, until). Sur chaque machine,
+     * elles forment un segment de la séquence ; les opérations avant la fenêtre ne dépendent pas de l'ordre
+     * dans la fenêtre et celles d'après ont des queues qui n'en dépendent pas. Chaque opération de la fenêtre
+     * a donc une date de disponibilité (fin de son prédécesseur de job hors de la fenêtre, fin de l'opération
+     * avant le segment) et des queues (vers son successeur de job hors de la fenêtre, vers l'opération après
+     * le segment) fixes : la longueur du plus long chemin qui passe par la fenêtre se calcule sans le reste du
+     * graphe. C'est cette longueur que l'on minimise.
+     *
+     * Même énumération que BruteForceSolver avec les numéros de job (on choisit le job de la prochaine tâche
+     * ordonnancée), restreinte aux ensembles de conflit de Giffler et Thompson (seuls les ordonnancements
+     * actifs, chacun une seule fois) et élaguée par une borne inférieure : pour chaque opération prête,
+     * date de début au plus tôt + durée + queue de son job ; pour chaque machine, date de disponibilité +
+     * durées restantes + queue. La recherche est exacte si elle se termine avant nodeLimit noeuds.
+     */
+    static class Window {
+        //opérations de la fenêtre (indices dans DisjunctiveGraph), par date de début
+        final int[] ops;
+        final int n;
+        final int[] duration;
+        final int[] machine;
+        //prédécesseur et successeur dans le job, en indices locaux (-1 : hors de la fenêtre)
+        final int[] jobPrev;
+        final int[] jobNext;
+        //fin du prédécesseur de job hors de la fenêtre (0 s'il n'y en a pas)
+        final int[] release;
+        //plus long chemin après l'opération vers la sortie de la fenêtre par son job (sans sa durée)
+        final int[] jobTail;
+        //queue vers le successeur de job hors de la fenêtre (0 s'il n'y en a pas)
+        final int[] exitTail;
+        //borne inférieure de la date de début par le job
+        final int[] staticHead;
+
+        //segment de chaque machine : début dans la séquence, longueur (0 : pas d'opération dans la fenêtre)
+        final int[] segmentStart;
+        final int[] segmentLength;
+        //fin de l'opération avant le segment, queue de l'opération après
+        final int[] machineRelease;
+        final int[] machineTail;
+
+        //ordre actuel et meilleur ordre trouvé de chaque segment (indices locaux)
+        final int[][] order;
+        final int[][] bestOrder;
+        //longueur du plus long chemin par la fenêtre avec l'ordre actuel, avec le meilleur ordre
+        final int initial;
+        int best;
+        boolean exact;
+
+        //état de l'énumération
+        private int[] head;
+        private boolean[] done;
+        private int[] machineFree;
+        private int[] remaining;
+        private int[] remainingWork;
+        private int[] filled;
+        private int[][] current;
+        //ensemble de conflit de chaque profondeur
+        private int[][] conflicts;
+        private long nodes;
+        private long limit;
+        private long deadline;
+
+        Window(DisjunctiveGraph graph, int from, int until, int[] local) {
+            int numMachines = graph.numMachines;
+            segmentStart = new int[numMachines];
+            segmentLength = new int[numMachines];
+            machineRelease = new int[numMachines];
+            machineTail = new int[numMachines];
+            int count = 0;
+            for (int m = 0; m < numMachines; m++) {
+                int[] seq = graph.sequence[m];
+                int i = 0;
+                while (i < graph.length[m] && graph.heads[seq[i]] < from) i++;
+                int j = i;
+                while (j < graph.length[m] && graph.heads[seq[j]] < until) j++;
+                segmentStart[m] = i;
+                segmentLength[m] = j - i;
+                count += j - i;
+                machineRelease[m] = i > 0 ? graph.heads[seq[i - 1]] + graph.duration[seq[i - 1]] : 0;
+                machineTail[m] = j < graph.length[m] ? graph.duration[seq[j]] + graph.tails[seq[j]] : 0;
+            }
+            n = count;
+            ops = new int[n];
+            order = new int[numMachines][];
+            bestOrder = new int[numMachines][];
+            int k = 0;
+            for (int m = 0; m < numMachines; m++)
+                for (int i = 0; i < segmentLength[m]; i++) ops[k++] = graph.sequence[m][segmentStart[m] + i];
+            //indices locaux dans l'ordre des dates de début : le prédécesseur de job passe avant
+            long[] keys = new long[n];
+            for (int i = 0; i < n; i++) keys[i] = ((long) graph.heads[ops[i]] << 32) | ops[i];
+            Arrays.sort(keys);
+            for (int i = 0; i < n; i++) {
+                ops[i] = (int) keys[i];
+                local[ops[i]] = i;
+            }
+
+            duration = new int[n];
+            machine = new int[n];
+            jobPrev = new int[n];
+            jobNext = new int[n];
+            release = new int[n];
+            exitTail = new int[n];
+            jobTail = new int[n];
+            staticHead = new int[n];
+            int numTasks = graph.numTasks;
+            for (int i = 0; i < n; i++) {
+                int op = ops[i];
+                duration[i] = graph.duration[op];
+                machine[i] = graph.machine[op];
+                boolean hasPrev = op % numTasks > 0;
+                boolean hasNext = op % numTasks < numTasks - 1;
+                jobPrev[i] = hasPrev ? local[op - 1] : -1;
+                jobNext[i] = hasNext ? local[op + 1] : -1;
+                release[i] = hasPrev && jobPrev[i] < 0 ? graph.heads[op - 1] + graph.duration[op - 1] : 0;
+                exitTail[i] = hasNext && jobNext[i] < 0 ? graph.duration[op + 1] + graph.tails[op + 1] : 0;
+            }
+            for (int i = 0; i < n; i++)
+                staticHead[i] = jobPrev[i] < 0 ? release[i] : staticHead[jobPrev[i]] + duration[jobPrev[i]];
+            for (int i = n - 1; i >= 0; i--)
+                jobTail[i] = jobNext[i] < 0 ? exitTail[i] : duration[jobNext[i]] + jobTail[jobNext[i]];
+
+            for (int m = 0; m < numMachines; m++) {
+                order[m] = new int[segmentLength[m]];
+                for (int i = 0; i < segmentLength[m]; i++) order[m][i] = local[graph.sequence[m][segmentStart[m] + i]];
+                bestOrder[m] = order[m].clone();
+            }
+            for (int op : ops) local[op] = -1;
+            initial = length(order);
+            best = initial;
+        }
+
+        //une fenêtre où aucune machine n'a deux opérations n'a qu'un ordre possible
+        boolean isUseful() {
+            for (int length : segmentLength)
+                if (length > 1) return true;
+            return false;
+        }
+
+        boolean improved() {
+            return best < initial;
+        }
+
+        int gain() {
+            return initial - best;
+        }
+
+        //plus long chemin par la fenêtre pour les ordres donnés des segments
+        int length(int[][] orders) {
+            int[] heads = new int[n];
+            int[] machineEnd = machineRelease.clone();
+            int[] next = new int[machineEnd.length];
+            int result = 0;
+            //chaque opération est placée dès que ses prédécesseurs (job et machine) le sont
+            boolean[] placed = new boolean[n];
+            int left = n;
+            while (left > 0) {
+                boolean progress = false;
+                for (int m = 0; m < machineEnd.length; m++) {
+                    while (next[m] < orders[m].length) {
+                        int o = orders[m][next[m]];
+                        if (jobPrev[o] >= 0 && !placed[jobPrev[o]]) break;
+                        heads[o] = Math.max(machineEnd[m], jobPrev[o] >= 0 ? heads[jobPrev[o]] + duration[jobPrev[o]] : release[o]);
+                        machineEnd[m] = heads[o] + duration[o];
+                        result = Math.max(result, machineEnd[m] + exitTail[o]);
+                        placed[o] = true;
+                        next[m]++;
+                        left--;
+                        progress = true;
+                        if (next[m] == orders[m].length) result = Math.max(result, machineEnd[m] + machineTail[m]);
+                    }
+                }
+                if (!progress) return Integer.MAX_VALUE;
+            }
+            return result;
+        }
+
+        /*
+         * Séparation et évaluation sur l'ordre des opérations de la fenêtre, avec au plus nodeLimit noeuds
+         */
+        Window solve(long nodeLimit, long deadline) {
+            int numMachines = segmentLength.length;
+            head = new int[n];
+            done = new boolean[n];
+            machineFree = machineRelease.clone();
+            remaining = segmentLength.clone();
+            remainingWork = new int[numMachines];
+            for (int i = 0; i < n; i++) remainingWork[machine[i]] += duration[i];
+            filled = new int[numMachines];
+            current = new int[numMachines][];
+            int longest = 0;
+            for (int m = 0; m < numMachines; m++) {
+                current[m] = new int[segmentLength[m]];
+                longest = Math.max(longest, segmentLength[m]);
+            }
+            conflicts = new int[n][longest];
+            nodes = 0;
+            limit = nodeLimit;
+            this.deadline = deadline;
+            branch(0, 0);
+            exact = nodes < limit && System.currentTimeMillis() < deadline;
+            head = null;
+            done = null;
+            current = null;
+            conflicts = null;
+            return this;
+        }
+
+        private void branch(int depth, int partial) {
+            if (partial >= best) return;
+            if (depth == n) {
+                best = partial;
+                for (int m = 0; m < current.length; m++) System.arraycopy(current[m], 0, bestOrder[m], 0, current[m].length);
+                return;
+            }
+            if (++nodes >= limit || ((nodes & 1023) == 0 && System.currentTimeMillis() >= deadline)) {
+                limit = nodes;
+                return;
+            }
+
+            //opérations prêtes (prédécesseur de job placé) : date de début au plus tôt, borne inférieure
+            int bound = partial;
+            int star = -1;
+            int starEnd = Integer.MAX_VALUE;
+            for (int o = 0; o < n; o++) {
+                if (done[o] || (jobPrev[o] >= 0 && !done[jobPrev[o]])) continue;
+                int est = Math.max(machineFree[machine[o]], jobPrev[o] >= 0 ? head[jobPrev[o]] + duration[jobPrev[o]] : release[o]);
+                head[o] = est;
+                bound = Math.max(bound, est + duration[o] + jobTail[o]);
+                if (est + duration[o] < starEnd) {
+                    starEnd = est + duration[o];
+                    star = o;
+                }
+            }
+            for (int m = 0; m < remaining.length; m++) {
+                if (remaining[m] == 0) continue;
+                int start = Integer.MAX_VALUE;
+                int tail = Integer.MAX_VALUE;
+                for (int o = 0; o < n; o++) {
+                    if (done[o] || machine[o] != m) continue;
+                    boolean ready = jobPrev[o] < 0 || done[jobPrev[o]];
+                    start = Math.min(start, ready ? head[o] : staticHead[o]);
+                    tail = Math.min(tail, jobTail[o]);
+                }
+                bound = Math.max(bound, Math.max(start, machineFree[m]) + remainingWork[m] + Math.max(tail, machineTail[m]));
+            }
+            if (bound >= best) return;
+
+            //ensemble de conflit : les opérations prêtes de la machine de star qui peuvent commencer avant sa fin,
+            //par queue décroissante
+            int m = machine[star];
+            int[] conflict = conflicts[depth];
+            int count = 0;
+            for (int o = 0; o < n; o++) {
+                if (done[o] || machine[o] != m || (jobPrev[o] >= 0 && !done[jobPrev[o]]) || head[o] >= starEnd) continue;
+                int i = count++;
+                while (i > 0 && jobTail[conflict[i - 1]] < jobTail[o]) {
+                    conflict[i] = conflict[i - 1];
+                    i--;
+                }
+                conflict[i] = o;
+            }
+            int savedFree = machineFree[m];
+            for (int c = 0; c < count; c++) {
+                int o = conflict[c];
+                int start = Math.max(savedFree, jobPrev[o] >= 0 ? head[jobPrev[o]] + duration[jobPrev[o]] : release[o]);
+                head[o] = start;
+                done[o] = true;
+                machineFree[m] = start + duration[o];
+                remaining[m]--;
+                remainingWork[m] -= duration[o];
+                current[m][filled[m]++] = o;
+                int end = start + duration[o];
+                int next = Math.max(partial, end + exitTail[o]);
+                if (remaining[m] == 0) next = Math.max(next, end + machineTail[m]);
+                branch(depth + 1, next);
+                filled[m]--;
+                remainingWork[m] += duration[o];
+                remaining[m]++;
+                machineFree[m] = savedFree;
+                done[o] = false;
+                if (nodes >= limit) return;
+            }
+        }
+
+        /*
+         * Remplace l'ordre des segments dans le graphe par le meilleur ordre trouvé (ou remet l'ordre initial)
+         */
+        void apply(DisjunctiveGraph graph, boolean bestOrder) {
+            int[][] orders = bestOrder ? this.bestOrder : order;
+            for (int m = 0; m < orders.length; m++) {
+                for (int i = 0; i < orders[m].length; i++) {
+                    int op = ops[orders[m][i]];
+                    graph.sequence[m][segmentStart[m] + i] = op;
+                    graph.position[op] = segmentStart[m] + i;
+                }
+            }
+        }
+    }
+}
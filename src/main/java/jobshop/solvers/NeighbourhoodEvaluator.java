@@ -0,0 +1,103 @@
+package jobshop.solvers;
+
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/*
+ * Évaluation des swaps d'une itération de DescentSolver ou TabouSolver, éventuellement en parallèle.
+ * Ces solveurs parcourent les swaps dans l'ordre et remplacent l'ordre courant dès qu'un swap est retenu :
+ * les swaps suivants s'appliquent alors au nouvel ordre. En parallèle, on évalue donc de façon spéculative
+ * tous les swaps restants sur l'ordre courant ; le solveur parcourt les résultats dans l'ordre et, dès qu'il
+ * retient un swap, invalide les résultats suivants qui sont recalculés sur le nouvel ordre.
+ * La trajectoire est ainsi exactement celle de la version séquentielle.
+ * Un swap retenu quelle que soit sa valeur (le premier swap autorisé de TabouSolver) est évalué seul
+ * (makespanAlone()) : spéculer sur les suivants avec l'ordre d'avant serait toujours perdu.
+ */
+class NeighbourhoodEvaluator implements AutoCloseable {
+    //valeur des swaps qui ne sont pas (encore) évalués
+    static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private final EvaluationCache cache;
+    //null en séquentiel
+    private final ForkJoinPool pool;
+    //copie de travail de l'ordre courant, une par thread
+    private final ThreadLocal<ResourceOrder> scratch = new ThreadLocal<>();
+
+    private List<Utils.Swap> swaps;
+    private int[] makespans;
+
+    NeighbourhoodEvaluator(EvaluationCache cache, int threads) {
+        this.cache = cache;
+        this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    //nouvelle itération : tous les swaps sont à évaluer
+    void reset(List<Utils.Swap> swaps) {
+        this.swaps = swaps;
+        this.makespans = new int[swaps.size()];
+        Arrays.fill(makespans, UNKNOWN);
+    }
+
+    //l'ordre courant a changé : les résultats à partir de from ne sont plus valables
+    void invalidate(int from) {
+        Arrays.fill(makespans, from, makespans.length, UNKNOWN);
+    }
+
+    /*
+     * Retourne le makespan du swap i appliqué à order (-1 si l'ordre obtenu n'est pas réalisable).
+     * En parallèle, si le swap n'est pas encore évalué, tous les swaps à partir de i pour lesquels
+     * evaluated est vrai sont évalués en même temps.
+     */
+    int makespan(ResourceOrder order, int i, boolean[] evaluated) {
+        if (makespans[i] != UNKNOWN) return makespans[i];
+        if (pool == null) {
+            Utils.Swap swap = swaps.get(i);
+            swap.applyOn(order);
+            makespans[i] = cache.makespan(order);
+            swap.applyOn(order);
+            return makespans[i];
+        }
+        try {
+            pool.submit(() -> IntStream.range(i, swaps.size()).parallel()
+                    .filter(k -> k == i || evaluated == null || evaluated[k])
+                    .forEach(k -> makespans[k] = evaluate(order, swaps.get(k)))).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+        return makespans[i];
+    }
+
+    /*
+     * Retourne le makespan du swap i appliqué à order (-1 si l'ordre obtenu n'est pas réalisable),
+     * sans évaluer les swaps suivants
+     */
+    int makespanAlone(ResourceOrder order, int i) {
+        if (makespans[i] == UNKNOWN) makespans[i] = evaluate(order, swaps.get(i));
+        return makespans[i];
+    }
+
+    //évalue le swap sur la copie de travail du thread, order n'est pas modifié
+    private int evaluate(ResourceOrder order, Utils.Swap swap) {
+        ResourceOrder copy = scratch.get();
+        if (copy == null || copy.instance != order.instance) {
+            copy = new ResourceOrder(order.instance);
+            scratch.set(copy);
+        }
+        for (int m = 0; m < order.instance.numMachines; m++) {
+            System.arraycopy(order.tasksByMachine[m], 0, copy.tasksByMachine[m], 0, order.nextFreeSlot[m]);
+            copy.nextFreeSlot[m] = order.nextFreeSlot[m];
+        }
+        swap.applyOn(copy);
+        return cache.makespan(copy);
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) pool.shutdown();
+    }
+}
@@ -0,0 +1,139 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.Random;
+
+/*
+ * Recherche tabou avec ensemble d'élites et path relinking (comme i-TSAB de Nowicki et Smutnicki) :
+ * une première recherche tabou remplit un ElitePool avec ses optima locaux, puis jusqu'à la deadline on
+ * tire deux élites, on construit un chemin de l'une vers l'autre par des swaps de jobs adjacents sur les
+ * machines (relink()) et on relance la recherche tabou depuis la meilleure solution du milieu du chemin.
+ * Ses optima locaux entrent à leur tour dans l'ensemble, la recherche s'intensifie entre les bonnes régions.
+ */
+public class PathRelinkingSolver implements Solver {
+    //nombre de chemins consécutifs sans solution intermédiaire au-delà duquel on s'arrête
+    private static final int MAX_FAILURES = 100;
+
+    //le nombre maximum d'itérations de chaque recherche tabou
+    private int maxIter;
+    //la durée des interdictions
+    private int dureeTabou;
+    //nombre maximum d'élites
+    private int poolSize;
+    //le solveur qui fournit la solution initiale
+    private Solver seed;
+    //le cache des makespans, partagé par toutes les recherches tabou
+    private EvaluationCache cache;
+
+    public PathRelinkingSolver(int maxIter, int dureeTabou, int poolSize) {
+        this(maxIter, dureeTabou, poolSize, new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT));
+    }
+
+    public PathRelinkingSolver(int maxIter, int dureeTabou, int poolSize, Solver seed) {
+        this(maxIter, dureeTabou, poolSize, seed, new EvaluationCache(1 << 16));
+    }
+
+    public PathRelinkingSolver(int maxIter, int dureeTabou, int poolSize, Solver seed, EvaluationCache cache) {
+        this.maxIter = maxIter;
+        this.dureeTabou = dureeTabou;
+        this.poolSize = poolSize;
+        this.seed = seed;
+        this.cache = cache;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        Random generator = new Random(0);
+        //deux élites doivent différer sur au moins 10% des opérations
+        ElitePool elites = new ElitePool(instance, poolSize, Math.max(1, instance.numJobs * instance.numMachines / 10));
+        Result best = new TabouSolver(maxIter, dureeTabou, seed, cache, 1, null, elites).solve(instance, deadline);
+        elites.offer(best.schedule);
+
+        int failures = 0;
+        while (deadline - System.currentTimeMillis() > 1 && !LowerBound.isOptimal(instance, best.schedule.makespan())
+                && elites.size() >= 2 && failures < MAX_FAILURES) {
+            int a = generator.nextInt(elites.size());
+            int b = generator.nextInt(elites.size() - 1);
+            if (b >= a) b++;
+            Schedule start = relink(elites.get(a), elites.get(b));
+            if (start == null) {
+                failures++;
+                continue;
+            }
+            failures = 0;
+            Result result = new TabouSolver(maxIter, dureeTabou,
+                    (i, d) -> new Result(instance, start, Result.ExitCause.Blocked), cache, 1, null, elites)
+                    .solve(instance, deadline);
+            elites.offer(result.schedule);
+            if (result.schedule.makespan() < best.schedule.makespan()) best = result;
+        }
+        if (LowerBound.isOptimal(instance, best.schedule.makespan()))
+            return new Result(instance, best.schedule, Result.ExitCause.ProvedOptimal);
+        if (deadline - System.currentTimeMillis() <= 1)
+            return new Result(instance, best.schedule, Result.ExitCause.Timeout);
+        return new Result(instance, best.schedule, Result.ExitCause.Blocked);
+    }
+
+    /*
+     * Chemin de from vers to : à chaque pas, on échange deux jobs adjacents d'une machine qui sont dans
+     * l'ordre inverse de celui de to (le chemin a donc ElitePool.distance() pas). Parmi ces swaps, on prend
+     * celui dont l'estimation en temps constant (DisjunctiveGraph.estimateSwap()) est la plus petite et qui
+     * ne crée pas de cycle. Retourne la meilleure solution de la moitié centrale du chemin (les solutions
+     * proches de from ou de to retomberaient dans leur optimum local), ou null si le chemin est trop court
+     * ou bloqué par des cycles avant d'y arriver.
+     */
+    static Schedule relink(ResourceOrder from, ResourceOrder to) {
+        DisjunctiveGraph graph = new DisjunctiveGraph(from);
+        //position de chaque opération sur sa machine dans to
+        int[] target = new DisjunctiveGraph(to).position.clone();
+        int length = ElitePool.distance(from.jobsByMachine(), to.jobsByMachine(), from.instance.numJobs);
+        int first = length / 4;
+        int last = length - length / 4;
+
+        //swaps candidats d'un pas : machine, indice dans la séquence, estimation
+        int[] machines = new int[graph.numOps];
+        int[] indices = new int[graph.numOps];
+        int[] estimates = new int[graph.numOps];
+        Schedule best = null;
+        for (int step = 1; step < last; step++) {
+            int n = 0;
+            for (int m = 0; m < graph.numMachines; m++) {
+                int[] sequence = graph.sequence[m];
+                for (int i = 0; i + 1 < graph.length[m]; i++) {
+                    if (target[sequence[i]] < target[sequence[i + 1]]) continue;
+                    machines[n] = m;
+                    indices[n] = i;
+                    estimates[n] = graph.estimateSwap(m, i);
+                    n++;
+                }
+            }
+            //les candidats par estimation croissante, jusqu'au premier sans cycle
+            boolean moved = false;
+            while (n > 0 && !moved) {
+                int c = 0;
+                for (int i = 1; i < n; i++)
+                    if (estimates[i] < estimates[c]) c = i;
+                graph.swap(machines[c], indices[c], indices[c] + 1);
+                moved = graph.update();
+                if (!moved) {
+                    //update() n'a pas touché aux têtes et aux queues, le graphe redevient celui d'avant
+                    graph.swap(machines[c], indices[c], indices[c] + 1);
+                    n--;
+                    machines[c] = machines[n];
+                    indices[c] = indices[n];
+                    estimates[c] = estimates[n];
+                }
+            }
+            if (!moved) return best;
+            if (step >= first && (best == null || graph.makespan() < best.makespan()))
+                best = graph.toSchedule();
+        }
+        return best;
+    }
+}
@@ -0,0 +1,98 @@
+package jobshop.solvers;
+
+import jobshop.Events;
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/*
+ * Portefeuille de solveurs : tous les solveurs sont lancés en même temps, chacun sur son thread,
+ * avec la même deadline, et on retourne le meilleur résultat.
+ * Les solveurs indépendants partent de zéro. Les solveurs "seeded" (recherches locales) attendent
+ * qu'un solveur indépendant se termine (en général un solveur rapide comme Glouton) et partent de
+ * la meilleure solution trouvée à ce moment.
+ * Dès qu'un solveur prouve l'optimalité, les autres threads sont interrompus : les solveurs des recherches
+ * longues (descente, tabou, recuit, goulot mobile) s'arrêtent alors comme à leur deadline au lieu d'occuper
+ * les processeurs jusqu'à la deadline d'origine (en mode serveur, la requête suivante en a besoin).
+ */
+public class PortfolioSolver implements Solver {
+    //les solveurs lancés directement
+    private List<Solver> solvers;
+    //les solveurs construits à partir d'une solution initiale (le seed)
+    private List<Function<Solver, Solver>> seeded;
+
+    public PortfolioSolver(List<Solver> solvers, List<Function<Solver, Solver>> seeded) {
+        if (solvers.isEmpty() && seeded.isEmpty())
+            throw new IllegalArgumentException("A portfolio needs at least one solver");
+        this.solvers = new ArrayList<>(solvers);
+        this.seeded = new ArrayList<>(seeded);
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        //la meilleure solution trouvée par l'ensemble des solveurs
+        AtomicReference<Result> incumbent = new AtomicReference<>();
+        //ouvert dès qu'un solveur indépendant a terminé
+        CountDownLatch firstDone = new CountDownLatch(solvers.isEmpty() ? 0 : 1);
+        //un thread par solveur, les threads restants ne bloquent pas la fin du programme
+        ExecutorService pool = Executors.newFixedThreadPool(solvers.size() + seeded.size(), r -> {
+            Thread thread = new Thread(r);
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletionService<Result> completion = new ExecutorCompletionService<>(pool);
+
+        //la solution initiale des solveurs "seeded" : la meilleure solution connue quand un solveur
+        //indépendant a terminé, ou l'algo Glouton s'il n'y en a pas encore
+        Solver seed = (inst, dl) -> {
+            try {
+                firstDone.await(Math.max(0, dl - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Result best = incumbent.get();
+            return best != null ? best : new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(inst, dl);
+        };
+
+        for (Solver solver : solvers) {
+            completion.submit(() -> {
+                try {
+                    return offer(incumbent, Events.solve(solver, instance, deadline));
+                } finally {
+                    firstDone.countDown();
+                }
+            });
+        }
+        for (Function<Solver, Solver> factory : seeded)
+            completion.submit(() -> offer(incumbent, Events.solve(factory.apply(seed), instance, deadline)));
+
+        try {
+            for (int i = 0; i < solvers.size() + seeded.size(); i++) {
+                Result result = completion.take().get();
+                //solution optimale : inutile d'attendre les autres solveurs
+                if (result.cause == Result.ExitCause.ProvedOptimal) return result;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            //interrompt les solveurs qui tournent encore
+            pool.shutdownNow();
+        }
+        return incumbent.get();
+    }
+
+    //garde le résultat s'il améliore la meilleure solution connue, retourne le résultat
+    private static Result offer(AtomicReference<Result> incumbent, Result result) {
+        incumbent.accumulateAndGet(result, (a, b) ->
+                a == null || b.schedule.makespan() < a.schedule.makespan() ? b : a);
+        return result;
+    }
+}
@@ -20,11 +20,31 @@ public class RandomSolver implements Solver {
             }
         }
         Schedule best = sol.toSchedule();
+        int bestMakespan = best.makespan();
+        //les permutations sont évaluées par paquets, la meilleure est décodée en Schedule
+        BatchEvaluator evaluator = new BatchEvaluator(instance, BatchEvaluator.lanesFor(instance, 64));
         while(deadline - System.currentTimeMillis() > 1) {
-            shuffleArray(sol.jobs, generator);
-            Schedule s = sol.toSchedule();
-            if(s.makespan() < best.makespan()) {
-                best = s;
+            if(LowerBound.isOptimal(instance, bestMakespan)) {
+                return new Result(instance, best, Result.ExitCause.ProvedOptimal);
+            }
+            for (int lane = 0; lane < evaluator.lanes(); lane++) {
+                shuffleArray(sol.jobs, generator);
+                evaluator.set(lane, sol.jobs);
+            }
+            int[] makespans = evaluator.evaluate(evaluator.lanes());
+            int bestLane = -1;
+            for (int lane = 0; lane < evaluator.lanes(); lane++) {
+                if (makespans[lane] < bestMakespan) {
+                    bestMakespan = makespans[lane];
+                    bestLane = lane;
+                }
+            }
+            if (bestLane != -1) {
+                JobNumbers improved = new JobNumbers(instance);
+                evaluator.get(bestLane, improved.jobs);
+                improved.nextToSet = improved.jobs.length;
+                best = improved.toSchedule();
+                Progress.improved(instance, bestMakespan);
             }
         }
 
@@ -0,0 +1,428 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Schedule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Replanification en ligne : on part d'un planning (par exemple celui d'un solveur) et on le modifie au fil
+ * des événements de l'atelier, sans tout recalculer depuis la date 0.
+ *  - advance(t) : les opérations commencées avant t sont figées (date de début et place sur la machine),
+ *    les autres ne peuvent plus commencer avant t.
+ *  - addJobs(t, ...) : de nouveaux jobs arrivent à la date t ; chaque tâche est insérée dans le premier trou
+ *    de sa machine où elle tient, à défaut à la fin de la machine, sans décaler les autres opérations.
+ *  - machineDown(t, m, from, until) : la machine m n'est pas disponible entre from et until ; l'opération
+ *    en cours pendant la panne est interrompue et recommencée, les opérations qui chevauchent la panne
+ *    sont repoussées après.
+ * Après chaque événement, une recherche locale bornée (maxMoves swaps essayés, repairMillis ms) fait remonter
+ * les opérations touchées sur leur machine tant que cela améliore le makespan (puis la somme des dates de fin
+ * des jobs).
+ *
+ * Les dates de début sont mises à jour par propagation à partir des opérations modifiées seulement (les
+ * successeurs dont la date ne change pas arrêtent la propagation), et le makespan et la somme des dates de fin
+ * à partir des opérations dont la date a changé : le coût d'un événement dépend du nombre d'opérations
+ * touchées, pas de la taille de l'instance. Quand des jobs arrivent, les tableaux grandissent par doublement
+ * (coût amorti constant par opération ajoutée).
+ * Les durées sont supposées positives ou nulles. Un Rescheduler n'est pas partagé entre threads.
+ */
+public class Rescheduler {
+    private Instance instance;
+    private final int numTasks;
+    private final int numMachines;
+    //nombre maximum de swaps essayés et durée maximum (ms) de la réparation après un événement
+    private final int maxMoves;
+    private final long repairMillis;
+
+    //date de début de chaque opération (op = job * numTasks + task) ; les tableaux indexés par opération
+    //peuvent être plus grands que le nombre d'opérations de l'instance (voir addJobs())
+    private int[] starts;
+    //sequence[m][0..length[m]) : les opérations de la machine m, dans l'ordre des dates de début
+    private final int[][] sequence;
+    private final int[] length;
+    //place de chaque opération dans la séquence de sa machine
+    private int[] position;
+    //nombre d'opérations figées au début de chaque séquence
+    private final int[] frozen;
+    //indisponibilités de chaque machine : intervalles [from, until) disjoints triés
+    private final List<List<int[]>> downtimes = new ArrayList<>();
+    //date courante : les opérations non figées commencent à partir de cette date
+    private int now = 0;
+
+    //file de priorité de la propagation, par date de début (tas binaire, une opération y est au plus une fois)
+    private int[] queue;
+    private boolean[] queued;
+    private int size;
+    //opérations dont la date de début a changé lors de la dernière propagation, et leur date d'avant
+    private int[] changed;
+    private int[] changedFrom;
+    private int changedCount;
+    private boolean[] isChanged;
+
+    //makespan et somme des dates de fin des jobs calculés par evaluate() et tenus à jour par update()
+    private int makespan;
+    private long totalEnd;
+    //nombre de jobs qui finissent au makespan
+    private int atMakespan;
+
+    public Rescheduler(Schedule schedule, int maxMoves, long repairMillis) {
+        this.instance = schedule.pb;
+        this.numTasks = instance.numTasks;
+        this.numMachines = instance.numMachines;
+        this.maxMoves = maxMoves;
+        this.repairMillis = repairMillis;
+        int numOps = instance.numJobs * numTasks;
+        starts = new int[numOps];
+        position = new int[numOps];
+        sequence = new int[numMachines][instance.numJobs];
+        length = new int[numMachines];
+        frozen = new int[numMachines];
+        for (int m = 0; m < numMachines; m++) downtimes.add(new ArrayList<>());
+        for (int op : schedule.operationsByStartTime()) {
+            int m = instance.machine(op);
+            starts[op] = schedule.startTime(op);
+            position[op] = length[m];
+            sequence[m][length[m]++] = op;
+        }
+        queue = new int[numOps];
+        queued = new boolean[numOps];
+        changed = new int[numOps];
+        changedFrom = new int[numOps];
+        isChanged = new boolean[numOps];
+    }
+
+    //capacité d'un tableau qui doit contenir au moins needed éléments : au moins le double de l'actuelle
+    private static int grow(int capacity, int needed) {
+        return needed <= capacity ? capacity : Math.max(needed, 2 * capacity);
+    }
+
+    //l'instance courante (avec les jobs ajoutés)
+    public Instance instance() {
+        return instance;
+    }
+
+    public int now() {
+        return now;
+    }
+
+    //le planning courant, valide pour instance()
+    public Schedule schedule() {
+        return Schedule.wrap(instance, Arrays.copyOf(starts, instance.numJobs * numTasks));
+    }
+
+    //vrai si l'opération a commencé avant la date courante et ne peut plus bouger
+    public boolean isFrozen(int op) {
+        return position[op] < frozen[instance.machine(op)];
+    }
+
+    //vrai si la machine est disponible sur tout l'intervalle [start, end)
+    public boolean isAvailable(int machine, int start, int end) {
+        for (int[] down : downtimes.get(machine))
+            if (start < down[1] && end > down[0] && end > start) return false;
+        return true;
+    }
+
+    /*
+     * Fige les opérations commencées avant la date time
+     */
+    public Schedule advance(int time) {
+        freeze(time);
+        return schedule();
+    }
+
+    /*
+     * Ajoute des jobs arrivés à la date time : machines[j][t] et durations[j][t] sont la machine et la
+     * durée de la tâche t du j-ième nouveau job (voir Instance.withJobs())
+     */
+    public Schedule addJobs(int time, int[][] machines, int[][] durations) {
+        freeze(time);
+        int first = instance.numJobs * numTasks;
+        instance = instance.withJobs(machines, durations);
+        int numOps = instance.numJobs * numTasks;
+        //les copies conservent l'état des tampons de la propagation (file vide, opérations changées)
+        int capacity = grow(starts.length, numOps);
+        if (capacity > starts.length) {
+            starts = Arrays.copyOf(starts, capacity);
+            position = Arrays.copyOf(position, capacity);
+            queue = Arrays.copyOf(queue, capacity);
+            queued = Arrays.copyOf(queued, capacity);
+            changed = Arrays.copyOf(changed, capacity);
+            changedFrom = Arrays.copyOf(changedFrom, capacity);
+            isChanged = Arrays.copyOf(isChanged, capacity);
+        }
+        for (int m = 0; m < numMachines; m++)
+            if (sequence[m].length < instance.numJobs)
+                sequence[m] = Arrays.copyOf(sequence[m], grow(sequence[m].length, instance.numJobs));
+
+        int[] inserted = new int[numOps - first];
+        for (int op = first; op < numOps; op++) {
+            int ready = op % numTasks > 0 ? Math.max(now, end(op - 1)) : now;
+            insert(op, ready);
+            inserted[op - first] = op;
+        }
+        repair(inserted, inserted.length);
+        return schedule();
+    }
+
+    /*
+     * La machine n'est pas disponible entre from et until (une panne signalée à la date time commence à from = time)
+     */
+    public Schedule machineDown(int time, int machine, int from, int until) {
+        freeze(time);
+        from = Math.max(from, now);
+        if (until <= from) return schedule();
+        addDowntime(machine, from, until);
+
+        int[] seq = sequence[machine];
+        //l'opération en cours au début de la panne est interrompue : elle n'est plus figée et sera recommencée
+        if (frozen[machine] > 0 && end(seq[frozen[machine] - 1]) > from)
+            frozen[machine]--;
+        //les opérations qui commencent avant la fin de la panne (la propagation s'arrête à celles qui ne bougent pas)
+        int[] seeds = new int[length[machine] - frozen[machine]];
+        int count = 0;
+        for (int i = frozen[machine]; i < length[machine] && starts[seq[i]] < until; i++)
+            seeds[count++] = seq[i];
+        propagate(seeds, count);
+        int[] touched = Arrays.copyOf(changed, changedCount);
+        repair(touched, touched.length);
+        return schedule();
+    }
+
+    private void freeze(int time) {
+        if (time < now)
+            throw new IllegalArgumentException("Time " + time + " is before the current time " + now);
+        now = time;
+        for (int m = 0; m < numMachines; m++)
+            while (frozen[m] < length[m] && starts[sequence[m][frozen[m]]] < now) frozen[m]++;
+    }
+
+    private void addDowntime(int machine, int from, int until) {
+        List<int[]> list = downtimes.get(machine);
+        //fusion avec les intervalles qui se chevauchent ou se touchent
+        int i = 0;
+        while (i < list.size() && list.get(i)[1] < from) i++;
+        while (i < list.size() && list.get(i)[0] <= until) {
+            from = Math.min(from, list.get(i)[0]);
+            until = Math.max(until, list.get(i)[1]);
+            list.remove(i);
+        }
+        list.add(i, new int[]{from, until});
+    }
+
+    private int end(int op) {
+        return starts[op] + instance.duration(op);
+    }
+
+    //première date à partir de t où la machine est disponible pendant duration
+    private int available(int machine, int t, int duration) {
+        //intervalles disjoints triés : une fois repoussée après un intervalle, la date ne chevauche aucun des précédents
+        for (int[] down : downtimes.get(machine))
+            if (t < down[1] && t + duration > down[0]) t = down[1];
+        return t;
+    }
+
+    //date de début au plus tôt d'une opération non figée, d'après ses prédécesseurs
+    private int earliest(int op) {
+        int t = now;
+        if (op % numTasks > 0) t = Math.max(t, end(op - 1));
+        int m = instance.machine(op);
+        int pos = position[op];
+        if (pos > 0) t = Math.max(t, end(sequence[m][pos - 1]));
+        return available(m, t, instance.duration(op));
+    }
+
+    /*
+     * Insère une nouvelle opération, prête à la date ready, dans le premier trou de sa machine où elle tient
+     * (après les opérations figées), ou à la fin de la machine : aucune autre opération n'est décalée
+     */
+    private void insert(int op, int ready) {
+        int m = instance.machine(op);
+        int duration = instance.duration(op);
+        int[] seq = sequence[m];
+        //première opération non figée qui commence à partir de ready (les séquences sont triées par date de début)
+        int lo = frozen[m], hi = length[m];
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (starts[seq[mid]] < ready) lo = mid + 1;
+            else hi = mid;
+        }
+        int p = lo;
+        int start;
+        while (true) {
+            int prevEnd = p > 0 ? end(seq[p - 1]) : 0;
+            start = available(m, Math.max(ready, prevEnd), duration);
+            if (p == length[m] || start + duration <= starts[seq[p]]) break;
+            p++;
+        }
+        System.arraycopy(seq, p, seq, p + 1, length[m] - p);
+        seq[p] = op;
+        length[m]++;
+        for (int i = p; i < length[m]; i++) position[seq[i]] = i;
+        starts[op] = start;
+    }
+
+    /*
+     * Recalcule les dates de début à partir des opérations données et propage aux successeurs (job et
+     * machine) tant que les dates changent ; les opérations changées sont dans changed[0..changedCount)
+     */
+    private void propagate(int[] seeds, int count) {
+        for (int i = 0; i < changedCount; i++) isChanged[changed[i]] = false;
+        changedCount = 0;
+        int numOps = instance.numJobs * numTasks;
+        size = 0;
+        for (int i = 0; i < count; i++) enqueue(seeds[i]);
+        long visits = 0;
+        while (size > 0) {
+            int op = dequeue();
+            if (isFrozen(op)) continue;
+            //les swaps de repair() ne créent pas de cycle, ceci ne devrait jamais arriver
+            if (++visits > (long) numOps * numOps)
+                throw new IllegalStateException("Cycle in the machine sequences");
+            int start = earliest(op);
+            if (start == starts[op]) continue;
+            if (!isChanged[op]) {
+                isChanged[op] = true;
+                changedFrom[changedCount] = starts[op];
+                changed[changedCount++] = op;
+            }
+            starts[op] = start;
+            if (op % numTasks < numTasks - 1) enqueue(op + 1);
+            int m = instance.machine(op);
+            if (position[op] + 1 < length[m]) enqueue(sequence[m][position[op] + 1]);
+        }
+    }
+
+    /*
+     * Les opérations sont traitées par date de début croissante (date d'avant la propagation, qui ne change
+     * pas tant qu'elles sont dans la file) : les arcs vont dans le sens des dates, une opération est donc en
+     * général recalculée une seule fois, après tous ses prédécesseurs (avec une file FIFO, les opérations en
+     * aval d'un long décalage étaient recalculées des dizaines de fois)
+     */
+    private void enqueue(int op) {
+        if (queued[op]) return;
+        queued[op] = true;
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(op, queue[parent])) break;
+            queue[i] = queue[parent];
+            i = parent;
+        }
+        queue[i] = op;
+    }
+
+    private int dequeue() {
+        int first = queue[0];
+        queued[first] = false;
+        int last = queue[--size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && before(queue[child + 1], queue[child])) child++;
+            if (!before(queue[child], last)) break;
+            queue[i] = queue[child];
+            i = child;
+        }
+        queue[i] = last;
+        return first;
+    }
+
+    private boolean before(int a, int b) {
+        return starts[a] < starts[b] || (starts[a] == starts[b] && a < b);
+    }
+
+    private void evaluate() {
+        makespan = 0;
+        totalEnd = 0;
+        atMakespan = 0;
+        for (int j = 0; j < instance.numJobs; j++) {
+            int end = end(j * numTasks + numTasks - 1);
+            if (end > makespan) {
+                makespan = end;
+                atMakespan = 0;
+            }
+            if (end == makespan) atMakespan++;
+            totalEnd += end;
+        }
+    }
+
+    /*
+     * Met à jour makespan et totalEnd après une propagation, à partir des dernières tâches des jobs dans
+     * changed[0..changedCount) ; le makespan n'est recalculé en entier que si plus aucun job ne finit à sa valeur
+     * (les anciennes fins sont au plus le makespan d'avant, elles ne comptent donc que s'il n'a pas augmenté)
+     */
+    private void update() {
+        int previous = makespan;
+        for (int i = 0; i < changedCount; i++) {
+            int op = changed[i];
+            if (op % numTasks != numTasks - 1) continue;
+            int duration = instance.duration(op);
+            int from = changedFrom[i] + duration;
+            int to = starts[op] + duration;
+            totalEnd += to - from;
+            if (from == makespan && makespan == previous) atMakespan--;
+            if (to > makespan) {
+                makespan = to;
+                atMakespan = 0;
+            }
+            if (to == makespan) atMakespan++;
+        }
+        if (atMakespan == 0) {
+            long total = totalEnd;
+            evaluate();
+            assert totalEnd == total;
+        }
+    }
+
+    /*
+     * Recherche locale bornée : chaque opération touchée essaie de passer avant l'opération qui la précède
+     * sur sa machine, et continue de remonter tant que le makespan (puis la somme des dates de fin)
+     * diminue. Le swap de p et x (p juste avant x) crée un cycle seulement s'il existe un chemin de p à x
+     * par le successeur de p dans son job, ce qui est impossible si ce successeur finit après le début de x.
+     */
+    private void repair(int[] ops, int count) {
+        evaluate();
+        int bestMakespan = makespan;
+        long bestTotal = totalEnd;
+        int moves = 0;
+        long deadline = System.currentTimeMillis() + repairMillis;
+        int[] pair = new int[2];
+        for (int i = 0; i < count && moves < maxMoves && System.currentTimeMillis() < deadline; i++) {
+            int x = ops[i];
+            int m = instance.machine(x);
+            while (moves < maxMoves && System.currentTimeMillis() < deadline) {
+                int pos = position[x];
+                if (pos == 0 || pos - 1 < frozen[m]) break;
+                int p = sequence[m][pos - 1];
+                if (p % numTasks < numTasks - 1 && end(p + 1) <= starts[x]) break;
+                moves++;
+                swap(m, pos - 1, pos);
+                pair[0] = x;
+                pair[1] = p;
+                propagate(pair, 2);
+                update();
+                if (makespan < bestMakespan || (makespan == bestMakespan && totalEnd < bestTotal)) {
+                    bestMakespan = makespan;
+                    bestTotal = totalEnd;
+                } else {
+                    swap(m, pos - 1, pos);
+                    propagate(pair, 2);
+                    update();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void swap(int m, int i, int j) {
+        int a = sequence[m][i];
+        int b = sequence[m][j];
+        sequence[m][i] = b;
+        sequence[m][j] = a;
+        position[b] = i;
+        position[a] = j;
+    }
+}
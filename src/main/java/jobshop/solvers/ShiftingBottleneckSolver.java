@@ -0,0 +1,224 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Progress;
+import jobshop.Result;
+import jobshop.Solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/*
+ * Heuristique du goulot mobile (shifting bottleneck, Adams, Balas et Zawack).
+ * Les machines sont séquencées une à une dans le graphe disjonctif : à chaque étape on résout
+ * le problème à une machine (avec dates de disponibilité et durées de latence) de chaque machine
+ * restante, on séquence celle dont la valeur est la plus grande (le goulot), puis on réoptimise
+ * les machines déjà séquencées. La solution obtenue sert de point de départ aux recherches locales.
+ * Une fois la deadline atteinte (ou le thread interrompu), les machines restantes sont séquencées dans l'ordre de leurs numéros,
+ * chacune par une seule passe de l'heuristique de Schrage, sans réoptimisation.
+ */
+public class ShiftingBottleneckSolver implements Solver {
+    //nombre maximum de noeuds explorés pour chaque problème à une machine
+    private int maxNodes;
+    //nombre de passes de réoptimisation après chaque nouvelle machine
+    private int reoptimisations;
+
+    public ShiftingBottleneckSolver(int maxNodes, int reoptimisations) {
+        this.maxNodes = maxNodes;
+        this.reoptimisations = reoptimisations;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        //graphe sans aucun arc de machine
+        DisjunctiveGraph graph = new DisjunctiveGraph(instance);
+        graph.update();
+        boolean[] sequenced = new boolean[instance.numMachines];
+        //les machines dans l'ordre où elles ont été séquencées
+        List<Integer> order = new ArrayList<>();
+        for (int step = 0; step < instance.numMachines; step++) {
+            //on cherche la machine goulot parmi les machines restantes ; après la deadline, on prend la
+            //première machine restante (ou la meilleure de celles déjà résolues) avec la séquence de Schrage
+            int bottleneck = -1;
+            OneMachine bottleneckProblem = null;
+            for (int m = 0; m < instance.numMachines; m++) {
+                if (sequenced[m]) continue;
+                boolean late = deadline - System.currentTimeMillis() <= 1 || Thread.currentThread().isInterrupted();
+                if (late && bottleneckProblem != null) break;
+                OneMachine problem = new OneMachine(graph, m, late ? 1 : maxNodes);
+                if (bottleneckProblem == null || problem.bestValue > bottleneckProblem.bestValue) {
+                    bottleneck = m;
+                    bottleneckProblem = problem;
+                }
+            }
+            sequence(graph, bottleneck, bottleneckProblem);
+            sequenced[bottleneck] = true;
+            order.add(bottleneck);
+            //réoptimisation des machines déjà séquencées, une par une
+            for (int pass = 0; pass < reoptimisations && deadline - System.currentTimeMillis() > 1
+                    && !Thread.currentThread().isInterrupted(); pass++) {
+                boolean improved = false;
+                for (int m : order) {
+                    if (m == bottleneck) continue;
+                    improved |= reoptimise(graph, m);
+                }
+                if (!improved) break;
+            }
+        }
+        Progress.improved(instance, graph.makespan());
+        Result.ExitCause cause = LowerBound.isOptimal(instance, graph.makespan())
+                ? Result.ExitCause.ProvedOptimal : Result.ExitCause.Blocked;
+        return new Result(instance, graph.toSchedule(), cause);
+    }
+
+    /*
+     * Séquence la machine m selon la solution du problème à une machine.
+     * Si cet ordre crée un cycle, on séquence la machine par têtes croissantes (toujours compatible
+     * avec les chemins du graphe car les durées sont positives).
+     */
+    private void sequence(DisjunctiveGraph graph, int m, OneMachine problem) {
+        for (int i : problem.bestSequence)
+            graph.append(m, problem.ops[i]);
+        if (graph.update()) return;
+        graph.clear(m);
+        graph.update();
+        Integer[] byHead = new Integer[problem.ops.length];
+        for (int i = 0; i < byHead.length; i++)
+            byHead[i] = problem.ops[i];
+        Arrays.sort(byHead, (a, b) -> graph.heads[a] != graph.heads[b]
+                ? Integer.compare(graph.heads[a], graph.heads[b]) : Integer.compare(a, b));
+        for (int op : byHead)
+            graph.append(m, op);
+        graph.update();
+    }
+
+    /*
+     * Retire la séquence de la machine m puis la recalcule avec les autres machines fixées.
+     * La nouvelle séquence n'est gardée que si elle améliore le makespan.
+     */
+    private boolean reoptimise(DisjunctiveGraph graph, int m) {
+        int before = graph.makespan();
+        int[] old = Arrays.copyOf(graph.sequence[m], graph.length[m]);
+        graph.clear(m);
+        graph.update();
+        OneMachine problem = new OneMachine(graph, m, maxNodes);
+        for (int i : problem.bestSequence)
+            graph.append(m, problem.ops[i]);
+        if (graph.update() && graph.makespan() < before) return true;
+        //pas d'amélioration : on remet l'ancienne séquence
+        graph.clear(m);
+        for (int op : old)
+            graph.append(m, op);
+        graph.update();
+        return false;
+    }
+
+    /*
+     * Problème à une machine 1|r_j|max(C_j + q_j) : algorithme de Carlier, une séparation et évaluation
+     * sur l'heuristique de Schrage, limitée à maxNodes noeuds.
+     */
+    static class OneMachine {
+        //les opérations de la machine (identifiants du graphe)
+        final int[] ops;
+        final int[] durations;
+        final int maxNodes;
+        int nodes = 0;
+        //meilleure séquence trouvée (indices dans ops) et sa valeur
+        int[] bestSequence;
+        int bestValue = Integer.MAX_VALUE;
+
+        OneMachine(DisjunctiveGraph graph, int m, int maxNodes) {
+            int n = graph.numJobs;
+            this.ops = new int[n];
+            this.durations = new int[n];
+            this.maxNodes = maxNodes;
+            int[] heads = new int[n];
+            int[] tails = new int[n];
+            for (int j = 0; j < n; j++) {
+                ops[j] = graph.op(j, graph.instance.task_with_machine(j, m));
+                durations[j] = graph.duration[ops[j]];
+                heads[j] = graph.heads[ops[j]];
+                tails[j] = graph.tails[ops[j]];
+            }
+            branch(heads, tails);
+        }
+
+        private void branch(int[] heads, int[] tails) {
+            if (nodes++ >= maxNodes) return;
+            int n = ops.length;
+            int[] seq = new int[n];
+            int[] completion = new int[n];
+            int value = schrage(heads, tails, seq, completion);
+            if (value < bestValue) {
+                bestValue = value;
+                bestSequence = seq;
+            }
+            //l : dernière tâche critique
+            int l = 0;
+            for (int i = 0; i < n; i++)
+                if (completion[seq[i]] + tails[seq[i]] == value) l = i;
+            //a : début du bloc sans temps mort qui se termine par l
+            int a = l;
+            while (completion[seq[a]] - durations[seq[a]] > heads[seq[a]]) a--;
+            //c : dernière tâche du bloc dont la latence est plus petite que celle de l
+            int c = -1;
+            for (int i = a; i < l; i++)
+                if (tails[seq[i]] < tails[seq[l]]) c = i;
+            //pas de tâche c : la séquence de Schrage est optimale pour ce noeud
+            if (c == -1) return;
+            int headJ = Integer.MAX_VALUE, tailJ = Integer.MAX_VALUE, durationJ = 0;
+            for (int i = c + 1; i <= l; i++) {
+                headJ = Math.min(headJ, heads[seq[i]]);
+                tailJ = Math.min(tailJ, tails[seq[i]]);
+                durationJ += durations[seq[i]];
+            }
+            int jc = seq[c];
+            //branche 1 : c passe après les tâches de J
+            int oldHead = heads[jc];
+            heads[jc] = Math.max(heads[jc], headJ + durationJ);
+            if (bound(heads, tails, headJ, tailJ, durationJ, jc) < bestValue) branch(heads, tails);
+            heads[jc] = oldHead;
+            //branche 2 : c passe avant les tâches de J
+            int oldTail = tails[jc];
+            tails[jc] = Math.max(tails[jc], tailJ + durationJ);
+            if (bound(heads, tails, headJ, tailJ, durationJ, jc) < bestValue) branch(heads, tails);
+            tails[jc] = oldTail;
+        }
+
+        //borne inférieure d'un noeud : ordonnancement préemptif et bornes de J et J + c
+        private int bound(int[] heads, int[] tails, int headJ, int tailJ, int durationJ, int jc) {
+            int withC = Math.min(headJ, heads[jc]) + durationJ + durations[jc] + Math.min(tailJ, tails[jc]);
+            return Math.max(LowerBound.preemptive(heads, durations, tails), Math.max(headJ + durationJ + tailJ, withC));
+        }
+
+        /*
+         * Heuristique de Schrage : à chaque instant, on exécute la tâche disponible de plus grande latence.
+         * Remplit seq et completion, retourne max(C_j + q_j).
+         */
+        private int schrage(int[] heads, int[] tails, int[] seq, int[] completion) {
+            int n = ops.length;
+            Integer[] byHead = new Integer[n];
+            for (int i = 0; i < n; i++)
+                byHead[i] = i;
+            Arrays.sort(byHead, (x, y) -> Integer.compare(heads[x], heads[y]));
+            PriorityQueue<Integer> available = new PriorityQueue<>((x, y) -> tails[x] != tails[y]
+                    ? Integer.compare(tails[y], tails[x]) : Integer.compare(x, y));
+            int time = 0, next = 0, value = 0;
+            for (int k = 0; k < n; k++) {
+                if (available.isEmpty())
+                    time = Math.max(time, heads[byHead[next]]);
+                while (next < n && heads[byHead[next]] <= time)
+                    available.add(byHead[next++]);
+                int j = available.poll();
+                seq[k] = j;
+                time += durations[j];
+                completion[j] = time;
+                value = Math.max(value, time + tails[j]);
+            }
+            return value;
+        }
+    }
+}
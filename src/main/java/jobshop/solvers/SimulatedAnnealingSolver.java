@@ -0,0 +1,120 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Progress;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.List;
+import java.util.Random;
+
+public class SimulatedAnnealingSolver implements Solver {
+    /*
+     * Les différentes lois de refroidissement, la température est fonction de la fraction
+     * du temps restant écoulée depuis le dernier réchauffage
+     */
+    public enum Cooling {
+        GEOMETRIC,  //la température décroît exponentiellement de la température initiale à la finale
+        LINEAR      //la température décroît linéairement de la température initiale à la finale
+    }
+
+    private Cooling cooling;
+    //températures initiale et finale, exprimées en multiple de la durée moyenne d'une tâche
+    private double initialTemperature;
+    private double finalTemperature;
+    //nombre d'itérations sans amélioration de la meilleure solution avant de réchauffer
+    private int reheatAfter;
+
+    public SimulatedAnnealingSolver(Cooling cooling, double initialTemperature, double finalTemperature, int reheatAfter) {
+        this.cooling = cooling;
+        this.initialTemperature = initialTemperature;
+        this.finalTemperature = finalTemperature;
+        this.reheatAfter = reheatAfter;
+    }
+
+    /*
+     * Retourne la température pour une fraction (entre 0 et 1) du temps écoulé depuis le début de la
+     * phase, t0 étant la température au début de la phase (plus basse après chaque réchauffage)
+     */
+    double temperature(double t0, double tf, double fraction) {
+        fraction = Math.min(1, Math.max(0, fraction));
+        switch (cooling) {
+            case LINEAR:
+                return t0 + (tf - t0) * fraction;
+            default:
+                return t0 * Math.pow(tf / t0, fraction);
+        }
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        //on initialise s avec la solution retournée par l'algo Glouton
+        Result s = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, deadline);
+        if (s.cause == Result.ExitCause.ProvedOptimal) return s;
+        //la solution courante et la meilleure solution, sous forme de graphe pour une évaluation rapide
+        DisjunctiveGraph current = new DisjunctiveGraph(new ResourceOrder(s.schedule));
+        DisjunctiveGraph best = new DisjunctiveGraph(current);
+        //les températures sont relatives à la durée moyenne d'une tâche
+        double meanDuration = 0;
+        for (int op = 0; op < current.numOps; op++)
+            meanDuration += current.duration[op];
+        meanDuration /= current.numOps;
+        double t0 = initialTemperature * meanDuration;
+        double tf = finalTemperature * meanDuration;
+
+        Random generator = new Random(0);
+        List<Utils.Block> blocksList = current.blocksOfCriticalPath();
+        //début de la phase de refroidissement courante et température à ce moment
+        long phaseStart = System.currentTimeMillis();
+        double phaseTemperature = t0;
+        double temperature = t0;
+        int sinceImprovement = 0;
+        for (long iter = 0; ; iter++) {
+            //on ne consulte l'horloge que toutes les 256 itérations
+            if ((iter & 255) == 0) {
+                long now = System.currentTimeMillis();
+                //deadline atteinte ou thread interrompu (voir PortfolioSolver)
+                if (deadline - now <= 1 || Thread.currentThread().isInterrupted()) break;
+                temperature = temperature(phaseTemperature, tf, (now - phaseStart) / (double) (deadline - phaseStart));
+                //réchauffage si la meilleure solution n'a pas été améliorée depuis longtemps
+                if (sinceImprovement >= reheatAfter) {
+                    phaseStart = now;
+                    phaseTemperature = Math.max(tf, phaseTemperature / 2);
+                    sinceImprovement = 0;
+                }
+            }
+            //pas de Block sur le chemin critique : il est formé d'un seul job, la solution est optimale
+            if (blocksList.isEmpty()) break;
+            sinceImprovement++;
+            //on tire un mouvement au hasard dans le voisinage du chemin critique
+            Utils.Block block = blocksList.get(generator.nextInt(blocksList.size()));
+            List<Utils.Swap> swapList = Utils.neighbors(block);
+            Utils.Swap swap = swapList.get(generator.nextInt(swapList.size()));
+            //critère de Metropolis : le mouvement est accepté si le nouveau makespan ne dépasse pas ce seuil
+            double threshold = current.makespan() - temperature * Math.log(generator.nextDouble());
+            //l'estimation est une borne inférieure du nouveau makespan : on rejette sans évaluer
+            if (current.estimateSwap(swap.machine, swap.t1) > threshold) continue;
+            swap.applyOn(current);
+            int makespan = current.evaluate();
+            if (makespan == -1 || makespan > threshold) {
+                //mouvement rejeté, on annule le swap
+                swap.applyOn(current);
+                continue;
+            }
+            current.update();
+            blocksList = current.blocksOfCriticalPath();
+            if (makespan < best.makespan()) {
+                best.copyFrom(current);
+                Progress.improved(instance, makespan);
+                sinceImprovement = 0;
+                if (LowerBound.isOptimal(instance, makespan))
+                    return new Result(instance, best.toSchedule(), Result.ExitCause.ProvedOptimal);
+            }
+        }
+        if (LowerBound.isOptimal(instance, best.makespan()))
+            return new Result(instance, best.toSchedule(), Result.ExitCause.ProvedOptimal);
+        return new Result(instance, best.toSchedule(), Result.ExitCause.Timeout);
+    }
+}
@@ -0,0 +1,211 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.encodings.ResourceOrder;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/*
+ * Points de reprise de TabouSolver : l'état complet de la recherche (solution courante, meilleure solution,
+ * interdictions encore actives, numéro d'itération) est sauvegardé périodiquement dans un fichier par
+ * instance (nommé d'après Instance.hash64()) du répertoire donné. Une recherche relancée sur la même
+ * instance avec les mêmes paramètres reprend à l'itération sauvegardée et suit la même trajectoire.
+ * TabouSolver n'utilise pas de générateur aléatoire : il n'y a pas d'état aléatoire à sauvegarder.
+ *
+ * La recherche ne fait que copier l'état (quelques tableaux d'entiers) à chaque intervalle ; l'écriture
+ * est faite par un thread en arrière-plan. Si l'écriture est plus lente que la recherche, seul le dernier
+ * état en attente est écrit. Le fichier est écrit à côté puis déplacé : un arrêt brutal laisse l'ancien
+ * point de reprise ou le nouveau, jamais un fichier partiel. Le thread d'écriture ne bloque pas la fin
+ * du programme, l'état final est écrit avant que solve() ne retourne.
+ */
+public class TabouCheckpoint {
+    private static final int MAGIC = 0x4A535443; // "JSTC"
+
+    /*
+     * Etat de la recherche à la fin d'une itération
+     */
+    static class State {
+        final long hash;
+        final int maxIter;
+        final int dureeTabou;
+        //itérations déjà faites
+        final int iteration;
+        final int numJobs;
+        final int numMachines;
+        //job à chaque position de chaque machine (indice machine * numJobs + position)
+        final int[] current;
+        final int[] best;
+        //interdictions actives, par triplets (ligne, colonne, itération de fin)
+        final int[] tabou;
+
+        State(long hash, int maxIter, int dureeTabou, int iteration, int numJobs, int numMachines,
+              int[] current, int[] best, int[] tabou) {
+            this.hash = hash;
+            this.maxIter = maxIter;
+            this.dureeTabou = dureeTabou;
+            this.iteration = iteration;
+            this.numJobs = numJobs;
+            this.numMachines = numMachines;
+            this.current = current;
+            this.best = best;
+            this.tabou = tabou;
+        }
+
+        ResourceOrder current(Instance instance) {
+            return ResourceOrder.fromJobsByMachine(instance, current);
+        }
+
+        ResourceOrder best(Instance instance) {
+            return ResourceOrder.fromJobsByMachine(instance, best);
+        }
+    }
+
+    //répertoire des points de reprise
+    private final Path directory;
+    //intervalle entre deux points de reprise (ms)
+    private final long interval;
+    //date du prochain point de reprise, pour chaque thread de recherche
+    private final ThreadLocal<Long> next = ThreadLocal.withInitial(() -> 0L);
+    //dernier état pas encore écrit de chaque instance (le plus récent remplace les précédents)
+    private final ConcurrentHashMap<Long, State> pending = new ConcurrentHashMap<>();
+    //le thread d'écriture
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "tabou-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TabouCheckpoint(Path directory, long intervalMs) {
+        this.directory = directory;
+        this.interval = intervalMs;
+    }
+
+    Path file(Instance instance) {
+        return file(instance.hash64());
+    }
+
+    private Path file(long hash) {
+        return directory.resolve(Long.toHexString(hash) + ".tabou");
+    }
+
+    /*
+     * Point de reprise de l'instance pour ces paramètres, ou null s'il n'y en a pas
+     * (ou s'il est illisible ou ne correspond pas)
+     */
+    State load(Instance instance, int maxIter, int dureeTabou) {
+        Path file = file(instance);
+        if (!Files.exists(file)) return null;
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            if (bytes.length < 4) return null;
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - 4);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readInt() != MAGIC) return null;
+            long hash = in.readLong();
+            int savedMaxIter = in.readInt();
+            int savedDuree = in.readInt();
+            int iteration = in.readInt();
+            int numJobs = in.readInt();
+            int numMachines = in.readInt();
+            if (hash != instance.hash64() || savedMaxIter != maxIter || savedDuree != dureeTabou
+                    || numJobs != instance.numJobs || numMachines != instance.numMachines)
+                return null;
+            int[] current = readInts(in, numJobs * numMachines);
+            int[] best = readInts(in, numJobs * numMachines);
+            int[] tabou = readInts(in, 3 * in.readInt());
+            if (in.readInt() != (int) crc.getValue()) return null;
+            return new State(hash, maxIter, dureeTabou, iteration, numJobs, numMachines, current, best, tabou);
+        } catch (IOException | RuntimeException e) {
+            //point de reprise tronqué ou corrompu : on repart de zéro
+            return null;
+        }
+    }
+
+    private static int[] readInts(DataInputStream in, int n) throws IOException {
+        if (n < 0) throw new IOException("invalid length " + n);
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = in.readInt();
+        return values;
+    }
+
+    /*
+     * Appelé à la fin de chaque itération : copie l'état et le confie au thread d'écriture si
+     * l'intervalle est écoulé, ne fait rien sinon
+     */
+    void offer(Instance instance, int maxIter, int dureeTabou, int iteration,
+               ResourceOrder current, ResourceOrder best, TabouSolver.STabou sTabou) {
+        long now = System.currentTimeMillis();
+        //le premier point de reprise est fait un intervalle après le début de la recherche
+        if (next.get() == 0) next.set(now + interval);
+        if (now < next.get()) return;
+        next.set(now + interval);
+        State state = new State(instance.hash64(), maxIter, dureeTabou, iteration, instance.numJobs,
+                instance.numMachines, current.jobsByMachine(), best.jobsByMachine(), sTabou.active(iteration));
+        //une seule tâche d'écriture en attente par instance, qui prend le dernier état déposé
+        if (pending.put(state.hash, state) == null) {
+            writer.execute(() -> {
+                State latest = pending.remove(state.hash);
+                if (latest != null) write(latest);
+            });
+        }
+    }
+
+    /*
+     * Ecrit l'état final de la recherche et attend la fin des écritures en cours
+     */
+    void save(Instance instance, int maxIter, int dureeTabou, int iteration,
+              ResourceOrder current, ResourceOrder best, TabouSolver.STabou sTabou) {
+        State state = new State(instance.hash64(), maxIter, dureeTabou, iteration, instance.numJobs,
+                instance.numMachines, current.jobsByMachine(), best.jobsByMachine(), sTabou.active(iteration));
+        pending.remove(state.hash);
+        try {
+            //l'état final passe après les écritures en cours
+            writer.submit(() -> write(state)).get();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        next.remove();
+    }
+
+    private void write(State state) {
+        Path file = file(state.hash);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            CRC32 crc = new CRC32();
+            try (FileOutputStream fos = new FileOutputStream(tmp.toFile())) {
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(fos), crc));
+                out.writeInt(MAGIC);
+                out.writeLong(state.hash);
+                out.writeInt(state.maxIter);
+                out.writeInt(state.dureeTabou);
+                out.writeInt(state.iteration);
+                out.writeInt(state.numJobs);
+                out.writeInt(state.numMachines);
+                for (int job : state.current) out.writeInt(job);
+                for (int job : state.best) out.writeInt(job);
+                out.writeInt(state.tabou.length / 3);
+                for (int v : state.tabou) out.writeInt(v);
+                //le CRC porte sur tout ce qui précède
+                out.flush();
+                DataOutputStream tail = new DataOutputStream(fos);
+                tail.writeInt((int) crc.getValue());
+                tail.flush();
+                fos.getFD().sync();
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            //la recherche continue même si le point de reprise n'a pas pu être écrit
+            System.err.println("WARNING: cannot write checkpoint " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package jobshop.solvers;
+
+import jobshop.Events;
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Progress;
+import jobshop.Result;
+import jobshop.Solver;
+import jobshop.encodings.ResourceOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Recherche tabou sur le voisinage par insertion N6/N7 (cf Utils.insertions).
+ * Ce voisinage est bien plus grand que celui de TabouSolver : chaque mouvement est d'abord
+ * estimé (DisjunctiveGraph.estimateMove) et seuls les meilleurs candidats sont évalués exactement.
+ */
+public class TabouInsertionSolver implements Solver {
+    //le nombre maximum d'itération
+    private int maxIter;
+    //la durée des interdictions
+    private int dureeTabou;
+    //le nombre de mouvements évalués exactement à chaque itération
+    private int candidats;
+
+    //le solveur qui fournit la solution initiale
+    private Solver seed;
+
+    public TabouInsertionSolver(int maxIter, int dureeTabou, int candidats) {
+        this(maxIter, dureeTabou, candidats, new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT));
+    }
+
+    public TabouInsertionSolver(int maxIter, int dureeTabou, int candidats, Solver seed) {
+        this.maxIter = maxIter;
+        this.dureeTabou = dureeTabou;
+        this.candidats = candidats;
+        this.seed = seed;
+    }
+
+    @Override
+    public Result solve(Instance instance, long deadline) {
+        //on initialise s avec la solution retournée par le solveur initial (par défaut l'algo Glouton)
+        Result s = seed.solve(instance, deadline);
+        if (s.cause == Result.ExitCause.ProvedOptimal) return s;
+        //la solution de l'itération (s_local) et la meilleure solution (s)
+        DisjunctiveGraph current = new DisjunctiveGraph(new ResourceOrder(s.schedule));
+        DisjunctiveGraph best = new DisjunctiveGraph(current);
+        //on crée la structure qui permet de vérifier si une solution a délà été visitée ou non
+        TabouSolver.STabou sTabou = new TabouSolver.STabou(instance.numMachines, instance.numJobs, dureeTabou);
+        int k = 0;
+        //événements JFR : les itérations par paquets et le parcours du voisinage de chaque itération
+        Events.IterationBatch batch = Events.IterationBatch.start(1);
+        //jusqu'à maxIter, la deadline ou l'interruption du thread (voir PortfolioSolver)
+        while (k < maxIter && deadline - System.currentTimeMillis() > 1 && !Thread.currentThread().isInterrupted()) {
+            //si la borne inférieure est atteinte, la solution est optimale et on s'arrête (par la fin de
+            //solve(), qui ferme le paquet d'itérations)
+            if (LowerBound.isOptimal(instance, best.makespan())) break;
+            k++;
+            Events.NeighbourhoodScan scan = Events.NeighbourhoodScan.start();
+            List<Utils.Block> blocksList = current.blocksOfCriticalPath();
+            //pas de Block : le chemin critique est un seul job, la solution est optimale
+            if (blocksList.isEmpty()) break;
+            //on estime tous les mouvements autorisés
+            List<Utils.Insertion> moves = new ArrayList<>();
+            for (Utils.Block block : blocksList) {
+                for (Utils.Insertion insertion : Utils.insertions(block)) {
+                    if (allowed(current, sTabou, insertion, k)) moves.add(insertion);
+                }
+            }
+            //chaque mouvement est codé par (estimation << 32 | indice) pour trier sur des primitifs
+            long[] estimates = new long[moves.size()];
+            for (int i = 0; i < moves.size(); i++) {
+                Utils.Insertion move = moves.get(i);
+                estimates[i] = ((long) current.estimateMove(move.machine, move.from, move.to) << 32) | i;
+            }
+            Arrays.sort(estimates);
+            //seuls les meilleurs candidats réalisables sont évalués exactement
+            Utils.Insertion bestMove = null;
+            int best_local = -1;
+            int evaluated = 0;
+            for (int i = 0; i < estimates.length && evaluated < candidats; i++) {
+                Utils.Insertion move = moves.get((int) estimates[i]);
+                move.applyOn(current);
+                int makespan = current.evaluate();
+                move.reverse().applyOn(current);
+                //makespan = -1 : le mouvement crée un cycle, il ne compte pas parmi les candidats
+                if (makespan == -1) continue;
+                evaluated++;
+                if (best_local == -1 || makespan < best_local) {
+                    bestMove = move;
+                    best_local = makespan;
+                }
+            }
+            scan.finish("TabouInsertionSolver", instance, k, moves.size(), evaluated, best_local);
+            //si tous les mouvements sont interdits ou impossibles, la solution courante ne change pas
+            if (bestMove != null) {
+                //on interdit de rétablir les arcs inversés par le mouvement
+                forbid(current, sTabou, bestMove, k);
+                bestMove.applyOn(current);
+                current.update();
+                if (current.makespan() < best.makespan()) {
+                    best.copyFrom(current);
+                    Progress.improved(instance, best.makespan());
+                }
+            }
+            batch = batch.iterated("TabouInsertionSolver", instance, k, best.makespan());
+        }
+        batch.finish("TabouInsertionSolver", instance, k, best.makespan());
+        if (LowerBound.isOptimal(instance, best.makespan()))
+            return new Result(instance, best.toSchedule(), Result.ExitCause.ProvedOptimal);
+        if (k == maxIter) return new Result(instance, best.toSchedule(), Result.ExitCause.Blocked);
+        return new Result(instance, best.toSchedule(), Result.ExitCause.Timeout);
+    }
+
+    /*
+     * Un mouvement est interdit s'il rétablit un arc (ordre entre deux opérations de la machine)
+     * inversé récemment
+     */
+    private boolean allowed(DisjunctiveGraph graph, TabouSolver.STabou sTabou, Utils.Insertion move, int k) {
+        int[] sequence = graph.sequence[move.machine];
+        int u = sequence[move.from];
+        //u passe avant les opérations [to, from[ ou après les opérations ]from, to]
+        for (int i = Math.min(move.from, move.to); i <= Math.max(move.from, move.to); i++) {
+            if (i == move.from) continue;
+            boolean ok = move.to < move.from ? sTabou.check(u, sequence[i], k) : sTabou.check(sequence[i], u, k);
+            if (!ok) return false;
+        }
+        return true;
+    }
+
+    /*
+     * Interdit de rétablir les arcs que le mouvement va inverser
+     */
+    private void forbid(DisjunctiveGraph graph, TabouSolver.STabou sTabou, Utils.Insertion move, int k) {
+        int[] sequence = graph.sequence[move.machine];
+        int u = sequence[move.from];
+        for (int i = Math.min(move.from, move.to); i <= Math.max(move.from, move.to); i++) {
+            if (i == move.from) continue;
+            if (move.to < move.from) sTabou.add(sequence[i], u, k);
+            else sTabou.add(u, sequence[i], k);
+        }
+    }
+}
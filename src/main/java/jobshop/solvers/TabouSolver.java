@@ -1,9 +1,14 @@
 package jobshop.solvers;
 
+import jobshop.Events;
 import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Progress;
 import jobshop.Result;
 import jobshop.Solver;
 import jobshop.encodings.ResourceOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class TabouSolver implements Solver {
@@ -12,9 +17,55 @@ public class TabouSolver implements Solver {
     //la durée des interdictions
     private int dureeTabou;
 
+    //le solveur qui fournit la solution initiale
+    private Solver seed;
+    //le cache des makespans déjà calculés, conservé d'un appel à l'autre
+    private EvaluationCache cache;
+    //nombre de threads qui évaluent les swaps d'une itération (1 : séquentiel)
+    private int threads;
+    //les points de reprise de la recherche (null : pas de point de reprise)
+    private TabouCheckpoint checkpoint;
+    //l'ensemble qui reçoit les optima locaux rencontrés (null : ils ne sont pas gardés)
+    private ElitePool elites;
+
     public TabouSolver(int maxIter, int dureeTabou) {
+        this(maxIter, dureeTabou, new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT));
+    }
+
+    public TabouSolver(int maxIter, int dureeTabou, Solver seed) {
+        this(maxIter, dureeTabou, seed, new EvaluationCache(1 << 16));
+    }
+
+    public TabouSolver(int maxIter, int dureeTabou, Solver seed, EvaluationCache cache) {
+        this(maxIter, dureeTabou, seed, cache, 1);
+    }
+
+    public TabouSolver(int maxIter, int dureeTabou, Solver seed, EvaluationCache cache, int threads) {
+        this(maxIter, dureeTabou, seed, cache, threads, null);
+    }
+
+    /*
+     * checkpoint : sauvegarde périodique de l'état de la recherche ; s'il existe un point de reprise pour
+     * l'instance et ces paramètres, la recherche reprend à partir de celui-ci au lieu d'appeler seed
+     */
+    public TabouSolver(int maxIter, int dureeTabou, Solver seed, EvaluationCache cache, int threads,
+                       TabouCheckpoint checkpoint) {
+        this(maxIter, dureeTabou, seed, cache, threads, checkpoint, null);
+    }
+
+    /*
+     * elites : reçoit chaque optimum local de la recherche (solution courante sans voisin autorisé meilleur),
+     * pour PathRelinkingSolver
+     */
+    public TabouSolver(int maxIter, int dureeTabou, Solver seed, EvaluationCache cache, int threads,
+                       TabouCheckpoint checkpoint, ElitePool elites) {
         this.maxIter = maxIter;
         this.dureeTabou = dureeTabou;
+        this.seed = seed;
+        this.cache = cache;
+        this.threads = threads;
+        this.checkpoint = checkpoint;
+        this.elites = elites;
     }
 
     /*
@@ -28,88 +79,184 @@ public class TabouSolver implements Solver {
         final int dureeTabou;
         //nombre de jobs
         final int nbJob;
+        //les derniers swaps interdits (tampon circulaire, celui de l'itération k à la case k % dureeTabou) :
+        //avec un swap interdit par itération, ce sont les seules interdictions encore actives (voir active())
+        private final int[] recent;
 
         STabou(int nbMachine, int nbJob, int dureeTabou) {
             this.tab = new int[nbJob*nbMachine][nbJob*nbMachine];
             this.dureeTabou = dureeTabou;
             this.nbJob = nbJob;
+            this.recent = new int[3 * Math.max(1, dureeTabou)];
         }
 
         //actualise l'itération à partir duquelle le swap est possible
         public void add(Utils.Swap swap, int k) {
-            tab[swap.t1+nbJob*swap.machine][swap.t2+nbJob*swap.machine] = k + dureeTabou;
+            int a = swap.t1+nbJob*swap.machine;
+            int b = swap.t2+nbJob*swap.machine;
+            tab[a][b] = k + dureeTabou;
+            remember(a, b, k + dureeTabou);
+        }
+
+        private void remember(int a, int b, int end) {
+            int slot = 3 * ((end - dureeTabou) % (recent.length / 3));
+            recent[slot] = a;
+            recent[slot + 1] = b;
+            recent[slot + 2] = end;
+        }
+
+        //les interdictions des swaps encore actives après l'itération k, par triplets (ligne, colonne, fin) ;
+        //les autres cellules se comportent comme 0 pour toutes les itérations suivantes
+        int[] active(int k) {
+            int[] cells = new int[recent.length];
+            int n = 0;
+            for (int i = 0; i < recent.length; i += 3) {
+                //la cellule a pu être interdite de nouveau depuis, elle est alors dans une autre case
+                if (recent[i + 2] <= k || tab[recent[i]][recent[i + 1]] != recent[i + 2]) continue;
+                cells[n++] = recent[i];
+                cells[n++] = recent[i + 1];
+                cells[n++] = recent[i + 2];
+            }
+            return Arrays.copyOf(cells, n);
+        }
+
+        //rétablit les interdictions retournées par active()
+        void restore(int[] cells) {
+            for (int i = 0; i < cells.length; i += 3) {
+                tab[cells[i]][cells[i + 1]] = cells[i + 2];
+                remember(cells[i], cells[i + 1], cells[i + 2]);
+            }
         }
 
         //vérifie si le swap est possible
         public boolean check(Utils.Swap swap, int k) {
             return k > tab[swap.t1+nbJob*swap.machine][swap.t2+nbJob*swap.machine];
         }
+
+        //idem pour l'arc (a, b) entre deux opérations, identifiées comme dans DisjunctiveGraph
+        //(la matrice est assez grande : il y a nbJob*nbMachine opérations)
+        public void add(int a, int b, int k) {
+            tab[a][b] = k + dureeTabou;
+        }
+
+        public boolean check(int a, int b, int k) {
+            return k > tab[a][b];
+        }
     }
 
     @Override
     public Result solve(Instance instance, long deadline) {
-        //on initialise s avec la solution retournée par l'algo Glouton
-        Result s = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, deadline);
-        //on s_local = meilleur solution pour l'itération
-        Result s_local = s;
-        int best = s.schedule.makespan();
         //on crée la structure qui permet de vérifier si une solution a délà été visitée ou non
         STabou sTabou = new STabou(instance.numMachines, instance.numJobs, dureeTabou);
+        TabouCheckpoint.State restored = checkpoint == null ? null : checkpoint.load(instance, maxIter, dureeTabou);
+        Result s;
+        //on s_local = meilleur solution pour l'itération
+        Result s_local;
         //k permet de compter les itérations
-        int k = 0;
-        //tant que le nombre d'itération max n'est pas atteinte et que la deadline n'est pas atteinte
-        while (k < maxIter && deadline - System.currentTimeMillis() > 1) {
-            k++;
-            //l'order qui correspond au meilleur schedule (s)
-            ResourceOrder order = new ResourceOrder(s.schedule);
-            //l'order qui correspond au meilleur schedule de l'itération (s_local)
-            ResourceOrder order_local = new ResourceOrder(s_local.schedule);
-            //la liste des Block du chemin critique
-            List<Utils.Block> blocksList = Utils.blocksOfCriticalPath(order_local);
-            //variables pour stocker les meilleurs résultats locaux
-            Utils.Swap bestSwap = null;
-            int best_local = -1;
-            for (Utils.Block block : blocksList) {
-                //la liste des Swap pour le Block
-                List<Utils.Swap> swapList = Utils.neighbors(block);
-                for (Utils.Swap swap : swapList) {
-                    //avant de tester le swap, on vérifie qu'il est autorisé
-                    if (sTabou.check(swap, k)) {
-                        //on copie l'ordre de s et on applique le swap
+        int k;
+        if (restored != null) {
+            //reprise : solutions, interdictions et compteur d'itérations du point de reprise
+            s = new Result(instance, restored.best(instance).toSchedule(), Result.ExitCause.Blocked);
+            s_local = new Result(instance, restored.current(instance).toSchedule(), Result.ExitCause.Blocked);
+            sTabou.restore(restored.tabou);
+            k = restored.iteration;
+        } else {
+            //on initialise s avec la solution retournée par le solveur initial (par défaut l'algo Glouton)
+            s = seed.solve(instance, deadline);
+            s_local = s;
+            k = 0;
+        }
+        int best = s.schedule.makespan();
+        //vrai si un swap donne un ordre non réalisable : la recherche est bloquée
+        boolean blocked = false;
+        //événements JFR : les itérations par paquets et le parcours du voisinage de chaque itération
+        Events.IterationBatch batch = Events.IterationBatch.start(k + 1);
+        try (NeighbourhoodEvaluator evaluator = new NeighbourhoodEvaluator(cache, threads)) {
+            //tant que le nombre d'itération max n'est pas atteinte et que la deadline n'est pas atteinte
+            //(ou que le thread n'est pas interrompu, voir PortfolioSolver)
+            search:
+            while (k < maxIter && deadline - System.currentTimeMillis() > 1 && !Thread.currentThread().isInterrupted()) {
+                //si la borne inférieure est atteinte, la solution est optimale et on s'arrête
+                if (LowerBound.isOptimal(instance, best))
+                    break;
+                k++;
+                Events.NeighbourhoodScan scan = Events.NeighbourhoodScan.start();
+                //l'order qui correspond au meilleur schedule (s)
+                ResourceOrder order = new ResourceOrder(s.schedule);
+                //l'order qui correspond au meilleur schedule de l'itération (s_local)
+                ResourceOrder order_local = new ResourceOrder(s_local.schedule);
+                //la liste des Swap de tous les Block du chemin critique
+                List<Utils.Swap> swapList = new ArrayList<>();
+                for (Utils.Block block : Utils.blocksOfCriticalPath(order_local))
+                    swapList.addAll(Utils.neighbors(block));
+                //avant de tester un swap, on vérifie qu'il est autorisé
+                boolean[] allowed = new boolean[swapList.size()];
+                for (int i = 0; i < swapList.size(); i++)
+                    allowed[i] = sTabou.check(swapList.get(i), k);
+                evaluator.reset(swapList);
+                //variables pour stocker les meilleurs résultats locaux
+                Utils.Swap bestSwap = null;
+                int best_local = -1;
+                int evaluated = 0;
+                for (int i = 0; i < swapList.size(); i++) {
+                    if (!allowed[i]) continue;
+                    evaluated++;
+                    //makespan de l'ordre de s_local avec le swap (via le cache) ; le premier swap autorisé est
+                    //toujours retenu, il est évalué seul (les suivants s'appliqueront au nouvel ordre)
+                    int makespan = best_local == -1 ? evaluator.makespanAlone(order_local, i)
+                            : evaluator.makespan(order_local, i, allowed);
+                    //le swap n'est pas possible, on est bloqué (on sort quand même par la fin de solve(),
+                    //qui ferme le paquet d'itérations et sauvegarde le dernier état)
+                    if (makespan == -1) {
+                        blocked = true;
+                        break search;
+                    }
+                    //si le swap retourne un meilleur résultat que le résultat local on actualise s_local
+                    //(la copie n'est faite que si le swap est retenu)
+                    if (best_local == -1 || makespan < best_local) {
+                        Utils.Swap swap = swapList.get(i);
+                        swap.applyOn(order_local);
                         ResourceOrder copy = order_local.copy();
-                        swap.applyOn(copy);
-                        int makespan;
-                        try {
-                            makespan = copy.toSchedule().makespan();
-                        } catch (Exception e) {
-                            //le swap n'est pas possible, on est bloqué
-                            return s;
-                        }
-                        //si le swap retourne un meilleur résultat que le résultat local on actualise s_local
-                        if (best_local == -1 || makespan < best_local) {
-                            bestSwap = swap;
-                            best_local = makespan;
-                            order_local = copy;
-                            //si le swap est également meilleur que s, on actulise s
-                            if (makespan < best) {
-                                best = makespan;
-                                order = copy;
-                            }
+                        swap.applyOn(order_local);
+                        bestSwap = swap;
+                        best_local = makespan;
+                        order_local = copy;
+                        //les swaps suivants s'appliquent au nouvel ordre
+                        evaluator.invalidate(i + 1);
+                        //si le swap est également meilleur que s, on actulise s
+                        if (makespan < best) {
+                            best = makespan;
+                            Progress.improved(instance, best);
+                            order = copy;
                         }
                     }
                 }
+                scan.finish("TabouSolver", instance, k, swapList.size(), evaluated, best_local);
+                //aucun voisin autorisé n'améliore la solution courante : c'est un optimum local
+                if (elites != null && (best_local == -1 || best_local >= s_local.schedule.makespan()))
+                    elites.offer(s_local.schedule);
+                //si un swap est meilleur que la solution locale on l'ajoute à la structure
+                if (bestSwap != null) {
+                    sTabou.add(bestSwap, k);
+                }
+                //on actualise s et s_local
+                s_local = new Result(order_local.instance, order_local.toSchedule(), Result.ExitCause.Blocked);
+                s = new Result(order.instance, order.toSchedule(), Result.ExitCause.Blocked);
+                if (checkpoint != null)
+                    checkpoint.offer(instance, maxIter, dureeTabou, k, order_local, order, sTabou);
+                batch = batch.iterated("TabouSolver", instance, k, best);
             }
-            //si un swap est meilleur que la solution locale on l'ajoute à la structure
-            if (bestSwap != null) {
-                sTabou.add(bestSwap, k);
-            }
-            //on actualise s et s_local
-            s_local = new Result(order_local.instance, order_local.toSchedule(), Result.ExitCause.Blocked);
-            s = new Result(order.instance, order.toSchedule(), Result.ExitCause.Blocked);
         }
+        batch.finish("TabouSolver", instance, k, best);
+        //l'état final, pour continuer la recherche lors d'un prochain appel
+        if (checkpoint != null)
+            checkpoint.save(instance, maxIter, dureeTabou, k, new ResourceOrder(s_local.schedule),
+                    new ResourceOrder(s.schedule), sTabou);
         //en fonction de si maxIter a été atteint ou si la deadline a été atteinte
         //on ne retourne pas la même raison de sortie
-        if (k == maxIter) return s;
+        if (LowerBound.isOptimal(instance, best))
+            return new Result(s.instance, s.schedule, Result.ExitCause.ProvedOptimal);
+        if (blocked || k == maxIter) return s;
         return new Result(s.instance, s.schedule, Result.ExitCause.Timeout);
     }
 }
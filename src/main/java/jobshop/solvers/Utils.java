@@ -70,6 +70,63 @@ public class Utils {
             order.tasksByMachine[machine][t1] = order.tasksByMachine[machine][t2];
             order.tasksByMachine[machine][t2] = t;
         }
+
+        /** Apply this swap on the given disjunctive graph. Heads and tails must be updated afterwards. */
+        public void applyOn(DisjunctiveGraph graph) {
+            graph.swap(machine, t1, t2);
+        }
+    }
+
+    /**
+     * Represents the insertion of a task at another index of the same machine in a ResourceOrder encoding,
+     * the tasks in between being shifted by one.
+     *
+     * Consider the solution in ResourceOrder representation
+     * machine 1 : (0,2) (2,1) (1,1) (3,1)
+     *
+     * The insertion with : machine = 1, from = 3 and to = 1
+     * results in the following one :
+     * machine 1 : (0,2) (3,1) (2,1) (1,1)
+     */
+    static class Insertion {
+        // machine on which to perform the insertion
+        final int machine;
+        // index of the task to be moved
+        final int from;
+        // index of the task after the move
+        final int to;
+
+        Insertion(int machine, int from, int to) {
+            this.machine = machine;
+            this.from = from;
+            this.to = to;
+        }
+
+        /** Apply this insertion on the given resource order, transforming it into a new solution. */
+        public void applyOn(ResourceOrder order) {
+            Task[] tasks = order.tasksByMachine[machine];
+            Task t = tasks[from];
+            if (from < to) System.arraycopy(tasks, from + 1, tasks, from, to - from);
+            else System.arraycopy(tasks, to, tasks, to + 1, from - to);
+            tasks[to] = t;
+        }
+
+        /** Apply this insertion on the given disjunctive graph. Heads and tails must be updated afterwards. */
+        public void applyOn(DisjunctiveGraph graph) {
+            graph.move(machine, from, to);
+        }
+
+        /** Returns the insertion that cancels this one. */
+        Insertion reverse() {
+            return new Insertion(machine, to, from);
+        }
+
+        /** True if both insertions lead to the same sequence (a move of one index is also a swap). */
+        boolean sameAs(Insertion other) {
+            if (machine != other.machine) return false;
+            if (from == other.from && to == other.to) return true;
+            return Math.abs(from - to) == 1 && from == other.to && to == other.from;
+        }
     }
 
     /** Returns a list of all blocks of the critical path. */
@@ -115,4 +172,30 @@ public class Utils {
         if (block.firstTask != block.lastTask+1) swapList.add(new Swap(block.machine, block.lastTask-1, block.lastTask));
         return swapList;
     }
+
+    /**
+     * For a given block, return the insertions of the N6/N7 neighborhoods :
+     * every task of the block is moved to the front or to the back of the block (N6), and the first and last
+     * tasks are also moved inside the block (N7). Contains the swaps of {@link #neighbors(Block)}.
+     */
+    static List<Insertion> insertions(Block block) {
+        List<Insertion> insertionList = new ArrayList<>();
+        for (int i = block.firstTask + 1; i <= block.lastTask; i++)
+            addInsertion(insertionList, new Insertion(block.machine, i, block.firstTask));
+        for (int i = block.firstTask; i < block.lastTask; i++)
+            addInsertion(insertionList, new Insertion(block.machine, i, block.lastTask));
+        for (int i = block.firstTask + 1; i < block.lastTask; i++) {
+            addInsertion(insertionList, new Insertion(block.machine, block.firstTask, i));
+            addInsertion(insertionList, new Insertion(block.machine, block.lastTask, i));
+        }
+        return insertionList;
+    }
+
+    //ajoute l'insertion à la liste si elle n'y est pas déjà
+    private static void addInsertion(List<Insertion> insertionList, Insertion insertion) {
+        for (Insertion other : insertionList) {
+            if (other.sameAs(insertion)) return;
+        }
+        insertionList.add(insertion);
+    }
 }
@@ -0,0 +1,73 @@
+package jobshop;
+
+import jobshop.solvers.GloutonSolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchTests {
+
+    @Test
+    public void testShares() {
+        Map<String, Double> weights = new HashMap<>();
+        weights.put("small", 100.0);
+        weights.put("large", 300.0);
+        weights.put("tiny", 0.0);
+        List<String> active = Arrays.asList("small", "large", "tiny");
+
+        // one thread: the round is shared in proportion to the weights
+        Map<String, Long> shares = Batch.shares(active, weights, 1000, 1);
+        assert shares.get("small") == 250 && shares.get("large") == 750;
+        // never less than 1 ms
+        assert shares.get("tiny") == 1;
+
+        // two threads: twice the time to share, but no instance gets more than the round itself
+        shares = Batch.shares(active, weights, 1000, 2);
+        assert shares.get("small") == 500 && shares.get("large") == 1000;
+        // more threads than instances: only one thread per instance
+        assert Batch.shares(Arrays.asList("small"), weights, 1000, 8).get("small") == 1000;
+    }
+
+    @Test
+    public void testRoundsAndFinishedInstances() throws IOException, InterruptedException, ExecutionException {
+        Map<String, Instance> instances = new LinkedHashMap<>();
+        for (String name : new String[]{"la06", "ft10"})
+            instances.put(name, Instance.fromFile(Paths.get("instances/", name)));
+        // la06 is proved optimal in the first round, ft10 never improves on its greedy seed
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        Map<String, Integer> seeds = new ConcurrentHashMap<>();
+        Batch batch = new Batch(instances, seed -> (instance, deadline) -> {
+            String name = instance.numJobs == 15 ? "la06" : "ft10";
+            calls.computeIfAbsent(name, n -> new AtomicInteger()).incrementAndGet();
+            Result start = seed.solve(instance, deadline);
+            seeds.put(name, start.schedule.makespan());
+            if (name.equals("la06"))
+                return new Result(instance, start.schedule, Result.ExitCause.ProvedOptimal);
+            // waits for the end of its share without improving
+            while (deadline - System.currentTimeMillis() > 1) Thread.yield();
+            return new Result(instance, start.schedule, Result.ExitCause.Timeout);
+        }, 4, 2);
+
+        long start = System.currentTimeMillis();
+        Map<String, Result> results = batch.solve(800);
+        long elapsed = System.currentTimeMillis() - start;
+        assert elapsed >= 700 && elapsed < 1500 : elapsed;
+        assert results.keySet().equals(instances.keySet());
+        // a finished instance is not solved again, the others are solved in every round
+        assert calls.get("la06").get() == 1;
+        assert calls.get("ft10").get() == 4;
+        // later rounds start from the best result so far
+        int greedy = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instances.get("ft10"), 0).schedule.makespan();
+        assert seeds.get("ft10") == greedy && results.get("ft10").schedule.makespan() == greedy;
+        assert batch.runtime("ft10") >= batch.runtime("la06");
+    }
+}
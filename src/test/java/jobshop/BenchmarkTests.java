@@ -0,0 +1,68 @@
+package jobshop;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BenchmarkTests {
+
+    private static Benchmark.Run run(String instance, int makespan, double evaluationsPerSecond, long... timeToTarget) {
+        return new Benchmark.Run("tabou", instance, makespan, 1000, timeToTarget, evaluationsPerSecond);
+    }
+
+    private static List<String> compare(List<Benchmark.Run> runs, List<Benchmark.Run> baseline) {
+        Map<String, Benchmark.Run> base = new LinkedHashMap<>();
+        for (Benchmark.Run run : baseline) base.put(run.key(), run);
+        return Benchmark.compare(runs, base, 0.5, 50, 20, new PrintStream(new ByteArrayOutputStream()));
+    }
+
+    @Test
+    public void testWriteRead() throws Exception {
+        List<Benchmark.Run> runs = Arrays.asList(run("ft06", 1005, 123456, 40, 10, 2), run("la01", 1200, 0.4, -1, -1, 30));
+        Path path = Files.createTempFile("baseline", ".csv");
+        try {
+            Benchmark.write(runs, path);
+            Map<String, Benchmark.Run> read = Benchmark.read(path);
+            assert read.size() == 2;
+            for (Benchmark.Run run : runs) {
+                Benchmark.Run back = read.get(run.key());
+                assert back.solver.equals(run.solver) && back.instance.equals(run.instance);
+                assert back.makespan == run.makespan && back.bestKnown == run.bestKnown;
+                assert Arrays.equals(back.timeToTarget, run.timeToTarget);
+                // the throughput is written rounded to an integer
+                assert back.evaluationsPerSecond == Math.round(run.evaluationsPerSecond);
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testCompare() {
+        List<Benchmark.Run> baseline = Arrays.asList(run("ft06", 1010, 1000, 500, 100, 10), run("la01", 1000, 1000, 200, 50, 5));
+        // the same results, or timing differences within the tolerances, are not regressions
+        assert compare(baseline, baseline).isEmpty();
+        assert compare(Arrays.asList(run("ft06", 1010, 900, 600, 100, 20), run("la01", 1000, 1100, 300, 50, 5)), baseline).isEmpty();
+        // runs missing from the baseline are ignored
+        assert compare(Collections.singletonList(run("ft10", 2000, 1, -1, -1, -1)), baseline).isEmpty();
+
+        List<String> regressions = compare(Arrays.asList(run("ft06", 1030, 1000, -1, 100, 10), run("la01", 1000, 1000, 200, 50, 5)), baseline);
+        assert regressions.size() == 2;
+        assert regressions.get(0).contains("mean gap");
+        assert regressions.get(1).contains("1% of the best known result not reached on ft06");
+
+        regressions = compare(Arrays.asList(run("ft06", 1010, 1000, 500, 200, 10), run("la01", 1000, 1000, 200, 100, 5)), baseline);
+        assert regressions.size() == 1 && regressions.get(0).contains("time to 5%");
+
+        regressions = compare(Arrays.asList(run("ft06", 1010, 500, 500, 100, 10), run("la01", 1000, 700, 200, 50, 5)), baseline);
+        assert regressions.size() == 1 && regressions.get(0).contains("throughput");
+    }
+}
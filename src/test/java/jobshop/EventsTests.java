@@ -0,0 +1,132 @@
+package jobshop;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import jobshop.solvers.DescentSolver;
+import jobshop.solvers.GloutonSolver;
+import jobshop.solvers.TabouInsertionSolver;
+import jobshop.solvers.TabouSolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+public class EventsTests {
+
+    @Test
+    public void testSolverEventsAreRecorded() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Path file = Files.createTempFile("events", ".jfr");
+        try {
+            Result result;
+            try (Recording recording = new Recording()) {
+                recording.enable("jobshop.Solve");
+                recording.enable("jobshop.IterationBatch");
+                recording.enable("jobshop.NeighbourhoodScan");
+                recording.enable("jobshop.Improvement");
+                recording.start();
+                result = Events.solve("tabou", new TabouSolver(250, 10), instance, System.currentTimeMillis() + 10000);
+                recording.stop();
+                recording.dump(file);
+            }
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            int solves = 0, batches = 0, scans = 0, iterations = 0;
+            for (RecordedEvent event : events) {
+                switch (event.getEventType().getName()) {
+                    case "jobshop.Solve":
+                        solves++;
+                        assert event.getString("instance").equals("ft10");
+                        assert event.getString("solver").equals("tabou");
+                        assert event.getInt("makespan") == result.schedule.makespan();
+                        break;
+                    case "jobshop.IterationBatch":
+                        batches++;
+                        iterations += event.getInt("iterations");
+                        break;
+                    case "jobshop.NeighbourhoodScan":
+                        scans++;
+                        assert event.getInt("evaluated") <= event.getInt("neighbours");
+                        break;
+                }
+            }
+            assert solves == 1;
+            // one scan per iteration, iterations grouped by batches of 100
+            assert scans == iterations;
+            assert batches == (iterations + Events.IterationBatch.SIZE - 1) / Events.IterationBatch.SIZE;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testFineEventsDisabledByDefault() throws Exception {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        Path file = Files.createTempFile("events", ".jfr");
+        try {
+            // the JDK default settings record the solver calls, not the iterations nor the improvements
+            try (Recording recording = new Recording(Configuration.getConfiguration("default"))) {
+                recording.start();
+                Events.solve("tabou", new TabouSolver(250, 10), instance, System.currentTimeMillis() + 10000);
+                recording.stop();
+                recording.dump(file);
+            }
+            int solves = 0;
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                String name = event.getEventType().getName();
+                if (name.equals("jobshop.Solve")) solves++;
+                else assert !name.startsWith("jobshop.") : name;
+            }
+            assert solves == 1;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /** Runs the solver in a recording and returns the number of iterations in the batches and in the scans. */
+    private static int[] iterations(Solver solver, Instance instance) throws IOException {
+        Path file = Files.createTempFile("events", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("jobshop.IterationBatch");
+                recording.enable("jobshop.NeighbourhoodScan");
+                recording.start();
+                solver.solve(instance, System.currentTimeMillis() + 10000);
+                recording.stop();
+                recording.dump(file);
+            }
+            int[] iterations = new int[2];
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().equals("jobshop.IterationBatch"))
+                    iterations[0] += event.getInt("iterations");
+                else if (event.getEventType().getName().equals("jobshop.NeighbourhoodScan"))
+                    iterations[1]++;
+            }
+            return iterations;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testBatchClosedAtLowerBound() throws IOException {
+        // the descent of la13 stops at the lower bound: the last batch is committed all the same
+        Instance instance = Instance.fromFile(Paths.get("instances/la13"));
+        int[] iterations = iterations(new DescentSolver(new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT)), instance);
+        assert iterations[1] > 0;
+        assert iterations[0] == iterations[1];
+    }
+
+    @Test
+    public void testInsertionBatchClosedAtLowerBound() throws IOException {
+        // the insertion tabu search reaches the lower bound of la07
+        Instance instance = Instance.fromFile(Paths.get("instances/la07"));
+        int[] iterations = iterations(new TabouInsertionSolver(100000, 10, 5), instance);
+        assert iterations[1] > 0;
+        assert iterations[0] == iterations[1];
+    }
+}
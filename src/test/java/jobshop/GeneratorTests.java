@@ -0,0 +1,62 @@
+package jobshop;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class GeneratorTests {
+
+    private static boolean sameInstance(Instance a, Instance b) {
+        if (a.numJobs != b.numJobs || a.numTasks != b.numTasks) return false;
+        for (int job = 0; job < a.numJobs; job++) {
+            for (int task = 0; task < a.numTasks; task++) {
+                if (a.machine(job, task) != b.machine(job, task)) return false;
+                if (a.duration(job, task) != b.duration(job, task)) return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testTaillardSeeds() throws IOException {
+        // seeds published by Taillard for ta01
+        assert sameInstance(Generator.taillard(15, 15, 840612802, 398197754), Instance.fromFile(Paths.get("instances/ta01")));
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Instance instance = Generator.taillard(30, 12, 12345, 6789, 5, 500);
+        Path file = Files.createTempFile("generated", "");
+        try {
+            Generator.write(instance, file, "30x12 test instance");
+            assert sameInstance(instance, Instance.fromFile(file));
+        } finally {
+            Files.delete(file);
+        }
+
+        // same seeds, same text
+        StringWriter a = new StringWriter();
+        StringWriter b = new StringWriter();
+        Generator.write(instance, a, null);
+        Generator.write(Generator.taillard(30, 12, 12345, 6789, 5, 500), b, null);
+        assert a.toString().equals(b.toString());
+    }
+
+    @Test
+    public void testLargeInstance() {
+        Instance instance = Generator.taillard(500, 50, 1, 2);
+        for (int job = 0; job < instance.numJobs; job++) {
+            boolean[] used = new boolean[instance.numMachines];
+            for (int task = 0; task < instance.numTasks; task++) {
+                int duration = instance.duration(job, task);
+                assert duration >= 1 && duration <= 99;
+                used[instance.machine(job, task)] = true;
+            }
+            for (boolean u : used) assert u;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package jobshop;
+
+import jobshop.solvers.IslandSolver;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class IslandTests {
+
+    @Test
+    public void testRunWithWorkerProcesses() throws Exception {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Path directory = Files.createTempDirectory("islands");
+        try {
+            // a solution left by a previous run is removed
+            Files.write(directory.resolve("island-7.elite"), new byte[]{1, 2, 3});
+            long deadline = System.currentTimeMillis() + 3000;
+            Optional<Result> best = Island.run("ft10", instance, 2, deadline, directory, 100, 10, 3);
+            // the workers exit at their deadline, well before the grace period ends
+            assert System.currentTimeMillis() < deadline + Island.GRACE_MS;
+            assert best.isPresent() && best.get().schedule.isValid();
+            try (Stream<Path> files = Files.list(directory)) {
+                assert files.filter(f -> f.toString().endsWith(".elite")).count() == 2;
+            }
+            for (int id = 0; id < 2; id++) {
+                Optional<Result> published = IslandSolver.read(directory.resolve("island-" + id + ".elite"), instance);
+                assert published.isPresent();
+                assert best.get().schedule.makespan() <= published.get().schedule.makespan();
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toArray(Path[]::new))
+                    Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package jobshop;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class LowerBoundTests {
+
+    @Test
+    public void testBoundsOnAaa1() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+
+        assert LowerBound.jobLength(instance) <= LowerBound.of(instance);
+        assert LowerBound.machineLoad(instance) <= LowerBound.jackson(instance);
+        // the optimal makespan of aaa1 is 11
+        assert LowerBound.of(instance) <= 11;
+    }
+
+    @Test
+    public void testPreemptive() {
+        // a single task: head + duration + tail
+        assert LowerBound.preemptive(new int[]{3}, new int[]{2}, new int[]{4}) == 9;
+        // the second task is released later but has a longer tail and preempts the first one
+        assert LowerBound.preemptive(new int[]{0, 1}, new int[]{4, 2}, new int[]{0, 10}) == 13;
+    }
+
+    @Test
+    public void testBoundsAreValid() throws IOException {
+        for (String name : BestKnownResult.instances) {
+            Instance instance = Instance.fromFile(Paths.get("instances/", name));
+            assert LowerBound.of(instance) <= BestKnownResult.of(name) : name;
+        }
+    }
+}
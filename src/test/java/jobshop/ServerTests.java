@@ -0,0 +1,96 @@
+package jobshop;
+
+import jobshop.solvers.GloutonSolver;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ServerTests {
+
+    @Test
+    public void testRequestParsing() {
+        Server server = new Server(1, 100);
+        try {
+            assert server.answer("1 glouton-EST_LRPT").equals("1 error expected: ID SOLVER INSTANCE [TIMEOUT_MS]");
+            assert server.answer("2 glouton-EST_LRPT ft06 10 20").startsWith("2 error expected");
+            assert server.answer("3 nosuchsolver ft06").equals("3 error unknown solver nosuchsolver");
+            assert server.answer("4 glouton-EST_LRPT nosuchinstance").equals("4 error cannot read instance nosuchinstance");
+            assert server.answer("5 glouton-EST_LRPT ../instances/ft06").startsWith("5 error cannot read instance");
+            assert server.answer("6 glouton-EST_LRPT ft06 soon").equals("6 error invalid timeout soon");
+
+            // ID ok INSTANCE SOLVER MAKESPAN RUNTIME_MS CAUSE
+            String[] words = server.answer("  7   glouton-EST_LRPT ft06 50 ").split(" ");
+            assert words.length == 7;
+            assert words[0].equals("7") && words[1].equals("ok") && words[2].equals("ft06") && words[3].equals("glouton-EST_LRPT");
+            assert Integer.parseInt(words[4]) >= 55;
+            assert Long.parseLong(words[5]) >= 0;
+            assert Result.ExitCause.valueOf(words[6]) != null;
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testServeAnswersEveryRequestUntilQuit() throws IOException, InterruptedException {
+        Server server = new Server(2, 100);
+        try {
+            StringWriter output = new StringWriter();
+            server.serve(new BufferedReader(new StringReader("a descent ft06\n\nb glouton-SPT ft10 50\nc bad\nquit\nd descent ft06\n")),
+                    new PrintWriter(output));
+            List<String> answers = Arrays.asList(output.toString().trim().split("\n"));
+            // answered in completion order, nothing after quit
+            assert answers.size() == 3;
+            assert answers.stream().anyMatch(a -> a.startsWith("a ok ft06 descent "));
+            assert answers.stream().anyMatch(a -> a.startsWith("b ok ft10 glouton-SPT "));
+            assert answers.stream().anyMatch(a -> a.startsWith("c error "));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentBruteForceRequestsHonourTheirTimeout() throws IOException, InterruptedException {
+        // the enumeration of ft06 never finishes: each request stops at its own timeout, concurrently
+        Server server = new Server(2, 100);
+        try {
+            StringWriter output = new StringWriter();
+            long start = System.currentTimeMillis();
+            server.serve(new BufferedReader(new StringReader("a brute_force_jn ft06 300\nb brute_force_jn ft06 300\n")),
+                    new PrintWriter(output));
+            assert System.currentTimeMillis() - start < 3000;
+            String[] answers = output.toString().trim().split("\n");
+            assert answers.length == 2;
+            for (String answer : answers)
+                assert answer.contains(" ok ft06 brute_force_jn ") && answer.endsWith(" Timeout") : answer;
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testEachRequestHasItsOwnSolver() throws IOException, InterruptedException {
+        AtomicInteger built = new AtomicInteger();
+        Main.solverFactories.put("test-counted", () -> {
+            built.incrementAndGet();
+            return new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT);
+        });
+        Server server = new Server(2, 100);
+        try {
+            StringWriter output = new StringWriter();
+            server.serve(new BufferedReader(new StringReader("a test-counted ft06\nb test-counted ft06\nc test-counted la01\n")),
+                    new PrintWriter(output));
+            assert output.toString().trim().split("\n").length == 3;
+            assert built.get() == 3;
+        } finally {
+            server.shutdown();
+            Main.solverFactories.remove("test-counted");
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package jobshop;
+
+import jobshop.encodings.ResourceOrder;
+import jobshop.solvers.DescentSolver;
+import jobshop.solvers.GloutonSolver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+public class SolutionStoreTests {
+
+    @Test
+    public void testOfferAndReload() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        Schedule greedy = new GloutonSolver(GloutonSolver.GloutonPriority.SPT).solve(instance, 0).schedule;
+        Schedule better = new DescentSolver().solve(instance, System.currentTimeMillis() + 1000).schedule;
+        assert better.makespan() < greedy.makespan();
+
+        Path file = Files.createTempFile("store", "");
+        try {
+            try (SolutionStore store = new SolutionStore(file)) {
+                assert !store.best("ft06", instance).isPresent();
+                boolean first = store.offer("ft06", instance, greedy);
+                boolean improved = store.offer("ft06", instance, better);
+                // not better than the stored solution: not written
+                boolean worse = store.offer("ft06", instance, greedy);
+                assert first && improved && !worse;
+            }
+            long size = Files.size(file);
+            try (SolutionStore store = new SolutionStore(file)) {
+                assert store.size() == 1;
+                ResourceOrder order = store.best("ft06", instance).get();
+                assert order.toSchedule().makespan() == better.makespan();
+                // same content under another name
+                assert store.best(instance).isPresent();
+                assert !store.best("other", instance).isPresent();
+                // the seed solver returns the stored solution when it is better than the fallback
+                Solver seed = store.seed(new GloutonSolver(GloutonSolver.GloutonPriority.SPT));
+                assert seed.solve(instance, 0).schedule.makespan() == better.makespan();
+
+                store.compact();
+                assert Files.size(file) < size;
+            }
+            try (SolutionStore store = new SolutionStore(file)) {
+                assert store.best("ft06", instance).get().toSchedule().makespan() == better.makespan();
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testCompactOnOpen() throws IOException {
+        Instance ft06 = Instance.fromFile(Paths.get("instances/ft06"));
+        Instance la01 = Instance.fromFile(Paths.get("instances/la01"));
+        Path file = Files.createTempFile("store", "");
+        try {
+            Map<String, Integer> bestMakespan = new HashMap<>();
+            try (SolutionStore store = new SolutionStore(file)) {
+                for (Instance instance : Arrays.asList(ft06, la01)) {
+                    String name = instance == ft06 ? "ft06" : "la01";
+                    // the greedy solutions from the worst to the best, then the descent: each one is written
+                    List<Schedule> schedules = new ArrayList<>();
+                    for (GloutonSolver.GloutonPriority priority : GloutonSolver.GloutonPriority.values())
+                        schedules.add(new GloutonSolver(priority).solve(instance, 0).schedule);
+                    schedules.add(new DescentSolver().solve(instance, System.currentTimeMillis() + 1000).schedule);
+                    schedules.sort(Comparator.comparingInt(Schedule::makespan).reversed());
+                    for (Schedule schedule : schedules)
+                        store.offer(name, instance, schedule);
+                    bestMakespan.put(name, schedules.get(schedules.size() - 1).makespan());
+                }
+                assert store.records() > 4;
+            }
+            int records;
+            long size = Files.size(file);
+            // below the threshold, the file is left as is
+            try (SolutionStore store = new SolutionStore(file, 1000)) {
+                records = store.records();
+                assert Files.size(file) == size;
+            }
+            try (SolutionStore store = new SolutionStore(file, records - 3)) {
+                assert store.records() == 2;
+                assert Files.size(file) < size;
+            }
+            // exactly the best record of each instance is left
+            try (SolutionStore store = new SolutionStore(file, 1000)) {
+                assert store.records() == 2 && store.size() == 2;
+                assert store.best("ft06", ft06).get().toSchedule().makespan() == bestMakespan.get("ft06");
+                assert store.best("la01", la01).get().toSchedule().makespan() == bestMakespan.get("la01");
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testTornRecord() throws IOException {
+        Instance ft06 = Instance.fromFile(Paths.get("instances/ft06"));
+        Instance la01 = Instance.fromFile(Paths.get("instances/la01"));
+        Path file = Files.createTempFile("store", "");
+        try {
+            try (SolutionStore store = new SolutionStore(file)) {
+                store.offer("ft06", ft06, new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(ft06, 0).schedule);
+            }
+            long valid = Files.size(file);
+            try (SolutionStore store = new SolutionStore(file)) {
+                store.offer("la01", la01, new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(la01, 0).schedule);
+            }
+            // crash in the middle of the second append
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(Files.size(file) - 7);
+            }
+            try (SolutionStore store = new SolutionStore(file)) {
+                assert store.size() == 1;
+                assert store.best("ft06", ft06).isPresent();
+                assert !store.best("la01", la01).isPresent();
+                assert Files.size(file) == valid;
+                // appends after the cut are readable
+                store.offer("la01", la01, new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(la01, 0).schedule);
+            }
+            try (SolutionStore store = new SolutionStore(file)) {
+                assert store.size() == 2;
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package jobshop;
+
+import jobshop.solvers.GloutonSolver;
+import jobshop.solvers.TabouSolver;
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class TuningTests {
+
+    @Test
+    public void testExpand() {
+        assert Tuning.expand("0:20:10").equals(Arrays.asList("0", "10", "20"));
+        assert Tuning.expand("3:5").equals(Arrays.asList("3", "4", "5"));
+        // the end is included only when a step reaches it
+        assert Tuning.expand("1:10:4").equals(Arrays.asList("1", "5", "9"));
+        assert Tuning.expand("7").equals(Collections.singletonList("7"));
+        assert Tuning.expand("EST_LRPT").equals(Collections.singletonList("EST_LRPT"));
+        try {
+            Tuning.expand("0:10:0");
+            assert false;
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testGrid() {
+        List<List<String>> values = Arrays.asList(Tuning.expand("100:200:100"), Tuning.expand("5:15:5"));
+        Constructor<?> constructor = Tuning.constructor(TabouSolver.class, values);
+        assert constructor.getParameterCount() == 2;
+        List<Tuning.Config> grid = Tuning.grid(constructor, values);
+        assert grid.size() == 6;
+        // the last parameter varies fastest, arguments are parsed to the parameter types
+        assert grid.get(0).name().equals("100 5");
+        assert grid.get(1).name().equals("100 10");
+        assert grid.get(3).name().equals("200 5");
+        assert grid.get(5).args[0].equals(200) && grid.get(5).args[1].equals(15);
+
+        // enum values select the constructor that takes the enum
+        List<List<String>> priorities = Collections.singletonList(Arrays.asList("SPT", "EST_LRPT"));
+        grid = Tuning.grid(Tuning.constructor(GloutonSolver.class, priorities), priorities);
+        assert grid.get(1).args[0] == GloutonSolver.GloutonPriority.EST_LRPT;
+        try {
+            Tuning.constructor(GloutonSolver.class, Collections.singletonList(Collections.singletonList("NOPE")));
+            assert false;
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /** A solver whose constructors all accept an integer value. */
+    public static class Widening implements Solver {
+        public Widening(double d) {}
+        public Widening(long l) {}
+        public Widening(int i) {}
+        public Result solve(Instance instance, long deadline) { return null; }
+    }
+
+    /** A solver whose constructors accept two integers, neither with narrower types than the other. */
+    public static class Crossed implements Solver {
+        public Crossed(int i, double d) {}
+        public Crossed(double d, int i) {}
+        public Result solve(Instance instance, long deadline) { return null; }
+    }
+
+    @Test
+    public void testNarrowestConstructor() {
+        List<List<String>> values = Collections.singletonList(Collections.singletonList("5"));
+        assert Arrays.equals(Tuning.constructor(Widening.class, values).getParameterTypes(), new Class<?>[]{int.class});
+        values = Collections.singletonList(Arrays.asList("5", "5000000000"));
+        assert Arrays.equals(Tuning.constructor(Widening.class, values).getParameterTypes(), new Class<?>[]{long.class});
+        values = Collections.singletonList(Arrays.asList("5", "0.5"));
+        assert Arrays.equals(Tuning.constructor(Widening.class, values).getParameterTypes(), new Class<?>[]{double.class});
+        try {
+            Tuning.constructor(Crossed.class, Arrays.asList(Collections.singletonList("1"), Collections.singletonList("2")));
+            assert false;
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        // a single match is not ambiguous
+        List<List<String>> crossed = Arrays.asList(Collections.singletonList("1"), Collections.singletonList("0.5"));
+        assert Tuning.constructor(Crossed.class, crossed).getParameterTypes()[0] == int.class;
+    }
+
+    /** The seeds given to the solvers built by Tuning. */
+    static final List<Solver> seeds = Collections.synchronizedList(new ArrayList<>());
+
+    /** A solver that records its seed and returns the seed's solution. */
+    public static class Seeded implements Solver {
+        private final Solver seed;
+        public Seeded(Solver seed) { this.seed = seed; seeds.add(seed); }
+        public Result solve(Instance instance, long deadline) { return seed.solve(instance, deadline); }
+    }
+
+    @Test
+    public void testSolverArgumentsPerRun() throws Exception {
+        List<List<String>> values = Collections.singletonList(Collections.singletonList("glouton-SPT"));
+        Constructor<?> constructor = Tuning.constructor(Seeded.class, values);
+        Tuning tuning = new Tuning(constructor, Tuning.grid(constructor, values), 2, 1000);
+        seeds.clear();
+        tuning.run(Arrays.asList("ft06", "la01", "la06"), 2, 0.0);
+        // one new seed for each run, none of them shared with Main.solvers
+        assert seeds.size() == 3;
+        assert new HashSet<>(seeds).size() == 3;
+        assert !seeds.contains(Main.solvers.get("glouton-SPT"));
+    }
+
+    private static Tuning.Config config(String name, int droppedAfter, double... gaps) {
+        Tuning.Config config = new Tuning.Config(new String[]{name}, new Object[]{name});
+        for (double gap : gaps) config.gaps.add(gap);
+        config.droppedAfter = droppedAfter;
+        return config;
+    }
+
+    @Test
+    public void testRanking() {
+        Tuning.Config running = config("running", 0, 8, 8, 8, 8);
+        Tuning.Config runningBest = config("runningBest", 0, 1, 2, 3, 2);
+        Tuning.Config droppedLate = config("droppedLate", 3, 5, 5, 5);
+        Tuning.Config droppedEarly = config("droppedEarly", 2, 0, 1);
+        Tuning tuning = new Tuning(null, Arrays.asList(droppedEarly, running, droppedLate, runningBest), 1, 0);
+        // configurations still running first, then those dropped later, a dropped one is never ranked
+        // above a running one even with a better mean on the instances it saw
+        assert tuning.ranking().equals(Arrays.asList(runningBest, running, droppedLate, droppedEarly));
+    }
+
+    @Test
+    public void testRacing() throws Exception {
+        List<List<String>> values = Collections.singletonList(Arrays.asList("SPT", "LPT", "SRPT", "LRPT", "EST_SPT", "EST_LRPT"));
+        Constructor<?> constructor = Tuning.constructor(GloutonSolver.class, values);
+        List<Tuning.Config> configs = Tuning.grid(constructor, values);
+        Tuning tuning = new Tuning(constructor, configs, 2, 1000);
+        tuning.run(Arrays.asList("ft06", "ft10", "la01", "la06"), 2, 0.0);
+
+        List<Tuning.Config> ranked = tuning.ranking();
+        Tuning.Config best = ranked.get(0);
+        assert best.droppedAfter == 0 && best.gaps.size() == 4;
+        int running = 0;
+        for (Tuning.Config c : configs) {
+            if (c.droppedAfter == 0) {
+                running++;
+                assert c.gaps.size() == 4 && c.runtimes.size() == 4;
+                assert c.meanGap() == best.meanGap();
+            } else {
+                // not dropped before racing starts, and not evaluated once dropped
+                assert c.droppedAfter >= 2 && c.gaps.size() == c.droppedAfter;
+            }
+        }
+        // with no margin, only the configurations tied with the best one keep running
+        assert running < configs.size();
+    }
+}
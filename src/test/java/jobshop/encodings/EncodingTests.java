@@ -5,10 +5,15 @@ import jobshop.Result;
 import jobshop.Schedule;
 import jobshop.Solver;
 import jobshop.solvers.BasicSolver;
+import jobshop.solvers.GloutonSolver;
+import jobshop.solvers.RandomSolver;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 
 public class EncodingTests {
 
@@ -114,4 +119,92 @@ public class EncodingTests {
         assert result.schedule.makespan() == sched.makespan(); // should have the same makespan
     }
 
+    @Test
+    public void testTaskWithMachine() throws IOException {
+        // job 0 visits machine 1 twice and never machine 2
+        Path file = Files.createTempFile("instance", "");
+        try {
+            Files.write(file, Arrays.asList("2 3", "1 3 0 2 1 4", "2 1 0 2 1 3"));
+            Instance instance = Instance.fromFile(file);
+            assert instance.task_with_machine(0, 1) == 0;
+            assert instance.task_with_machine(0, 0) == 1;
+            assert instance.task_with_machine(1, 1) == 2;
+            for (int machine : new int[]{2, 3, -1}) {
+                try {
+                    instance.task_with_machine(0, machine);
+                    assert false;
+                } catch (RuntimeException e) {
+                    assert e.getMessage().startsWith("No task targeting machine " + machine);
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testFlatLayout() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+        for (int j = 0; j < instance.numJobs; j++) {
+            for (int t = 0; t < instance.numTasks; t++) {
+                int op = instance.op(j, t);
+                assert instance.duration(op) == instance.duration(j, t);
+                assert instance.machine(op) == instance.machine(j, t);
+                assert instance.task_with_machine(j, instance.machine(op)) == t;
+            }
+        }
+
+        // the same start times given as rows (copied) or as a flat buffer (wrapped)
+        int[][] rows = {{0, 3, 6}, {0, 3, 8}};
+        int[] flat = {0, 3, 6, 0, 3, 8};
+        Schedule copied = new Schedule(instance, rows);
+        Schedule wrapped = Schedule.wrap(instance, flat);
+        rows[0][0] = 42;
+        for (int j = 0; j < instance.numJobs; j++)
+            for (int t = 0; t < instance.numTasks; t++)
+                assert copied.startTime(j, t) == wrapped.startTime(instance.op(j, t));
+        assert copied.makespan() == wrapped.makespan();
+    }
+
+    @Test
+    public void testConversionsFromSchedule() throws IOException {
+        for (String name : new String[] {"aaa1", "ft06", "ft10", "la21"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/" + name));
+            for (Solver solver : new Solver[] {new BasicSolver(), new RandomSolver(),
+                    new GloutonSolver(GloutonSolver.GloutonPriority.SPT)}) {
+                Schedule sched = solver.solve(instance, System.currentTimeMillis() + 10).schedule;
+
+                // reference: next task of the job that starts first, ties broken by job number
+                JobNumbers jn = new JobNumbers(sched);
+                int[] nextOnJob = new int[instance.numJobs];
+                for (int i = 0; i < jn.jobs.length; i++) {
+                    int best = -1;
+                    for (int j = 0; j < instance.numJobs; j++) {
+                        if (nextOnJob[j] < instance.numTasks && (best == -1
+                                || sched.startTime(j, nextOnJob[j]) < sched.startTime(best, nextOnJob[best])))
+                            best = j;
+                    }
+                    assert jn.jobs[i] == best;
+                    nextOnJob[best]++;
+                }
+                assert jn.toSchedule().makespan() == sched.makespan();
+
+                // reference: tasks of each machine sorted by start time, ties broken by job number
+                ResourceOrder ro = new ResourceOrder(sched);
+                for (int m = 0; m < instance.numMachines; m++) {
+                    assert ro.nextFreeSlot[m] == instance.numJobs;
+                    for (int i = 0; i < instance.numJobs; i++) {
+                        Task t = ro.tasksByMachine[m][i];
+                        assert instance.machine(t) == m;
+                        if (i > 0) {
+                            Task p = ro.tasksByMachine[m][i - 1];
+                            assert sched.startTime(p) < sched.startTime(t)
+                                    || (sched.startTime(p) == sched.startTime(t) && p.job < t.job);
+                        }
+                    }
+                }
+                assert ro.toSchedule().makespan() == sched.makespan();
+            }
+        }
+    }
 }
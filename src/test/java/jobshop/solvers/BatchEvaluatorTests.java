@@ -0,0 +1,53 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.encodings.JobNumbers;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class BatchEvaluatorTests {
+
+    @Test
+    public void testSameMakespanAsSchedule() throws IOException {
+        for (String name : new String[] {"aaa1", "ft06", "la21", "ta41"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/" + name));
+            BatchEvaluator evaluator = new BatchEvaluator(instance, 8);
+            Random generator = new Random(0);
+            JobNumbers[] sequences = new JobNumbers[8];
+            for (int lane = 0; lane < 8; lane++) {
+                sequences[lane] = new JobNumbers(instance);
+                for (int i = 0; i < sequences[lane].jobs.length; i++)
+                    sequences[lane].jobs[sequences[lane].nextToSet++] = i / instance.numTasks;
+                for (int i = sequences[lane].jobs.length - 1; i > 0; i--) {
+                    int k = generator.nextInt(i + 1);
+                    int tmp = sequences[lane].jobs[k];
+                    sequences[lane].jobs[k] = sequences[lane].jobs[i];
+                    sequences[lane].jobs[i] = tmp;
+                }
+                evaluator.set(lane, sequences[lane].jobs);
+            }
+            // a partial batch, then a full one
+            for (int count : new int[] {5, 8}) {
+                int[] makespans = evaluator.evaluate(count);
+                for (int lane = 0; lane < count; lane++)
+                    assert makespans[lane] == sequences[lane].toSchedule().makespan();
+            }
+            int[] copy = new int[instance.numJobs * instance.numTasks];
+            evaluator.get(3, copy);
+            assert java.util.Arrays.equals(copy, sequences[3].jobs);
+        }
+    }
+
+    @Test
+    public void testBruteForce() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+        Result result = new BruteForceSolver(true).solve(instance, System.currentTimeMillis() + 60000);
+        assert result.schedule.isValid();
+        // the optimal makespan of aaa1 is 11
+        assert result.schedule.makespan() == 11;
+    }
+}
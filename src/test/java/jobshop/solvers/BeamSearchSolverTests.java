@@ -0,0 +1,48 @@
+package jobshop.solvers;
+
+import jobshop.Generator;
+import jobshop.Instance;
+import jobshop.Result;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class BeamSearchSolverTests {
+
+    @Test
+    public void testValidAndNotWorseThanGreedy() throws IOException {
+        for (String name : new String[]{"ft06", "ft10"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/" + name));
+            Result greedy = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, System.currentTimeMillis() + 1000);
+            Result result = new BeamSearchSolver(1, 64, 2).solve(instance, System.currentTimeMillis() + 5000);
+            assert result.schedule.isValid();
+            assert result.schedule.makespan() <= greedy.schedule.makespan();
+        }
+    }
+
+    @Test
+    public void testAncestorsKeepNoState() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        BeamSearchSolver.Node root = new BeamSearchSolver.Node(instance);
+        BeamSearchSolver.Node child = new BeamSearchSolver.Node(instance, root, 0, new int[instance.numJobs][instance.numTasks]);
+        // a child gets its state from its parent only when it is kept in the beam
+        assert child.nextTask == null;
+        child.expand(instance);
+        root.release();
+        assert child.nextTask[0] == 1 && root.nextTask == null;
+        assert child.bound >= root.bound;
+    }
+
+    @Test
+    public void testZeroDurations() {
+        // a ready task of duration 0 can start exactly when the earliest task ends: it is still a candidate
+        for (long seed = 1; seed <= 5; seed++) {
+            Instance instance = Generator.taillard(8, 5, seed, seed + 100, 0, 3);
+            Result greedy = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, System.currentTimeMillis() + 1000);
+            Result result = new BeamSearchSolver(1, 16, 2).solve(instance, System.currentTimeMillis() + 2000);
+            assert result.schedule.isValid();
+            assert result.schedule.makespan() <= greedy.schedule.makespan();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.encodings.ResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+public class DisjunctiveGraphTests {
+
+    @Test
+    public void testSameScheduleAsResourceOrder() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Result result = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, System.currentTimeMillis() + 10);
+        ResourceOrder order = new ResourceOrder(result.schedule);
+
+        DisjunctiveGraph graph = new DisjunctiveGraph(order);
+        Schedule sched = graph.toSchedule();
+        assert sched.isValid();
+        assert graph.makespan() == result.schedule.makespan();
+        assert graph.evaluate() == graph.makespan();
+        assert graph.toResourceOrder().toSchedule().makespan() == graph.makespan();
+    }
+
+    @Test
+    public void testSwapEstimate() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Result result = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, System.currentTimeMillis() + 10);
+        DisjunctiveGraph graph = new DisjunctiveGraph(new ResourceOrder(result.schedule));
+
+        List<Utils.Block> blocks = graph.blocksOfCriticalPath();
+        assert !blocks.isEmpty();
+        for (Utils.Block block : blocks) {
+            for (Utils.Swap swap : Utils.neighbors(block)) {
+                int estimate = graph.estimateSwap(swap.machine, swap.t1);
+                // exact evaluation with the resource order
+                ResourceOrder copy = graph.toResourceOrder();
+                swap.applyOn(copy);
+                int makespan = copy.toSchedule().makespan();
+                // same evaluation on the graph
+                swap.applyOn(graph);
+                assert graph.evaluate() == makespan;
+                swap.applyOn(graph);
+                // the estimate is a lower bound of the new makespan
+                assert estimate <= makespan;
+            }
+        }
+    }
+
+    @Test
+    public void testInsertions() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Result result = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, System.currentTimeMillis() + 10);
+        DisjunctiveGraph graph = new DisjunctiveGraph(new ResourceOrder(result.schedule));
+
+        for (Utils.Block block : graph.blocksOfCriticalPath()) {
+            for (Utils.Insertion insertion : Utils.insertions(block)) {
+                ResourceOrder copy = graph.toResourceOrder();
+                insertion.applyOn(copy);
+                Schedule sched = copy.toSchedule();
+
+                int estimate = graph.estimateMove(insertion.machine, insertion.from, insertion.to);
+                insertion.applyOn(graph);
+                int makespan = graph.evaluate();
+                insertion.reverse().applyOn(graph);
+                // the graph is back to its original sequences
+                assert graph.evaluate() == graph.makespan();
+
+                if (sched == null) {
+                    // the insertion creates a cycle
+                    assert makespan == -1;
+                } else {
+                    assert makespan == sched.makespan();
+                    if (Math.abs(insertion.from - insertion.to) == 1)
+                        assert estimate == graph.estimateSwap(insertion.machine, Math.min(insertion.from, insertion.to));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.encodings.ResourceOrder;
+import jobshop.encodings.Task;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class EvaluationCacheTests {
+
+    @Test
+    public void testHitsAndMisses() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Result result = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, System.currentTimeMillis() + 10);
+        ResourceOrder order = new ResourceOrder(result.schedule);
+        EvaluationCache cache = new EvaluationCache(1024);
+
+        assert cache.makespan(order) == result.schedule.makespan();
+        assert cache.misses() == 1 && cache.hits() == 0;
+        // an equal order built separately has the same hash
+        assert order.copy().hash64() == order.hash64();
+        assert cache.makespan(order.copy()) == result.schedule.makespan();
+        assert cache.hits() == 1;
+
+        for (Utils.Block block : Utils.blocksOfCriticalPath(order)) {
+            for (Utils.Swap swap : Utils.neighbors(block)) {
+                swap.applyOn(order);
+                int makespan = cache.makespan(order);
+                assert makespan == order.toSchedule().makespan();
+                swap.applyOn(order);
+            }
+        }
+        assert cache.hitRate() > 0 && cache.hitRate() < 1;
+    }
+
+    @Test
+    public void testCycleAndEviction() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/aaa1"));
+        ResourceOrder order = new ResourceOrder(instance);
+        // machine 0: (0, 0) then (1, 1); machine 1: (1, 0) then (0, 1); machine 2: (0, 2) then (1, 2)
+        Task[][] tasks = {
+                {new Task(0, 0), new Task(1, 1)},
+                {new Task(1, 0), new Task(0, 1)},
+                {new Task(0, 2), new Task(1, 2)}};
+        for (int m = 0; m < instance.numMachines; m++) {
+            order.tasksByMachine[m][0] = tasks[m][0];
+            order.tasksByMachine[m][1] = tasks[m][1];
+            order.nextFreeSlot[m] = 2;
+        }
+        EvaluationCache cache = new EvaluationCache(16);
+        int makespan = cache.makespan(order);
+        assert makespan == order.toSchedule().makespan();
+
+        // swapping both machines creates a cycle
+        new Utils.Swap(0, 0, 1).applyOn(order);
+        new Utils.Swap(1, 0, 1).applyOn(order);
+        assert order.toSchedule() == null;
+        assert cache.makespan(order) == -1;
+        assert cache.makespan(order) == -1;
+        assert cache.hits() == 1;
+
+        // the cache never holds more entries than its capacity
+        EvaluationCache small = new EvaluationCache(16);
+        Result result = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(
+                Instance.fromFile(Paths.get("instances/ft10")), System.currentTimeMillis() + 10);
+        ResourceOrder ft10 = new ResourceOrder(result.schedule);
+        for (int m = 0; m < 10; m++) {
+            for (int i = 0; i < 9; i++) {
+                new Utils.Swap(m, i, i + 1).applyOn(ft10);
+                small.makespan(ft10);
+            }
+        }
+        assert small.misses() > 16;
+        assert small.size() <= 16;
+    }
+}
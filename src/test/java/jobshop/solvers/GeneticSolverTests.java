@@ -0,0 +1,106 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.encodings.JobNumbers;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+public class GeneticSolverTests {
+
+    // each job numTasks times, in random order
+    private static int[] randomChromosome(int numJobs, int numTasks, Random generator) {
+        int[] jobs = new int[numJobs * numTasks];
+        for (int i = 0; i < jobs.length; i++)
+            jobs[i] = i % numJobs;
+        for (int i = jobs.length - 1; i > 0; i--) {
+            int k = generator.nextInt(i + 1);
+            int job = jobs[i];
+            jobs[i] = jobs[k];
+            jobs[k] = job;
+        }
+        return jobs;
+    }
+
+    private static boolean isPermutation(int[] jobs, int numJobs, int numTasks) {
+        int[] count = new int[numJobs];
+        for (int job : jobs) {
+            if (job < 0 || job >= numJobs) return false;
+            count[job]++;
+        }
+        for (int c : count)
+            if (c != numTasks) return false;
+        return true;
+    }
+
+    @Test
+    public void testCrossoversProduceValidPermutations() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Random generator = new Random(0);
+        for (int k = 0; k < 200; k++) {
+            int[] p1 = randomChromosome(instance.numJobs, instance.numTasks, generator);
+            int[] p2 = randomChromosome(instance.numJobs, instance.numTasks, generator);
+
+            int[] jox = GeneticSolver.jox(p1, p2, instance.numJobs, new Random(k));
+            assert isPermutation(jox, instance.numJobs, instance.numTasks);
+            // the jobs kept (same draws as jox) are at their positions of the first parent, the other
+            // positions hold the other jobs in the order of the second parent
+            Random draws = new Random(k);
+            boolean[] kept = new boolean[instance.numJobs];
+            for (int j = 0; j < instance.numJobs; j++)
+                kept[j] = draws.nextBoolean();
+            int next = 0;
+            for (int i = 0; i < p1.length; i++) {
+                if (kept[p1[i]]) {
+                    assert jox[i] == p1[i];
+                } else {
+                    while (kept[p2[next]]) next++;
+                    assert jox[i] == p2[next++];
+                }
+            }
+
+            int[] ppx = GeneticSolver.ppx(p1, p2, instance.numJobs, generator);
+            assert isPermutation(ppx, instance.numJobs, instance.numTasks);
+
+            JobNumbers child = new JobNumbers(instance);
+            System.arraycopy(ppx, 0, child.jobs, 0, ppx.length);
+            child.nextToSet = ppx.length;
+            assert child.toSchedule().isValid();
+        }
+        // crossing a chromosome with itself gives it back
+        int[] p = randomChromosome(instance.numJobs, instance.numTasks, generator);
+        assert Arrays.equals(GeneticSolver.jox(p, p, instance.numJobs, generator), p);
+        assert Arrays.equals(GeneticSolver.ppx(p, p, instance.numJobs, generator), p);
+    }
+
+    @Test
+    public void testSolver() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        for (GeneticSolver.Crossover crossover : GeneticSolver.Crossover.values()) {
+            Result result = new GeneticSolver(20, 0.3, crossover, false, 2).solve(instance, System.currentTimeMillis() + 1000);
+            assert result.schedule.isValid();
+        }
+    }
+
+    @Test
+    public void testStopsWhenInterrupted() throws IOException, InterruptedException {
+        // as in a portfolio once another solver proved optimality: the deadline is far away
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Result[] result = new Result[1];
+        Thread thread = new Thread(() -> result[0] = new GeneticSolver(50, 0.3, GeneticSolver.Crossover.JOX, true, 2)
+                .solve(instance, System.currentTimeMillis() + 60000));
+        thread.start();
+        Thread.sleep(300);
+        long start = System.currentTimeMillis();
+        thread.interrupt();
+        thread.join(5000);
+        assert !thread.isAlive();
+        assert System.currentTimeMillis() - start < 5000;
+        assert result[0].schedule.isValid();
+        assert result[0].cause == Result.ExitCause.Timeout;
+    }
+}
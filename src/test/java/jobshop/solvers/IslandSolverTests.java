@@ -0,0 +1,113 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Result;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class IslandSolverTests {
+
+    private static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) return;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toArray(Path[]::new))
+                Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testMessageRoundTrip() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la21"));
+        Instance other = Instance.fromFile(Paths.get("instances/ft10"));
+        Result result = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT)
+                .solve(instance, System.currentTimeMillis() + 1000);
+        Path directory = Files.createTempDirectory("islands");
+        try {
+            Path file = directory.resolve("island-3.elite");
+            IslandSolver.write(file, 3, result.schedule);
+            Optional<Result> read = IslandSolver.read(file, instance);
+            assert read.isPresent();
+            assert read.get().schedule.makespan() == result.schedule.makespan();
+            // the message of another instance is ignored
+            assert !IslandSolver.read(file, other).isPresent();
+
+            // a corrupted message is ignored
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length / 2] ^= 1;
+            Files.write(file, bytes);
+            assert !IslandSolver.read(file, instance).isPresent();
+            assert !IslandSolver.best(directory, instance).isPresent();
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void testIslandsShareTheirBest() throws Exception {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Path directory = Files.createTempDirectory("islands");
+        try {
+            long deadline = System.currentTimeMillis() + 2000;
+            List<Thread> islands = new ArrayList<>();
+            Result[] results = new Result[3];
+            for (int id = 0; id < results.length; id++) {
+                int island = id;
+                Thread thread = new Thread(() -> results[island] =
+                        new IslandSolver(directory, island, 100, 10, 3).solve(instance, deadline));
+                islands.add(thread);
+                thread.start();
+            }
+            for (Thread thread : islands) thread.join();
+
+            Optional<Result> best = IslandSolver.best(directory, instance);
+            assert best.isPresent();
+            for (Result result : results) {
+                assert result.schedule.isValid();
+                assert best.get().schedule.makespan() <= result.schedule.makespan();
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                assert files.filter(f -> f.toString().endsWith(".elite")).count() == results.length;
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void testIslandAdoptsTheEliteOfAnother() throws Exception {
+        Instance instance = Instance.fromFile(Paths.get("instances/la07"));
+        // without perturbation and with one iteration per epoch, an island alone stays on a local optimum
+        Path alone = Files.createTempDirectory("islands");
+        try {
+            Result result = new IslandSolver(alone, 0, 1, 10, 0).solve(instance, System.currentTimeMillis() + 300);
+            assert !LowerBound.isOptimal(instance, result.schedule.makespan());
+        } finally {
+            delete(alone);
+        }
+
+        Result elite = new TabouInsertionSolver(100000, 10, 5).solve(instance, System.currentTimeMillis() + 5000);
+        assert elite.cause == Result.ExitCause.ProvedOptimal;
+        Path directory = Files.createTempDirectory("islands");
+        try {
+            IslandSolver.write(directory.resolve("island-1.elite"), 1, elite.schedule);
+            // island 0 starts from the greedy solution, the next epoch starts from the elite of island 1
+            Result result = new IslandSolver(directory, 0, 1, 10, 0).solve(instance, System.currentTimeMillis() + 5000);
+            assert result.cause == Result.ExitCause.ProvedOptimal;
+            assert result.schedule.makespan() == elite.schedule.makespan();
+            assert IslandSolver.read(directory.resolve("island-0.elite"), instance).get().schedule.makespan()
+                    == elite.schedule.makespan();
+        } finally {
+            delete(directory);
+        }
+    }
+}
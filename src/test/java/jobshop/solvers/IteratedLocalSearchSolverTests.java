@@ -0,0 +1,60 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Result;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class IteratedLocalSearchSolverTests {
+
+    @Test
+    public void testImprovesOnDescent() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        int descent = new DescentSolver(new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT))
+                .solve(instance, System.currentTimeMillis() + 1000).schedule.makespan();
+        for (IteratedLocalSearchSolver.Acceptance acceptance : IteratedLocalSearchSolver.Acceptance.values()) {
+            long start = System.currentTimeMillis();
+            Result result = new IteratedLocalSearchSolver(3, acceptance, 2).solve(instance, start + 1000);
+            long elapsed = System.currentTimeMillis() - start;
+            assert result.schedule.isValid();
+            // the first local optimum is the one of the descent, the following ones can only be better
+            assert result.schedule.makespan() < descent : acceptance + " " + result.schedule.makespan();
+            assert result.cause == Result.ExitCause.Timeout;
+            assert elapsed < 1500 : elapsed;
+        }
+    }
+
+    @Test
+    public void testStopsAtLowerBound() throws IOException {
+        // the descent alone stops above the lower bound of la07, which is its optimum:
+        // all chains stop as soon as one reaches it
+        Instance instance = Instance.fromFile(Paths.get("instances/la07"));
+        Result descent = new DescentSolver(new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT))
+                .solve(instance, System.currentTimeMillis() + 1000);
+        assert descent.cause != Result.ExitCause.ProvedOptimal;
+        long start = System.currentTimeMillis();
+        Result result = new IteratedLocalSearchSolver(2, IteratedLocalSearchSolver.Acceptance.IMPROVING, 2)
+                .solve(instance, start + 10000);
+        assert result.schedule.isValid();
+        assert result.cause == Result.ExitCause.ProvedOptimal;
+        assert result.schedule.makespan() == LowerBound.of(instance);
+        assert System.currentTimeMillis() - start < 5000;
+    }
+
+    @Test
+    public void testPerturbationSizes() throws IOException {
+        // swaps in the blocks of the critical path never create a cycle, whatever their number
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        int descent = new DescentSolver(new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT))
+                .solve(instance, System.currentTimeMillis() + 1000).schedule.makespan();
+        for (int perturbation : new int[]{0, 1, 10}) {
+            Result result = new IteratedLocalSearchSolver(perturbation, IteratedLocalSearchSolver.Acceptance.ALWAYS, 1)
+                    .solve(instance, System.currentTimeMillis() + 300);
+            assert result.schedule.isValid();
+            assert result.schedule.makespan() <= descent;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.encodings.ResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+public class LnsSolverTests {
+
+    private static DisjunctiveGraph greedy(Instance instance) {
+        return new DisjunctiveGraph(new ResourceOrder(new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT)
+                .solve(instance, System.currentTimeMillis() + 1000).schedule));
+    }
+
+    @Test
+    public void testWholeInstanceWindowIsExact() throws IOException {
+        // a single window with every operation: the branch and bound solves the whole instance
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        DisjunctiveGraph graph = greedy(instance);
+        List<LnsSolver.Window> windows = LnsSolver.windows(graph, graph.numOps, 0);
+        assert windows.size() == 1;
+        LnsSolver.Window window = windows.get(0).solve(10000000, System.currentTimeMillis() + 60000);
+        assert window.initial == graph.makespan();
+        assert window.exact;
+        assert window.best == 55;
+
+        window.apply(graph, true);
+        assert graph.update();
+        assert graph.makespan() == 55;
+        assert graph.toSchedule().isValid();
+    }
+
+    @Test
+    public void testWindowsDoNotOverlap() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ta01"));
+        DisjunctiveGraph graph = greedy(instance);
+        List<LnsSolver.Window> windows = LnsSolver.windows(graph, 30, 7);
+        assert windows.size() > 1;
+        boolean[] seen = new boolean[graph.numOps];
+        for (LnsSolver.Window window : windows) {
+            // the length of the longest path through a window never exceeds the makespan
+            assert window.initial <= graph.makespan();
+            for (int op : window.ops) {
+                assert !seen[op];
+                seen[op] = true;
+            }
+            window.solve(2000, System.currentTimeMillis() + 10000);
+            assert window.best <= window.initial;
+        }
+        // all improved windows applied together: no cycle
+        for (LnsSolver.Window window : windows) window.apply(graph, true);
+        assert graph.update();
+        assert graph.toSchedule().isValid();
+    }
+
+    @Test
+    public void testSolver() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Result seed = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, System.currentTimeMillis() + 1000);
+        Result result = new LnsSolver(30, 2000, 2).solve(instance, System.currentTimeMillis() + 3000);
+        assert result.schedule.isValid();
+        assert result.schedule.makespan() < seed.schedule.makespan();
+    }
+}
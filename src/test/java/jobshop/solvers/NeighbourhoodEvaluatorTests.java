@@ -0,0 +1,44 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.Solver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class NeighbourhoodEvaluatorTests {
+
+    private static boolean sameSchedule(Schedule a, Schedule b) {
+        for (int j = 0; j < a.pb.numJobs; j++)
+            for (int t = 0; t < a.pb.numTasks; t++)
+                if (a.startTime(j, t) != b.startTime(j, t)) return false;
+        return true;
+    }
+
+    @Test
+    public void testParallelTabouFollowsSequentialTrajectory() throws IOException {
+        for (String name : new String[] {"ft10", "la21"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/" + name));
+            Solver seed = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT);
+            long deadline = System.currentTimeMillis() + 60000;
+            Result sequential = new TabouSolver(100, 10, seed, new EvaluationCache(1 << 12), 1).solve(instance, deadline);
+            Result parallel = new TabouSolver(100, 10, seed, new EvaluationCache(1 << 12), 4).solve(instance, deadline);
+            assert sequential.schedule.makespan() == parallel.schedule.makespan();
+            assert sameSchedule(sequential.schedule, parallel.schedule);
+        }
+    }
+
+    @Test
+    public void testParallelDescentFollowsSequentialTrajectory() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la21"));
+        Solver seed = new GloutonSolver(GloutonSolver.GloutonPriority.SPT);
+        long deadline = System.currentTimeMillis() + 60000;
+        Result sequential = new DescentSolver(seed, new EvaluationCache(1 << 12), 1).solve(instance, deadline);
+        Result parallel = new DescentSolver(seed, new EvaluationCache(1 << 12), 4).solve(instance, deadline);
+        assert sequential.schedule.makespan() == parallel.schedule.makespan();
+        assert sameSchedule(sequential.schedule, parallel.schedule);
+    }
+}
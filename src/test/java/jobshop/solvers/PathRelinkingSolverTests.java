@@ -0,0 +1,68 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Schedule;
+import jobshop.encodings.ResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class PathRelinkingSolverTests {
+
+    @Test
+    public void testElitePoolIsBoundedAndDiverse() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        ElitePool elites = new ElitePool(instance, 3, 5);
+        TabouSolver tabou = new TabouSolver(300, 10, new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT),
+                new EvaluationCache(1 << 12), 1, null, elites);
+        Result result = tabou.solve(instance, System.currentTimeMillis() + 10000);
+
+        assert elites.size() > 0 && elites.size() <= 3;
+        // sorted by makespan, far enough from each other, and the best one is the best of the search
+        assert elites.makespan(0) == result.schedule.makespan();
+        for (int i = 0; i < elites.size(); i++) {
+            Schedule schedule = elites.get(i).toSchedule();
+            assert schedule.isValid() && schedule.makespan() == elites.makespan(i);
+            if (i > 0) assert elites.makespan(i - 1) <= elites.makespan(i);
+            for (int j = 0; j < i; j++)
+                assert ElitePool.distance(elites.get(i).jobsByMachine(), elites.get(j).jobsByMachine(), instance.numJobs) >= 5;
+        }
+        // a duplicate never enters
+        assert !elites.offer(result.schedule);
+    }
+
+    @Test
+    public void testRelinkStaysBetweenTheTwoSolutions() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        ResourceOrder from = new ResourceOrder(new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT)
+                .solve(instance, System.currentTimeMillis() + 1000).schedule);
+        ResourceOrder to = new ResourceOrder(new GloutonSolver(GloutonSolver.GloutonPriority.SPT)
+                .solve(instance, System.currentTimeMillis() + 1000).schedule);
+        int[] a = from.jobsByMachine();
+        int[] b = to.jobsByMachine();
+        int distance = ElitePool.distance(a, b, instance.numJobs);
+        assert distance == ElitePool.distance(b, a, instance.numJobs);
+        assert distance > 4;
+        assert ElitePool.distance(a, a, instance.numJobs) == 0;
+
+        Schedule middle = PathRelinkingSolver.relink(from, to);
+        assert middle != null && middle.isValid();
+        int[] m = new ResourceOrder(middle).jobsByMachine();
+        int fromMiddle = ElitePool.distance(a, m, instance.numJobs);
+        int middleTo = ElitePool.distance(m, b, instance.numJobs);
+        // each step removes one inversion: the solution lies on a shortest path, in its central half
+        assert fromMiddle + middleTo == distance;
+        assert fromMiddle >= distance / 4 && middleTo >= distance / 4;
+    }
+
+    @Test
+    public void testSolverImprovesOnTabou() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Result result = new PathRelinkingSolver(200, 10, 8).solve(instance, System.currentTimeMillis() + 2000);
+        assert result.schedule.isValid();
+        assert result.schedule.makespan() <= new TabouSolver(200, 10).solve(instance, System.currentTimeMillis() + 2000)
+                .schedule.makespan();
+    }
+}
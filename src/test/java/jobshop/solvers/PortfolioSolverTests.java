@@ -0,0 +1,62 @@
+package jobshop.solvers;
+
+import jobshop.Generator;
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Result;
+import jobshop.Solver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class PortfolioSolverTests {
+
+    @Test
+    public void testStopsTheOtherSolversAtProvedOptimality() throws IOException, InterruptedException {
+        // la06 reaches its lower bound (926): the tabu search proves optimality quickly
+        Instance instance = Instance.fromFile(Paths.get("instances/la06"));
+        assert LowerBound.of(instance) == 926;
+        // a long search that cannot stop by itself: an annealing on ft10, whose lower bound is not reachable
+        Instance ft10 = Instance.fromFile(Paths.get("instances/ft10"));
+        CountDownLatch annealingDone = new CountDownLatch(1);
+        Solver annealing = (inst, deadline) -> {
+            try {
+                new SimulatedAnnealingSolver(SimulatedAnnealingSolver.Cooling.GEOMETRIC, 1, 0.02, 1000000).solve(ft10, deadline);
+                return new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(inst, deadline);
+            } finally {
+                annealingDone.countDown();
+            }
+        };
+        PortfolioSolver portfolio = new PortfolioSolver(
+                Arrays.asList(new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT), annealing),
+                Collections.singletonList(seed -> new TabouSolver(100000, 10, seed)));
+
+        long start = System.currentTimeMillis();
+        Result result = portfolio.solve(instance, start + 60000);
+        assert result.cause == Result.ExitCause.ProvedOptimal;
+        assert result.schedule.isValid() && result.schedule.makespan() == 926;
+        assert System.currentTimeMillis() - start < 10000;
+        // the annealing is interrupted long before its deadline
+        assert annealingDone.await(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testRejectsAnEmptyPortfolio() {
+        try {
+            new PortfolioSolver(Collections.emptyList(), Collections.emptyList());
+            assert false;
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        // seeded solvers alone start from the greedy solution
+        Instance instance = Generator.taillard(6, 4, 1, 2);
+        Result result = new PortfolioSolver(Collections.emptyList(), Collections.singletonList(seed -> new DescentSolver(seed)))
+                .solve(instance, System.currentTimeMillis() + 500);
+        assert result.schedule.isValid();
+    }
+}
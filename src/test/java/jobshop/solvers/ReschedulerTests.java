@@ -0,0 +1,109 @@
+package jobshop.solvers;
+
+import jobshop.Generator;
+import jobshop.Instance;
+import jobshop.Schedule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class ReschedulerTests {
+
+    private static Schedule tabou(Instance instance) {
+        return new TabouSolver(200, 10).solve(instance, System.currentTimeMillis() + 10000).schedule;
+    }
+
+    @Test
+    public void testNewJobsAfterFrozenOperations() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Schedule before = tabou(instance);
+        Rescheduler rescheduler = new Rescheduler(before, 1000, 1000);
+        int now = before.makespan() / 2;
+
+        int[][] machines = {{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, {9, 8, 7, 6, 5, 4, 3, 2, 1, 0}};
+        int[][] durations = {{10, 20, 30, 40, 50, 60, 70, 80, 90, 99}, {5, 5, 5, 5, 5, 5, 5, 5, 5, 5}};
+        Schedule after = rescheduler.addJobs(now, machines, durations);
+
+        assert after.pb.numJobs == instance.numJobs + 2;
+        assert after.isValid();
+        for (int op = 0; op < instance.numJobs * instance.numTasks; op++) {
+            // operations started before now are unchanged, the others do not start before now
+            if (before.startTime(op) < now) {
+                assert rescheduler.isFrozen(op);
+                assert after.startTime(op) == before.startTime(op);
+            } else {
+                assert after.startTime(op) >= now;
+            }
+        }
+        for (int op = instance.numJobs * instance.numTasks; op < after.pb.numJobs * after.pb.numTasks; op++)
+            assert after.startTime(op) >= now;
+    }
+
+    @Test
+    public void testMachineDown() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Schedule before = tabou(instance);
+        Rescheduler rescheduler = new Rescheduler(before, 1000, 1000);
+        int machine = 3;
+        int now = before.makespan() / 3;
+        int until = now + 200;
+        // the operation running on the machine when it goes down, if any
+        int running = -1;
+        for (int op = 0; op < instance.numJobs * instance.numTasks; op++)
+            if (instance.machine(op) == machine && before.startTime(op) < now
+                    && before.startTime(op) + instance.duration(op) > now)
+                running = op;
+
+        Schedule after = rescheduler.machineDown(now, machine, now, until);
+        assert after.isValid();
+        assert !rescheduler.isAvailable(machine, now, now + 1);
+        for (int op = 0; op < instance.numJobs * instance.numTasks; op++) {
+            int start = after.startTime(op);
+            if (op == running) {
+                // interrupted then restarted after the failure
+                assert start >= until;
+            } else if (before.startTime(op) < now) {
+                assert start == before.startTime(op);
+            } else {
+                assert start >= now;
+                if (instance.machine(op) == machine)
+                    assert rescheduler.isAvailable(machine, start, start + instance.duration(op));
+            }
+        }
+
+        // later events build on the current plan
+        Schedule later = rescheduler.addJobs(until, new int[][]{{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}},
+                new int[][]{{1, 1, 1, 1, 1, 1, 1, 1, 1, 1}});
+        assert later.isValid();
+        for (int op = 0; op < instance.numJobs * instance.numTasks; op++)
+            if (after.startTime(op) < until) assert later.startTime(op) == after.startTime(op);
+    }
+
+    @Test
+    public void testLargeInstance() {
+        Instance instance = Generator.taillard(100, 20, 1, 2);
+        Schedule before = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT)
+                .solve(instance, System.currentTimeMillis() + 10000).schedule;
+        Rescheduler rescheduler = new Rescheduler(before, 200, 1000);
+        int[][] machines = new int[1][20];
+        int[][] durations = new int[1][20];
+        for (int t = 0; t < 20; t++) {
+            machines[0][t] = 19 - t;
+            durations[0][t] = 50;
+        }
+        int now = before.makespan() / 2;
+        long start = System.nanoTime();
+        Schedule after = rescheduler.addJobs(now, machines, durations);
+        after = rescheduler.machineDown(now + 10, 5, now + 10, now + 500);
+        assert after.isValid();
+        // then a job arrives at each of the next 50 dates: the cost of an event depends on the operations it
+        // touches, not on the size of the instance, and is far below the time given to the repair
+        for (int k = 1; k <= 50; k++)
+            after = rescheduler.addJobs(now + 10 + k, machines, durations);
+        long elapsedMs = (System.nanoTime() - start) / 1000000;
+        assert after.isValid() && after.pb.numJobs == 151;
+        // at most 50 ms per event on average (the repair is allowed 1000 ms per event)
+        assert elapsedMs < 52 * 50 : elapsedMs + " ms";
+    }
+}
@@ -0,0 +1,32 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class ShiftingBottleneckSolverTests {
+
+    @Test
+    public void testValidAndNotWorseThanGreedy() throws IOException {
+        for (String name : new String[]{"ft06", "ft10"}) {
+            Instance instance = Instance.fromFile(Paths.get("instances/" + name));
+            Result greedy = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, System.currentTimeMillis() + 1000);
+            Result result = new ShiftingBottleneckSolver(1000, 3).solve(instance, System.currentTimeMillis() + 10000);
+            assert result.schedule.isValid();
+            assert result.schedule.makespan() <= greedy.schedule.makespan();
+        }
+    }
+
+    @Test
+    public void testDeadline() throws IOException {
+        // deadline already passed: every machine is sequenced by Schrage only
+        Instance instance = Instance.fromFile(Paths.get("instances/ta51"));
+        long start = System.currentTimeMillis();
+        Result result = new ShiftingBottleneckSolver(1000, 3).solve(instance, start);
+        assert result.schedule.isValid();
+        assert System.currentTimeMillis() - start < 1000;
+    }
+}
@@ -0,0 +1,74 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Result;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SimulatedAnnealingSolverTests {
+
+    private static Result greedy(Instance instance) {
+        return new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, 0);
+    }
+
+    @Test
+    public void testImprovesOnGreedy() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Result result = new SimulatedAnnealingSolver(SimulatedAnnealingSolver.Cooling.GEOMETRIC, 1, 0.02, 1000000)
+                .solve(instance, System.currentTimeMillis() + 1000);
+        assert result.schedule.isValid();
+        assert result.schedule.makespan() < greedy(instance).schedule.makespan();
+    }
+
+    @Test
+    public void testCoolingStopsAtDeadline() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        for (SimulatedAnnealingSolver.Cooling cooling : SimulatedAnnealingSolver.Cooling.values()) {
+            long start = System.currentTimeMillis();
+            Result result = new SimulatedAnnealingSolver(cooling, 1, 0.02, 1000000).solve(instance, start + 300);
+            long elapsed = System.currentTimeMillis() - start;
+            assert result.schedule.isValid();
+            assert result.cause == Result.ExitCause.Timeout : cooling;
+            assert elapsed < 800 : cooling + " " + elapsed;
+            assert result.schedule.makespan() <= greedy(instance).schedule.makespan();
+        }
+    }
+
+    @Test
+    public void testReheat() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        // the initial temperature of each phase: it is halved by every reheat
+        List<Double> phases = new ArrayList<>();
+        SimulatedAnnealingSolver solver = new SimulatedAnnealingSolver(SimulatedAnnealingSolver.Cooling.LINEAR, 1, 0.02, 100) {
+            @Override
+            double temperature(double t0, double tf, double fraction) {
+                if (phases.isEmpty() || phases.get(phases.size() - 1) != t0) phases.add(t0);
+                return super.temperature(t0, tf, fraction);
+            }
+        };
+        Result result = solver.solve(instance, System.currentTimeMillis() + 300);
+        assert result.schedule.isValid();
+        assert phases.size() > 1;
+        for (int i = 1; i < phases.size(); i++)
+            assert phases.get(i) < phases.get(i - 1);
+    }
+
+    @Test
+    public void testStopsAtLowerBound() throws IOException {
+        // the greedy solution of la07 is not optimal, its optimum is the lower bound
+        Instance instance = Instance.fromFile(Paths.get("instances/la07"));
+        assert greedy(instance).cause != Result.ExitCause.ProvedOptimal;
+        long start = System.currentTimeMillis();
+        Result result = new SimulatedAnnealingSolver(SimulatedAnnealingSolver.Cooling.GEOMETRIC, 1, 0.02, 1000000)
+                .solve(instance, start + 10000);
+        assert result.schedule.isValid();
+        assert result.cause == Result.ExitCause.ProvedOptimal;
+        assert result.schedule.makespan() == LowerBound.of(instance);
+        assert System.currentTimeMillis() - start < 5000;
+    }
+}
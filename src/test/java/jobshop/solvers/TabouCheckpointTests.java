@@ -0,0 +1,79 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.Result;
+import jobshop.Solver;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class TabouCheckpointTests {
+
+    private static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) return;
+        for (Path file : Files.list(directory).toArray(Path[]::new))
+            Files.delete(file);
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testResumeFollowsSameTrajectory() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la21"));
+        Solver seed = new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT);
+        Path uninterrupted = Files.createTempDirectory("checkpoint");
+        Path interrupted = Files.createTempDirectory("checkpoint");
+        try {
+            int maxIter = 400;
+            Result full = new TabouSolver(maxIter, 10, seed, new EvaluationCache(1 << 12), 1,
+                    new TabouCheckpoint(uninterrupted, 0)).solve(instance, System.currentTimeMillis() + 60000);
+
+            // a first run stopped early by its deadline, then resumed from its checkpoint
+            TabouCheckpoint checkpoint = new TabouCheckpoint(interrupted, 0);
+            new TabouSolver(maxIter, 10, seed, new EvaluationCache(1 << 12), 1, checkpoint)
+                    .solve(instance, System.currentTimeMillis() + 50);
+            TabouCheckpoint.State stopped = checkpoint.load(instance, maxIter, 10);
+            assert stopped != null;
+            assert stopped.iteration <= maxIter;
+            // other parameters: no checkpoint to resume from
+            assert checkpoint.load(instance, maxIter + 1, 10) == null;
+
+            Result resumed = new TabouSolver(maxIter, 10, seed, new EvaluationCache(1 << 12), 1, checkpoint)
+                    .solve(instance, System.currentTimeMillis() + 60000);
+            assert resumed.schedule.makespan() == full.schedule.makespan();
+
+            // same final state: current and best solutions, tabu memory and iteration count
+            TabouCheckpoint.State a = new TabouCheckpoint(uninterrupted, 0).load(instance, maxIter, 10);
+            TabouCheckpoint.State b = checkpoint.load(instance, maxIter, 10);
+            assert a.iteration == maxIter && b.iteration == maxIter;
+            assert Arrays.equals(a.current, b.current);
+            assert Arrays.equals(a.best, b.best);
+            assert Arrays.equals(a.tabou, b.tabou);
+        } finally {
+            delete(uninterrupted);
+            delete(interrupted);
+        }
+    }
+
+    @Test
+    public void testCorruptedCheckpointIsIgnored() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft06"));
+        Path directory = Files.createTempDirectory("checkpoint");
+        try {
+            TabouCheckpoint checkpoint = new TabouCheckpoint(directory, 0);
+            new TabouSolver(20, 5, new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT), new EvaluationCache(1 << 12), 1,
+                    checkpoint).solve(instance, System.currentTimeMillis() + 10000);
+            Path file = checkpoint.file(instance);
+            assert checkpoint.load(instance, 20, 5) != null;
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length / 2] ^= 1;
+            Files.write(file, bytes);
+            assert checkpoint.load(instance, 20, 5) == null;
+        } finally {
+            delete(directory);
+        }
+    }
+}
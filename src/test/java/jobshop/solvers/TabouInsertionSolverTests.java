@@ -0,0 +1,87 @@
+package jobshop.solvers;
+
+import jobshop.Instance;
+import jobshop.LowerBound;
+import jobshop.Result;
+import jobshop.encodings.ResourceOrder;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+public class TabouInsertionSolverTests {
+
+    private static Result greedy(Instance instance) {
+        return new GloutonSolver(GloutonSolver.GloutonPriority.EST_LRPT).solve(instance, 0);
+    }
+
+    @Test
+    public void testInsertionsOfBlock() {
+        // N6 moves every task of the block to its front or back, N7 also moves the first and last tasks inside
+        assert Utils.insertions(new Utils.Block(0, 3, 4)).size() == 1;
+        assert Utils.insertions(new Utils.Block(0, 3, 5)).size() == 4;
+        assert Utils.insertions(new Utils.Block(0, 3, 6)).size() == 8;
+    }
+
+    @Test
+    public void testInsertionsOfCriticalPath() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        ResourceOrder order = new ResourceOrder(greedy(instance).schedule);
+        for (Utils.Block block : Utils.blocksOfCriticalPath(order)) {
+            List<Utils.Insertion> insertions = Utils.insertions(block);
+            for (int i = 0; i < insertions.size(); i++) {
+                Utils.Insertion move = insertions.get(i);
+                // one end of the move is an end of the block, and every move is different
+                assert move.from == block.firstTask || move.from == block.lastTask
+                        || move.to == block.firstTask || move.to == block.lastTask;
+                for (int j = 0; j < i; j++)
+                    assert !move.sameAs(insertions.get(j));
+                // the reverse move gives back the order
+                ResourceOrder copy = order.copy();
+                move.applyOn(copy);
+                assert !Arrays.deepEquals(copy.tasksByMachine, order.tasksByMachine);
+                move.reverse().applyOn(copy);
+                assert Arrays.deepEquals(copy.tasksByMachine, order.tasksByMachine);
+            }
+            // the swaps are part of the neighbourhood
+            for (Utils.Swap swap : Utils.neighbors(block))
+                assert insertions.stream().anyMatch(move -> move.sameAs(new Utils.Insertion(swap.machine, swap.t1, swap.t2)));
+        }
+    }
+
+    @Test
+    public void testImprovesOnGreedy() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        Result result = new TabouInsertionSolver(100000, 10, 5).solve(instance, System.currentTimeMillis() + 1000);
+        assert result.schedule.isValid();
+        assert result.schedule.makespan() < greedy(instance).schedule.makespan();
+    }
+
+    @Test
+    public void testStopsAtDeadlineOrMaxIter() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/ft10"));
+        long start = System.currentTimeMillis();
+        Result result = new TabouInsertionSolver(Integer.MAX_VALUE, 10, 5).solve(instance, start + 300);
+        assert System.currentTimeMillis() - start < 800;
+        assert result.schedule.isValid();
+        assert result.cause == Result.ExitCause.Timeout;
+
+        result = new TabouInsertionSolver(20, 10, 5).solve(instance, System.currentTimeMillis() + 10000);
+        assert result.schedule.isValid();
+        assert result.cause == Result.ExitCause.Blocked;
+    }
+
+    @Test
+    public void testStopsAtLowerBound() throws IOException {
+        Instance instance = Instance.fromFile(Paths.get("instances/la07"));
+        assert greedy(instance).cause != Result.ExitCause.ProvedOptimal;
+        long start = System.currentTimeMillis();
+        Result result = new TabouInsertionSolver(100000, 10, 5).solve(instance, start + 10000);
+        assert result.schedule.isValid();
+        assert result.cause == Result.ExitCause.ProvedOptimal;
+        assert result.schedule.makespan() == LowerBound.of(instance);
+        assert System.currentTimeMillis() - start < 5000;
+    }
+}